@@ -0,0 +1,62 @@
+package com.mspigl.mp0421.benchmark;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class building synthetic catalogs for benchmarks
+ */
+public final class BenchmarkCatalogs {
+
+    /**
+     * Number of tools sharing each tool type
+     */
+    private static final int TOOLS_PER_TYPE = 4;
+
+    private BenchmarkCatalogs() {
+    }
+
+    /**
+     * Build a catalog with the input number of tools. Tool codes are "T0", "T1", ... and cycle
+     * through every combination of weekday, weekend and holiday chargeability
+     * @param toolCount the number of tools in the catalog
+     * @return the catalog
+     */
+    public static Catalog build(int toolCount) {
+        List<Tool> tools = new ArrayList<>(toolCount);
+        List<CatalogItem> items = new ArrayList<>();
+
+        for (int type = 0; type * TOOLS_PER_TYPE < toolCount; type++) {
+            items.add(new CatalogItem(
+                    typeName(type),
+                    1.49 + (type % 300) / 100d,
+                    (type & 1) == 0,
+                    (type & 2) == 0,
+                    (type & 4) == 0
+            ));
+        }
+
+        for (int i = 0; i < toolCount; i++) {
+            tools.add(new Tool(toolCode(i), "Brand" + (i % 17), typeName(i / TOOLS_PER_TYPE)));
+        }
+
+        return new Catalog(tools, items);
+    }
+
+    /**
+     * Get the code of the nth tool of a benchmark catalog
+     * @param index the index of the tool
+     * @return the tool code
+     */
+    public static String toolCode(int index) {
+        return "T" + index;
+    }
+
+    private static String typeName(int type) {
+        return "Type" + type;
+    }
+}
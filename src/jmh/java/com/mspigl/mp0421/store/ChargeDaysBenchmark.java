@@ -0,0 +1,57 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing the QuoteCache with counting charge days directly, on a repeated key
+ * the cache always hits
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChargeDaysBenchmark {
+
+    private static final int CHAINSAW_MASK = CatalogItem.WEEKDAY_CHARGEABLE | CatalogItem.HOLIDAY_CHARGEABLE;
+
+    @Param({"5", "365"})
+    public int rentalDays;
+
+    private HolidayCalendar holidayCalendar;
+    private QuoteCache quoteCache;
+    private long checkoutEpochDay;
+
+    @Setup
+    public void setUp() {
+        holidayCalendar = HolidayCalendar.standard();
+        quoteCache = new QuoteCache(10_000);
+        checkoutEpochDay = EpochDays.of(2021, 7, 2);
+    }
+
+    @Benchmark
+    public int countChargeDays() {
+        return ChargeDayCalculator.countChargeDays(holidayCalendar, checkoutEpochDay, rentalDays, CHAINSAW_MASK);
+    }
+
+    @Benchmark
+    public int countChargeDaysCached() {
+        return quoteCache.getChargeDays(holidayCalendar, checkoutEpochDay, rentalDays, CHAINSAW_MASK);
+    }
+}
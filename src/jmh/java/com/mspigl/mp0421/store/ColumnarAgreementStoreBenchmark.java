@@ -0,0 +1,82 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.benchmark.BenchmarkCatalogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for revenue aggregations over agreement objects and over agreement columns
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ColumnarAgreementStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int agreementCount;
+
+    private List<RentalAgreement> agreements;
+    private ColumnarAgreementStore columns;
+
+    @Setup
+    public void setUp() {
+        Store store = new Store(BenchmarkCatalogs.build(1000));
+
+        agreements = new ArrayList<>(agreementCount);
+        columns = new ColumnarAgreementStore();
+
+        for (int i = 0; i < agreementCount; i++) {
+            agreements.add(store.quote(BenchmarkCatalogs.toolCode(i % 1000), 1 + i % 30, i % 101, "7/2/21"));
+        }
+
+        columns.appendAll(agreements);
+    }
+
+    @Benchmark
+    public double totalFinalChargeOfObjects() {
+        double total = 0;
+
+        for (RentalAgreement agreement : agreements) {
+            total += agreement.getFinalCharge();
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public long totalRevenueCents() {
+        return columns.totalRevenueCents(false);
+    }
+
+    @Benchmark
+    public long totalRevenueCentsParallel() {
+        return columns.totalRevenueCents(true);
+    }
+
+    @Benchmark
+    public Map<String, Long> revenueByToolType() {
+        return columns.revenueByToolType(false);
+    }
+
+    @Benchmark
+    public long[] revenueByDiscountBucket() {
+        return columns.revenueByDiscountBucket(10, true);
+    }
+}
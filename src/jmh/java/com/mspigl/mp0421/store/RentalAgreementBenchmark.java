@@ -0,0 +1,77 @@
+package com.mspigl.mp0421.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for RentalAgreement rendering and charge calculations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RentalAgreementBenchmark {
+
+    private RentalAgreement rentalAgreement;
+    private List<RentalAgreement> receiptBatch;
+    private StringBuilder output;
+
+    @Setup
+    public void setUp() {
+        rentalAgreement = new RentalAgreement();
+        rentalAgreement.setToolCode("CHNS");
+        rentalAgreement.setToolType("Chainsaw");
+        rentalAgreement.setToolBrand("Stihl");
+        rentalAgreement.setRentalDays(7);
+        rentalAgreement.setCheckoutDate("07/02/21");
+        rentalAgreement.setDueDate("07/09/21");
+        rentalAgreement.setDailyCharge(1.49);
+        rentalAgreement.setChargeDays(5);
+        rentalAgreement.setDiscountPercent(75);
+
+        receiptBatch = Collections.nCopies(1000, rentalAgreement);
+        output = new StringBuilder(1 << 20);
+    }
+
+    @Benchmark
+    public String render() {
+        return rentalAgreement.toString();
+    }
+
+    @Benchmark
+    public int renderInto() {
+        output.setLength(0);
+        ReceiptRenderer.render(rentalAgreement, output);
+
+        return output.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int renderAll() throws IOException {
+        output.setLength(0);
+
+        return ReceiptRenderer.renderAll(receiptBatch, output);
+    }
+
+    @Benchmark
+    public double getFinalCharge() {
+        return rentalAgreement.getFinalCharge();
+    }
+}
@@ -0,0 +1,149 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.benchmark.BenchmarkCatalogs;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.discount.DiscountRule;
+import com.mspigl.mp0421.discount.DiscountTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Store checkout hot path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StoreBenchmark {
+
+    private static final int SHORT_RENTAL_DAYS = 5;
+    private static final int LONG_RENTAL_DAYS = 365;
+
+    @Param({"100", "10000", "1000000"})
+    public int catalogSize;
+
+    private Store store;
+    private Store cachedStore;
+    private Store discountedStore;
+    private RentalAgreement longRental;
+    private PreparedCheckout preparedCheckout;
+    private CatalogIndex catalogIndex;
+    private int toolId;
+    private String toolCode;
+    private LocalDate holiday;
+
+    @Setup
+    public void setUp() {
+        Catalog catalog = BenchmarkCatalogs.build(catalogSize);
+
+        store = new Store(catalog);
+        cachedStore = new Store(catalog, HolidayCalendar.standard(), null, new QuoteCache(10_000));
+        catalogIndex = catalog.snapshot().getIndex();
+        toolCode = BenchmarkCatalogs.toolCode(catalogSize / 2);
+        toolId = catalogIndex.toolId(toolCode);
+        preparedCheckout = store.prepare(toolCode);
+        holiday = LocalDate.of(2021, Month.JULY, 5);
+
+        longRental = store.checkout(toolCode, LONG_RENTAL_DAYS, 10, "7/2/21");
+
+        discountedStore = new Store(catalog);
+        discountedStore.setDiscountTable(DiscountTable.compile(
+                Arrays.asList(
+                        DiscountRule.forDuration(3, 5),
+                        DiscountRule.forDuration(7, 10),
+                        DiscountRule.forDateWindow(LocalDate.of(2021, Month.JULY, 1), LocalDate.of(2021, Month.JULY, 5), 15),
+                        DiscountRule.forLoyaltyTier(2, 12)
+                ),
+                catalogIndex
+        ));
+    }
+
+    @Benchmark
+    public RentalAgreement checkoutShortRental() {
+        return store.checkout(toolCode, SHORT_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public RentalAgreement checkoutLongRental() {
+        return store.checkout(toolCode, LONG_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public RentalAgreement checkoutLongRentalCached() {
+        return cachedStore.checkout(toolCode, LONG_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public RentalAgreement checkoutShortRentalDiscounted() {
+        return discountedStore.checkout(toolCode, SHORT_RENTAL_DAYS, 10, "7/2/21", 2);
+    }
+
+    @Benchmark
+    public RentalAgreement extendLongRentalByWeek() {
+        return store.extend(longRental, 7);
+    }
+
+    @Benchmark
+    public RentalAgreement checkoutShortRentalById() {
+        return store.checkout(toolId, SHORT_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public RentalAgreement quoteShortRentalPrepared() {
+        return preparedCheckout.quote(SHORT_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public long quoteFinalChargeCentsPrepared() {
+        return preparedCheckout.quoteFinalChargeCents(SHORT_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public PricingGrid priceMonthByMonthGrid() {
+        return store.priceGrid(toolCode, "7/1/21", 31, 31, 10);
+    }
+
+    @Benchmark
+    public boolean isHoliday() {
+        return Store.isHoliday(holiday);
+    }
+
+    @Benchmark
+    public long validateCheckoutInputWithValidDate() {
+        return store.validateCheckoutInput(catalogIndex, toolId, SHORT_RENTAL_DAYS, 10, "7/2/21");
+    }
+
+    @Benchmark
+    public Object validateCheckoutInputWithInvalidDate() {
+        try {
+            store.validateCheckoutInput(catalogIndex, toolId, SHORT_RENTAL_DAYS, 10, "13/1/21");
+
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckoutWithInvalidDate() {
+        return store.tryCheckout(toolCode, SHORT_RENTAL_DAYS, 10, "13/1/21");
+    }
+}
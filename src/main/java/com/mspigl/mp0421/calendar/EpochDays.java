@@ -0,0 +1,140 @@
+package com.mspigl.mp0421.calendar;
+
+/**
+ * Utility class for calendar arithmetic on epoch days (days since 1970-01-01) in the
+ * proleptic ISO calendar, without allocating date objects
+ */
+public final class EpochDays {
+
+    /**
+     * Days in a 400 year Gregorian cycle
+     */
+    private static final int DAYS_PER_ERA = 146097;
+
+    private EpochDays() {
+    }
+
+    /**
+     * Get the epoch day of the input date
+     * @param year the year
+     * @param month the month (1 - 12)
+     * @param dayOfMonth the day of the month (1 - 31)
+     * @return the epoch day of the date
+     */
+    public static long of(int year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        long dayOfYear = (153L * shiftedMonth + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * DAYS_PER_ERA + dayOfEra - 719468;
+    }
+
+    /**
+     * Get the year containing the input epoch day
+     * @param epochDay the day to inspect
+     * @return the year of the day
+     */
+    public static int year(long epochDay) {
+        long shifted = epochDay + 719468;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = yearOfEra(dayOfEra);
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+
+        return (int) (yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0));
+    }
+
+    /**
+     * Get the month of the year of the input epoch day
+     * @param epochDay the day to inspect
+     * @return the month of the day (1 - 12)
+     */
+    public static int month(long epochDay) {
+        long dayOfYear = marchBasedDayOfYear(epochDay);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+
+        return (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+    }
+
+    /**
+     * Get the day of the month of the input epoch day
+     * @param epochDay the day to inspect
+     * @return the day of the month of the day (1 - 31)
+     */
+    public static int dayOfMonth(long epochDay) {
+        long dayOfYear = marchBasedDayOfYear(epochDay);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+
+        return (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+    }
+
+    /**
+     * Get the number of days in a month
+     * @param year the year of the month
+     * @param month the month (1 - 12)
+     * @return the number of days in the month
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Determine if the input year is a leap year
+     * @param year the year to test
+     * @return whether the year is a leap year
+     */
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Get the zero-based day of the week (Monday is 0, Sunday is 6) of the input epoch day.
+     * Epoch day 0 (1970-01-01) is a Thursday
+     * @param epochDay the day to inspect
+     * @return the zero-based day of the week
+     */
+    public static int dayOfWeekIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    /**
+     * Determine if the input epoch day falls on a Saturday or Sunday
+     * @param epochDay the day to test
+     * @return whether the day is a weekend day
+     */
+    public static boolean isWeekend(long epochDay) {
+        return dayOfWeekIndex(epochDay) >= 5;
+    }
+
+    /**
+     * Get the day of a year starting on March 1st, which puts the leap day at the end of the year
+     * @param epochDay the day to inspect
+     * @return the zero-based day of the March-based year
+     */
+    private static long marchBasedDayOfYear(long epochDay) {
+        long shifted = epochDay + 719468;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = yearOfEra(dayOfEra);
+
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    private static long yearOfEra(long dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    }
+}
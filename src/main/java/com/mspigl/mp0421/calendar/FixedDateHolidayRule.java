@@ -0,0 +1,48 @@
+package com.mspigl.mp0421.calendar;
+
+import java.time.Month;
+
+/**
+ * Class representing a holiday on a fixed date, optionally observed on the nearest weekday
+ * (the preceding Friday if it falls on a Saturday, the following Monday if on a Sunday)
+ */
+public class FixedDateHolidayRule implements HolidayRule {
+
+    private final Month month;
+    private final int dayOfMonth;
+    private final boolean observedOnNearestWeekday;
+
+    /**
+     * Construct a FixedDateHolidayRule instance
+     * @param month the month of the holiday (must not be null)
+     * @param dayOfMonth the day of the month of the holiday, present in every year, so February
+     * 29 is rejected rather than moved to another day in common years
+     * @param observedOnNearestWeekday whether a weekend holiday is moved to the nearest weekday
+     */
+    public FixedDateHolidayRule(Month month, int dayOfMonth, boolean observedOnNearestWeekday) {
+        if (month == null || dayOfMonth < 1 || dayOfMonth > month.minLength()) {
+            throw new IllegalArgumentException("A fixed date holiday must have a month and a day present in every year");
+        }
+
+        this.month = month;
+        this.dayOfMonth = dayOfMonth;
+        this.observedOnNearestWeekday = observedOnNearestWeekday;
+    }
+
+    @Override
+    public long observedEpochDay(int year) {
+        long epochDay = EpochDays.of(year, month.getValue(), dayOfMonth);
+
+        if (observedOnNearestWeekday) {
+            int dayOfWeek = EpochDays.dayOfWeekIndex(epochDay);
+
+            if (dayOfWeek == 5) {
+                epochDay--;
+            } else if (dayOfWeek == 6) {
+                epochDay++;
+            }
+        }
+
+        return epochDay;
+    }
+}
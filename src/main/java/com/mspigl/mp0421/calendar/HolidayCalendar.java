@@ -0,0 +1,51 @@
+package com.mspigl.mp0421.calendar;
+
+import java.time.LocalDate;
+
+/**
+ * Interface representing the set of observed holidays used when deciding whether a rental day is chargeable
+ */
+public interface HolidayCalendar {
+
+    /**
+     * Get the calendar used by a store when none is configured: Independence Day (July 4th,
+     * observed July 3rd if 4th is a Saturday, July 5th if Sunday) and Labor Day (first Monday
+     * of September)
+     * @return the standard holiday calendar
+     */
+    static HolidayCalendar standard() {
+        return StandardHolidays.CALENDAR;
+    }
+
+    /**
+     * Determine if the input epoch day is an observed holiday
+     * @param epochDay the day to test
+     * @return whether the day is a holiday
+     */
+    boolean isHoliday(long epochDay);
+
+    /**
+     * Determine if the input day is an observed holiday
+     * @param day the day to test
+     * @return whether the day is a holiday
+     */
+    default boolean isHoliday(LocalDate day) {
+        return isHoliday(day.toEpochDay());
+    }
+
+    /**
+     * Count the observed holidays in a range of days
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive)
+     * @return the number of holidays in the range
+     */
+    int countHolidays(long firstEpochDay, long lastEpochDay);
+
+    /**
+     * Count the observed holidays falling on a Saturday or Sunday in a range of days
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive)
+     * @return the number of weekend holidays in the range
+     */
+    int countWeekendHolidays(long firstEpochDay, long lastEpochDay);
+}
@@ -0,0 +1,15 @@
+package com.mspigl.mp0421.calendar;
+
+/**
+ * Interface representing a rule producing one observed holiday per year
+ */
+public interface HolidayRule {
+
+    /**
+     * Get the day on which the holiday is observed in the input year. The observed day may
+     * fall in an adjacent year (e.g. a January 1st holiday observed on the preceding Friday)
+     * @param year the year of the holiday
+     * @return the observed holiday as an epoch day
+     */
+    long observedEpochDay(int year);
+}
@@ -0,0 +1,53 @@
+package com.mspigl.mp0421.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+
+/**
+ * Class representing a holiday on the nth occurrence of a day of the week in a month
+ * (e.g. the first Monday of September), or the last occurrence when n is -1
+ */
+public class NthWeekdayHolidayRule implements HolidayRule {
+
+    /**
+     * Ordinal selecting the last occurrence of the day of the week in the month
+     */
+    public static final int LAST = -1;
+
+    private final Month month;
+    private final DayOfWeek dayOfWeek;
+    private final int ordinal;
+
+    /**
+     * Construct a NthWeekdayHolidayRule instance
+     * @param month the month of the holiday (must not be null)
+     * @param dayOfWeek the day of the week of the holiday (must not be null)
+     * @param ordinal the occurrence of the day of the week in the month (1 - 4, or LAST)
+     */
+    public NthWeekdayHolidayRule(Month month, DayOfWeek dayOfWeek, int ordinal) {
+        if (month == null || dayOfWeek == null || (ordinal != LAST && (ordinal < 1 || ordinal > 4))) {
+            throw new IllegalArgumentException("An nth weekday holiday must have a valid month, day and ordinal");
+        }
+
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
+        this.ordinal = ordinal;
+    }
+
+    @Override
+    public long observedEpochDay(int year) {
+        int target = dayOfWeek.getValue() - 1;
+
+        if (ordinal == LAST) {
+            long lastOfMonth = EpochDays.of(year, month.getValue(), EpochDays.lengthOfMonth(year, month.getValue()));
+            int back = Math.floorMod(EpochDays.dayOfWeekIndex(lastOfMonth) - target, 7);
+
+            return lastOfMonth - back;
+        }
+
+        long firstOfMonth = EpochDays.of(year, month.getValue(), 1);
+        int forward = Math.floorMod(target - EpochDays.dayOfWeekIndex(firstOfMonth), 7);
+
+        return firstOfMonth + forward + 7L * (ordinal - 1);
+    }
+}
@@ -0,0 +1,252 @@
+package com.mspigl.mp0421.calendar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class representing a holiday calendar defined by a list of holiday rules. The rules of each
+ * year from FIRST_CACHED_YEAR through LAST_CACHED_YEAR are evaluated once and compiled into a
+ * bitmap indexed by day of the year, so testing a day is a bit lookup and counting the holidays
+ * in a range is a population count. Years outside that window are counted by evaluating the
+ * rules directly, so a calendar never holds more than a fixed number of bitmaps however far
+ * its lookups reach
+ */
+public class RuleBasedHolidayCalendar implements HolidayCalendar {
+
+    /**
+     * The first year compiled into a cached bitmap
+     */
+    public static final int FIRST_CACHED_YEAR = 1900;
+
+    /**
+     * The last year compiled into a cached bitmap
+     */
+    public static final int LAST_CACHED_YEAR = 2299;
+
+    private final List<HolidayRule> rules;
+    private final AtomicReferenceArray<YearBitmap> years;
+
+    /**
+     * Most recently used year, checked before the year cache since consecutive lookups
+     * almost always fall in the same year
+     */
+    private volatile YearBitmap lastYear;
+
+    /**
+     * Construct a RuleBasedHolidayCalendar instance
+     * @param rules the rules producing the holidays of the calendar (must not be null)
+     */
+    public RuleBasedHolidayCalendar(List<HolidayRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Cannot instantiate a holiday calendar without rules");
+        }
+
+        this.rules = new ArrayList<>(rules);
+        this.years = new AtomicReferenceArray<>(LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1);
+    }
+
+    @Override
+    public boolean isHoliday(long epochDay) {
+        YearBitmap year = yearOf(epochDay);
+
+        if (year == null) {
+            return countByRules(EpochDays.year(epochDay), epochDay, epochDay, false, new long[3 * rules.size()]) > 0;
+        }
+
+        return year.isHoliday((int) (epochDay - year.firstEpochDay));
+    }
+
+    @Override
+    public int countHolidays(long firstEpochDay, long lastEpochDay) {
+        return count(firstEpochDay, lastEpochDay, false);
+    }
+
+    @Override
+    public int countWeekendHolidays(long firstEpochDay, long lastEpochDay) {
+        return count(firstEpochDay, lastEpochDay, true);
+    }
+
+    private int count(long firstEpochDay, long lastEpochDay, boolean weekendOnly) {
+        int count = 0;
+        long day = firstEpochDay;
+        long[] scratch = null;
+
+        while (day <= lastEpochDay) {
+            YearBitmap year = yearOf(day);
+
+            if (year == null) {
+                int yearNumber = EpochDays.year(day);
+                long yearEnd = Math.min(lastEpochDay, EpochDays.of(yearNumber + 1, 1, 1) - 1);
+
+                if (scratch == null) {
+                    scratch = new long[3 * rules.size()];
+                }
+
+                count += countByRules(yearNumber, day, yearEnd, weekendOnly, scratch);
+                day = yearEnd + 1;
+                continue;
+            }
+
+            long yearEnd = Math.min(lastEpochDay, year.firstEpochDay + year.length - 1);
+
+            count += year.count(
+                    (int) (day - year.firstEpochDay),
+                    (int) (yearEnd - year.firstEpochDay),
+                    weekendOnly
+            );
+            day = yearEnd + 1;
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the cached bitmap of the year of a day, compiling it on first use
+     * @param epochDay the day to look up
+     * @return the bitmap of the year, null if the year is outside the cached window
+     */
+    private YearBitmap yearOf(long epochDay) {
+        YearBitmap year = lastYear;
+
+        if (year == null || epochDay < year.firstEpochDay || epochDay >= year.firstEpochDay + year.length) {
+            int yearNumber = EpochDays.year(epochDay);
+
+            if (yearNumber < FIRST_CACHED_YEAR || yearNumber > LAST_CACHED_YEAR) {
+                return null;
+            }
+
+            int slot = yearNumber - FIRST_CACHED_YEAR;
+            year = years.get(slot);
+
+            if (year == null) {
+                // racing threads compile identical bitmaps, the first one published wins
+                years.compareAndSet(slot, null, compile(yearNumber));
+                year = years.get(slot);
+            }
+
+            lastYear = year;
+        }
+
+        return year;
+    }
+
+    /**
+     * Count the holidays of a range within one year by evaluating every rule, without compiling
+     * a bitmap. Holidays of different rules observed on the same day are counted once
+     * @param year the year containing the range
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive)
+     * @param weekendOnly whether to count only the holidays falling on a weekend
+     * @param scratch an array holding at least three days per rule
+     * @return the number of holidays in the range
+     */
+    private int countByRules(
+            int year,
+            long firstEpochDay,
+            long lastEpochDay,
+            boolean weekendOnly,
+            long[] scratch
+    ) {
+        int count = 0;
+
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                long observed = rule.observedEpochDay(ruleYear);
+
+                boolean inRange = observed >= firstEpochDay && observed <= lastEpochDay;
+
+                if (!inRange || (weekendOnly && !EpochDays.isWeekend(observed))) {
+                    continue;
+                }
+
+                boolean seen = false;
+
+                for (int i = 0; i < count && !seen; i++) {
+                    seen = scratch[i] == observed;
+                }
+
+                if (!seen) {
+                    scratch[count++] = observed;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Evaluate every rule for the input year. Rules are also evaluated for the adjacent years
+     * since an observed holiday can cross a year boundary
+     * @param year the year to compile
+     * @return the compiled bitmap of the year
+     */
+    private YearBitmap compile(int year) {
+        YearBitmap bitmap = new YearBitmap(year);
+
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                long observed = rule.observedEpochDay(ruleYear);
+
+                if (observed >= bitmap.firstEpochDay && observed < bitmap.firstEpochDay + bitmap.length) {
+                    bitmap.set((int) (observed - bitmap.firstEpochDay), EpochDays.isWeekend(observed));
+                }
+            }
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Holidays of one year stored as 366-bit bitmaps, one of all holidays and one of the
+     * holidays falling on a weekend
+     */
+    private static final class YearBitmap {
+
+        private static final int WORDS = 6;
+
+        private final long firstEpochDay;
+        private final int length;
+        private final long[] holidays;
+        private final long[] weekendHolidays;
+
+        private YearBitmap(int year) {
+            this.firstEpochDay = EpochDays.of(year, 1, 1);
+            this.length = (int) (EpochDays.of(year + 1, 1, 1) - firstEpochDay);
+            this.holidays = new long[WORDS];
+            this.weekendHolidays = new long[WORDS];
+        }
+
+        private void set(int dayOfYear, boolean weekend) {
+            holidays[dayOfYear >>> 6] |= 1L << dayOfYear;
+
+            if (weekend) {
+                weekendHolidays[dayOfYear >>> 6] |= 1L << dayOfYear;
+            }
+        }
+
+        private boolean isHoliday(int dayOfYear) {
+            return (holidays[dayOfYear >>> 6] & (1L << dayOfYear)) != 0;
+        }
+
+        private int count(int fromDay, int toDay, boolean weekendOnly) {
+            long[] bits = weekendOnly ? weekendHolidays : holidays;
+            int fromWord = fromDay >>> 6;
+            int toWord = toDay >>> 6;
+            long fromMask = -1L << fromDay;
+            long toMask = -1L >>> (63 - (toDay & 63));
+
+            if (fromWord == toWord) {
+                return Long.bitCount(bits[fromWord] & fromMask & toMask);
+            }
+
+            int count = Long.bitCount(bits[fromWord] & fromMask);
+
+            for (int word = fromWord + 1; word < toWord; word++) {
+                count += Long.bitCount(bits[word]);
+            }
+
+            return count + Long.bitCount(bits[toWord] & toMask);
+        }
+    }
+}
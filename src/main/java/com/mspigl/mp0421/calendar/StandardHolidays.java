@@ -0,0 +1,19 @@
+package com.mspigl.mp0421.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.Arrays;
+
+/**
+ * Holder for the standard holiday calendar, see HolidayCalendar.standard
+ */
+final class StandardHolidays {
+
+    static final HolidayCalendar CALENDAR = new RuleBasedHolidayCalendar(Arrays.asList(
+            new FixedDateHolidayRule(Month.JULY, 4, true),
+            new NthWeekdayHolidayRule(Month.SEPTEMBER, DayOfWeek.MONDAY, 1)
+    ));
+
+    private StandardHolidays() {
+    }
+}
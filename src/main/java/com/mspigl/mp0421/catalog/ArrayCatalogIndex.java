@@ -0,0 +1,115 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+
+/**
+ * Class representing a catalog index held on the heap. Tool codes and tool types are mapped to
+ * IDs through open-addressing tables, and per-type pricing is held in parallel primitive arrays
+ */
+final class ArrayCatalogIndex extends CatalogIndex {
+
+    private final Tool[] tools;
+    private final int[] toolTypeIds;
+    private final StringIdTable toolIds;
+
+    private final CatalogItem[] items;
+    private final long[] dailyChargeCents;
+    private final byte[] chargeMasks;
+    private final StringIdTable typeIds;
+
+    /**
+     * Construct an ArrayCatalogIndex instance, taking ownership of the input arrays. The arrays
+     * must not be modified afterwards
+     * @param tools the tools indexed by tool ID, null for an empty slot
+     * @param items the catalog items indexed by tool type ID, null for an empty slot
+     */
+    ArrayCatalogIndex(Tool[] tools, CatalogItem[] items) {
+        this.tools = tools;
+        this.items = items;
+        this.dailyChargeCents = new long[items.length];
+        this.chargeMasks = new byte[items.length];
+
+        String[] types = new String[items.length];
+
+        for (int typeId = 0; typeId < items.length; typeId++) {
+            CatalogItem item = items[typeId];
+
+            if (item != null) {
+                types[typeId] = item.getToolType();
+                dailyChargeCents[typeId] = item.getDailyChargeCents();
+                chargeMasks[typeId] = (byte) item.getChargeMask();
+            }
+        }
+
+        this.typeIds = new StringIdTable(types);
+        this.toolTypeIds = new int[tools.length];
+
+        String[] codes = new String[tools.length];
+
+        for (int toolId = 0; toolId < tools.length; toolId++) {
+            Tool tool = tools[toolId];
+
+            if (tool != null) {
+                codes[toolId] = tool.getCode();
+                toolTypeIds[toolId] = typeIds.get(tool.getType());
+            }
+        }
+
+        this.toolIds = new StringIdTable(codes);
+    }
+
+    @Override
+    public int toolId(String toolCode) {
+        return toolIds.get(toolCode);
+    }
+
+    @Override
+    public int typeId(String toolType) {
+        return typeIds.get(toolType);
+    }
+
+    @Override
+    public int toolCount() {
+        return tools.length;
+    }
+
+    @Override
+    public int typeCount() {
+        return items.length;
+    }
+
+    @Override
+    public Tool tool(int toolId) {
+        return toolId >= 0 && toolId < tools.length ? tools[toolId] : null;
+    }
+
+    @Override
+    public int toolTypeId(int toolId) {
+        return toolTypeIds[toolId];
+    }
+
+    @Override
+    public CatalogItem catalogItem(int typeId) {
+        return typeId >= 0 && typeId < items.length ? items[typeId] : null;
+    }
+
+    @Override
+    public long dailyChargeCents(int typeId) {
+        return dailyChargeCents[typeId];
+    }
+
+    @Override
+    public int chargeMask(int typeId) {
+        return chargeMasks[typeId];
+    }
+
+    @Override
+    Tool[] toolSlots() {
+        return tools;
+    }
+
+    @Override
+    CatalogItem[] itemSlots() {
+        return items;
+    }
+}
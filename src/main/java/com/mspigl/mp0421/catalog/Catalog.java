@@ -2,24 +2,31 @@ package com.mspigl.mp0421.catalog;
 
 import com.mspigl.mp0421.tool.Tool;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
- * Class representing a catalog of tools with rental prices by tool type
+ * Class representing a catalog of tools with rental prices by tool type. The catalog publishes
+ * immutable snapshots through an atomic reference: readers never block, and every update copies
+ * the current snapshot, applies the change and atomically swaps the copy in
  */
 public class Catalog {
 
-    private final Map<String, CatalogItem> items;
-    private final Map<String, Tool> tools;
+    private final AtomicReference<CatalogSnapshot> snapshot;
 
     /**
      * Construct a Catalog instance
      */
     public Catalog() {
-        this.items = new HashMap<>();
-        this.tools = new HashMap<>();
+        this.snapshot = new AtomicReference<>(
+                new CatalogSnapshot(0, new ArrayCatalogIndex(new Tool[0], new CatalogItem[0]))
+        );
     }
 
     /**
@@ -34,16 +41,36 @@ public class Catalog {
             );
         }
 
-        this.tools = new HashMap<>();
-        this.items = new HashMap<>();
+        this.snapshot = new AtomicReference<>(new CatalogSnapshot(0, compile(tools, items)));
+    }
 
-        for (Tool tool : tools) {
-            this.tools.put(tool.getCode(), tool);
-        }
+    /**
+     * Construct a Catalog instance starting from a compiled index
+     * @param index the initial content of the catalog
+     */
+    private Catalog(CatalogIndex index) {
+        this.snapshot = new AtomicReference<>(new CatalogSnapshot(0, index));
+    }
 
-        for (CatalogItem item : items) {
-            this.items.put(item.getToolType(), item);
-        }
+    /**
+     * Open a catalog backed by a memory-mapped catalog file, see CatalogFile. Lookups read the
+     * mapped file directly without deserializing it first. The first update made to the catalog
+     * copies its content to the heap
+     * @param path the catalog file to open
+     * @return the catalog
+     * @throws IOException if the file cannot be read or is not a valid catalog file
+     */
+    public static Catalog open(Path path) throws IOException {
+        return new Catalog(CatalogFile.map(path));
+    }
+
+    /**
+     * Get the current snapshot of the catalog. Callers needing several consistent lookups
+     * should read them all from one snapshot
+     * @return the current snapshot
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot.get();
     }
 
     /**
@@ -52,7 +79,7 @@ public class Catalog {
      * @return the catalog item matching the input tool type, null if not found
      */
     public CatalogItem getCatalogItem(String toolType) {
-        return items.get(toolType);
+        return snapshot.get().getCatalogItem(toolType);
     }
 
     /**
@@ -61,6 +88,135 @@ public class Catalog {
      * @return the tool matching the input tool code, null if not found
      */
     public Tool getTool(String toolCode) {
-        return tools.get(toolCode);
+        return snapshot.get().getTool(toolCode);
+    }
+
+    /**
+     * Add a tool to the catalog, replacing any tool with the same code
+     * @param tool the tool to add (must not be null)
+     */
+    public void putTool(Tool tool) {
+        if (tool == null) {
+            throw new IllegalArgumentException("Cannot add a null tool to the catalog");
+        }
+
+        update(index -> new ArrayCatalogIndex(
+                put(index.toolSlots(), index.toolId(tool.getCode()), tool),
+                index.itemSlots()
+        ));
+    }
+
+    /**
+     * Remove the tool with the input code from the catalog
+     * @param toolCode the code of the tool to remove
+     */
+    public void removeTool(String toolCode) {
+        update(index -> {
+            int toolId = index.toolId(toolCode);
+
+            return toolId == CatalogIndex.NOT_FOUND
+                    ? index
+                    : new ArrayCatalogIndex(clear(index.toolSlots(), toolId), index.itemSlots());
+        });
+    }
+
+    /**
+     * Add a catalog item to the catalog, replacing any item with the same tool type
+     * @param item the catalog item to add (must not be null)
+     */
+    public void putCatalogItem(CatalogItem item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add a null catalog item to the catalog");
+        }
+
+        update(index -> new ArrayCatalogIndex(
+                index.toolSlots(),
+                put(index.itemSlots(), index.typeId(item.getToolType()), item)
+        ));
+    }
+
+    /**
+     * Remove the catalog item for the input tool type from the catalog
+     * @param toolType the tool type of the catalog item to remove
+     */
+    public void removeCatalogItem(String toolType) {
+        update(index -> {
+            int typeId = index.typeId(toolType);
+
+            return typeId == CatalogIndex.NOT_FOUND
+                    ? index
+                    : new ArrayCatalogIndex(index.toolSlots(), clear(index.itemSlots(), typeId));
+        });
+    }
+
+    /**
+     * Replace the entire content of the catalog in a single atomic update. Tool and tool type
+     * IDs are reassigned
+     * @param tools the list of tools available in this catalog (must not be null)
+     * @param items the list of catalog items available in this catalog (must not be null)
+     */
+    public void replaceAll(List<Tool> tools, List<CatalogItem> items) {
+        if (tools == null || items == null) {
+            throw new IllegalArgumentException("Cannot replace a catalog without tools or catalog items");
+        }
+
+        CatalogIndex replacement = compile(tools, items);
+
+        update(index -> replacement);
+    }
+
+    /**
+     * Apply the input edit to the current snapshot and publish the result, retrying
+     * if another update was published in the meantime
+     * @param edit the edit producing the next index from the current one
+     */
+    private void update(UnaryOperator<CatalogIndex> edit) {
+        CatalogSnapshot current;
+        CatalogSnapshot next;
+
+        do {
+            current = snapshot.get();
+            next = new CatalogSnapshot(current.getVersion() + 1, edit.apply(current.getIndex()));
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    private static ArrayCatalogIndex compile(List<Tool> tools, List<CatalogItem> items) {
+        Map<String, Tool> toolMap = new LinkedHashMap<>();
+        Map<String, CatalogItem> itemMap = new LinkedHashMap<>();
+
+        for (Tool tool : tools) {
+            toolMap.put(tool.getCode(), tool);
+        }
+
+        for (CatalogItem item : items) {
+            itemMap.put(item.getToolType(), item);
+        }
+
+        return new ArrayCatalogIndex(
+                toolMap.values().toArray(new Tool[0]),
+                itemMap.values().toArray(new CatalogItem[0])
+        );
+    }
+
+    /**
+     * Copy the input slots with a value replaced, or appended when it has no slot yet
+     */
+    private static <T> T[] put(T[] slots, int id, T value) {
+        T[] copy = Arrays.copyOf(slots, id == CatalogIndex.NOT_FOUND ? slots.length + 1 : slots.length);
+
+        copy[id == CatalogIndex.NOT_FOUND ? slots.length : id] = value;
+
+        return copy;
+    }
+
+    /**
+     * Copy the input slots with a slot emptied
+     */
+    private static <T> T[] clear(T[] slots, int id) {
+        T[] copy = slots.clone();
+
+        copy[id] = null;
+
+        return copy;
     }
 }
@@ -0,0 +1,306 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class for the compact binary catalog file. All integers are big-endian. The file holds
+ * a header, a type dictionary sorted by tool type, a pricing table indexed by type position,
+ * a tool table sorted by tool code and a pool of deduplicated UTF-8 strings:
+ *
+ * <pre>
+ * header       magic, format version, tool count, type count, type table offset, price table offset,
+ *              mask table offset, tool table offset, string pool offset (9 ints)
+ * type table   per type: name offset, name length (2 ints)
+ * price table  per type: daily charge in cents (long)
+ * mask table   per type: chargeability mask (byte)
+ * tool table   per tool: code offset, code length, brand offset, brand length, type offset, type length,
+ *              type position or -1 (7 ints)
+ * string pool  UTF-8 bytes
+ * </pre>
+ *
+ * A null string is written with length -1. The type name of a tool is written even when its type
+ * has a position, so a tool whose type is not priced keeps its type
+ *
+ * Type and tool positions are the tool type and tool IDs of a catalog opened from the file. Keys
+ * are sorted by unsigned UTF-8 byte order, so lookups can binary search the mapped file directly
+ */
+public final class CatalogFile {
+
+    static final int MAGIC = 0x4D504354;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 9 * Integer.BYTES;
+    static final int TYPE_ENTRY_BYTES = 2 * Integer.BYTES;
+    static final int TOOL_ENTRY_BYTES = 7 * Integer.BYTES;
+
+    static final Comparator<byte[]> UTF8_ORDER = CatalogFile::compareUtf8;
+
+    private CatalogFile() {
+    }
+
+    /**
+     * Write the content of a catalog snapshot to a catalog file
+     * @param path the file to write, replaced if it exists
+     * @param snapshot the snapshot to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, CatalogSnapshot snapshot) throws IOException {
+        write(path, snapshot.getTools(), snapshot.getCatalogItems());
+    }
+
+    /**
+     * Write tools and catalog items to a catalog file
+     * @param path the file to write, replaced if it exists
+     * @param tools the tools to write, the last tool wins for a duplicated code
+     * @param items the catalog items to write, the last item wins for a duplicated tool type
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Collection<Tool> tools, Collection<CatalogItem> items) throws IOException {
+        Map<String, Tool> toolMap = new LinkedHashMap<>();
+        Map<String, CatalogItem> itemMap = new LinkedHashMap<>();
+
+        for (Tool tool : tools) {
+            toolMap.put(tool.getCode(), tool);
+        }
+
+        for (CatalogItem item : items) {
+            itemMap.put(item.getToolType(), item);
+        }
+
+        List<CatalogItem> sortedItems = new ArrayList<>(itemMap.values());
+        List<Tool> sortedTools = new ArrayList<>(toolMap.values());
+
+        sortedItems.sort(Comparator.comparing(item -> utf8(item.getToolType()), UTF8_ORDER));
+        sortedTools.sort(Comparator.comparing(tool -> utf8(tool.getCode()), UTF8_ORDER));
+
+        Map<String, Integer> typePositions = new HashMap<>();
+
+        for (int i = 0; i < sortedItems.size(); i++) {
+            typePositions.put(sortedItems.get(i).getToolType(), i);
+        }
+
+        StringPool pool = new StringPool();
+        int typeCount = sortedItems.size();
+        int toolCount = sortedTools.size();
+        int typeTableOffset = HEADER_BYTES;
+        int priceTableOffset = typeTableOffset + typeCount * TYPE_ENTRY_BYTES;
+        int maskTableOffset = priceTableOffset + typeCount * Long.BYTES;
+        int toolTableOffset = align(maskTableOffset + typeCount);
+        int stringPoolOffset = toolTableOffset + toolCount * TOOL_ENTRY_BYTES;
+
+        ByteBuffer tables = ByteBuffer.allocate(stringPoolOffset);
+        tables.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(toolCount).putInt(typeCount)
+                .putInt(typeTableOffset).putInt(priceTableOffset).putInt(maskTableOffset)
+                .putInt(toolTableOffset).putInt(stringPoolOffset);
+
+        for (CatalogItem item : sortedItems) {
+            pool.putReference(tables, item.getToolType());
+        }
+
+        for (CatalogItem item : sortedItems) {
+            tables.putLong(item.getDailyChargeCents());
+        }
+
+        for (CatalogItem item : sortedItems) {
+            tables.put((byte) item.getChargeMask());
+        }
+
+        tables.position(toolTableOffset);
+
+        for (Tool tool : sortedTools) {
+            pool.putReference(tables, tool.getCode());
+            pool.putReference(tables, tool.getBrand());
+            pool.putReference(tables, tool.getType());
+            tables.putInt(typePositions.getOrDefault(tool.getType(), CatalogIndex.NOT_FOUND));
+        }
+
+        tables.flip();
+
+        try (FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+            writeFully(channel, tables);
+            writeFully(channel, ByteBuffer.wrap(pool.bytes(), 0, pool.size()));
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Map a catalog file into memory
+     * @param path the file to map (at most 2 GiB)
+     * @return an index reading directly from the mapped file
+     * @throws IOException if the file cannot be read or is not a valid catalog file
+     */
+    static CatalogIndex map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog file " + path + " is larger than 2 GiB");
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a catalog file");
+        }
+
+        if (buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog file version " + buffer.getInt(Integer.BYTES));
+        }
+
+        if (!isValidLayout(buffer)) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+
+        return new MappedCatalogIndex(buffer);
+    }
+
+    /**
+     * Check that the tables of a catalog file follow each other as the header counts require,
+     * and that every string and type position they hold lies within the file, so a mapped index
+     * never reads out of bounds
+     */
+    private static boolean isValidLayout(ByteBuffer buffer) {
+        long toolCount = buffer.getInt(2 * Integer.BYTES);
+        long typeCount = buffer.getInt(3 * Integer.BYTES);
+        long typeTableOffset = buffer.getInt(4 * Integer.BYTES);
+        long priceTableOffset = buffer.getInt(5 * Integer.BYTES);
+        long maskTableOffset = buffer.getInt(6 * Integer.BYTES);
+        long toolTableOffset = buffer.getInt(7 * Integer.BYTES);
+        long stringPoolOffset = buffer.getInt(8 * Integer.BYTES);
+
+        if (toolCount < 0
+                || typeCount < 0
+                || typeTableOffset != HEADER_BYTES
+                || priceTableOffset != typeTableOffset + typeCount * TYPE_ENTRY_BYTES
+                || maskTableOffset != priceTableOffset + typeCount * Long.BYTES
+                || toolTableOffset != ((maskTableOffset + typeCount + Integer.BYTES - 1) & -Integer.BYTES)
+                || stringPoolOffset != toolTableOffset + toolCount * TOOL_ENTRY_BYTES
+                || stringPoolOffset > buffer.capacity()) {
+            return false;
+        }
+
+        long poolBytes = buffer.capacity() - stringPoolOffset;
+
+        for (int type = 0; type < typeCount; type++) {
+            if (!isValidString(buffer, (int) typeTableOffset + type * TYPE_ENTRY_BYTES, poolBytes)) {
+                return false;
+            }
+        }
+
+        for (int tool = 0; tool < toolCount; tool++) {
+            int entry = (int) toolTableOffset + tool * TOOL_ENTRY_BYTES;
+            int typePosition = buffer.getInt(entry + 6 * Integer.BYTES);
+
+            if (!isValidString(buffer, entry, poolBytes)
+                    || !isValidString(buffer, entry + 2 * Integer.BYTES, poolBytes)
+                    || !isValidString(buffer, entry + 4 * Integer.BYTES, poolBytes)
+                    || typePosition < CatalogIndex.NOT_FOUND
+                    || typePosition >= typeCount) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isValidString(ByteBuffer buffer, int reference, long poolBytes) {
+        long offset = buffer.getInt(reference);
+        long length = buffer.getInt(reference + Integer.BYTES);
+
+        return length == -1 || (offset >= 0 && length >= 0 && offset + length <= poolBytes);
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int compareUtf8(byte[] left, byte[] right) {
+        int length = Math.min(left.length, right.length);
+
+        for (int i = 0; i < length; i++) {
+            int difference = (left[i] & 0xFF) - (right[i] & 0xFF);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return left.length - right.length;
+    }
+
+    private static int align(int offset) {
+        return (offset + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Growable pool of deduplicated UTF-8 strings
+     */
+    private static final class StringPool {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        /**
+         * Add a string to the pool if needed and write its offset and length to the input buffer
+         */
+        private void putReference(ByteBuffer buffer, String value) {
+            if (value == null) {
+                buffer.putInt(0).putInt(-1);
+
+                return;
+            }
+
+            byte[] encoded = utf8(value);
+            Integer offset = offsets.get(value);
+
+            if (offset == null) {
+                if (size + encoded.length > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + encoded.length));
+                }
+
+                System.arraycopy(encoded, 0, bytes, size, encoded.length);
+                offset = size;
+                size += encoded.length;
+                offsets.put(value, offset);
+            }
+
+            buffer.putInt(offset).putInt(encoded.length);
+        }
+
+        private byte[] bytes() {
+            return bytes;
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+
+/**
+ * Class representing a catalog compiled for lookups by dense int ID. Tool codes and tool types
+ * are mapped to IDs once, and per-type pricing is read by tool type ID. IDs stay stable across
+ * catalog updates made with put and remove, and a removed entry leaves an empty slot behind
+ */
+public abstract class CatalogIndex {
+
+    /**
+     * ID returned for a missing tool code or tool type
+     */
+    public static final int NOT_FOUND = StringIdTable.NOT_FOUND;
+
+    CatalogIndex() {
+    }
+
+    /**
+     * Get the ID of the input tool code
+     * @param toolCode the requested tool code
+     * @return the tool ID, NOT_FOUND if the tool is not in the catalog
+     */
+    public abstract int toolId(String toolCode);
+
+    /**
+     * Get the ID of the input tool type
+     * @param toolType the requested tool type
+     * @return the tool type ID, NOT_FOUND if the type has no catalog item
+     */
+    public abstract int typeId(String toolType);
+
+    /**
+     * Get the upper bound (exclusive) of tool IDs
+     * @return the number of tool ID slots
+     */
+    public abstract int toolCount();
+
+    /**
+     * Get the upper bound (exclusive) of tool type IDs
+     * @return the number of tool type ID slots
+     */
+    public abstract int typeCount();
+
+    /**
+     * Get the tool with the input ID
+     * @param toolId the tool ID
+     * @return the tool, null if the ID is out of range or its slot is empty
+     */
+    public abstract Tool tool(int toolId);
+
+    /**
+     * Get the tool type ID of the tool with the input ID
+     * @param toolId the tool ID (must be a valid tool ID)
+     * @return the tool type ID, NOT_FOUND if the tool's type has no catalog item
+     */
+    public abstract int toolTypeId(int toolId);
+
+    /**
+     * Get the catalog item with the input tool type ID
+     * @param typeId the tool type ID
+     * @return the catalog item, null if the ID is out of range or its slot is empty
+     */
+    public abstract CatalogItem catalogItem(int typeId);
+
+    /**
+     * Get the daily charge of the input tool type ID
+     * @param typeId the tool type ID (must be a valid tool type ID)
+     * @return the daily charge in cents
+     */
+    public abstract long dailyChargeCents(int typeId);
+
+    /**
+     * Get the chargeability mask of the input tool type ID, see CatalogItem.getChargeMask
+     * @param typeId the tool type ID (must be a valid tool type ID)
+     * @return the chargeability mask
+     */
+    public abstract int chargeMask(int typeId);
+
+    /**
+     * Get every tool slot, indexed by tool ID. The returned array must not be modified
+     * @return the tools, null for an empty slot
+     */
+    abstract Tool[] toolSlots();
+
+    /**
+     * Get every catalog item slot, indexed by tool type ID. The returned array must not be modified
+     * @return the catalog items, null for an empty slot
+     */
+    abstract CatalogItem[] itemSlots();
+}
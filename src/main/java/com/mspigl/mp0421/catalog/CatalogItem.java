@@ -1,20 +1,39 @@
 package com.mspigl.mp0421.catalog;
 
+import com.mspigl.mp0421.money.Money;
+
 /**
- * Class representing a tool type matched with rental charging information
+ * Class representing a tool type matched with rental charging information. Instances are
+ * immutable so they can be shared between concurrent checkouts, a price change is published
+ * by putting a new item into the catalog
  */
-public class CatalogItem {
+public final class CatalogItem {
+
+    /**
+     * Charge mask bit set when the tool accrues charges on weekdays
+     */
+    public static final int WEEKDAY_CHARGEABLE = 1;
 
-    private String toolType;
-    private double dailyCharge;
-    private boolean weekdayChargeable;
-    private boolean weekendChargeable;
-    private boolean holidayChargeable;
+    /**
+     * Charge mask bit set when the tool accrues charges on weekends
+     */
+    public static final int WEEKEND_CHARGEABLE = 1 << 1;
+
+    /**
+     * Charge mask bit set when the tool accrues charges on holidays
+     */
+    public static final int HOLIDAY_CHARGEABLE = 1 << 2;
+
+    private final String toolType;
+    private final long dailyChargeCents;
+    private final boolean weekdayChargeable;
+    private final boolean weekendChargeable;
+    private final boolean holidayChargeable;
 
     /**
      * Construct a CatalogItem instance
      * @param toolType the item's tool type
-     * @param dailyCharge the item's daily charge
+     * @param dailyCharge the item's daily charge (rounded half up to cents)
      * @param weekdayChargeable whether the tool accrues charges on weekdays
      * @param weekendChargeable whether the tool accrues charges on weekends
      * @param holidayChargeable whether the tool accrues charges on holidays
@@ -27,7 +46,7 @@ public class CatalogItem {
             boolean holidayChargeable
     ) {
         this.toolType = toolType;
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Money.toCents(dailyCharge);
         this.weekdayChargeable = weekdayChargeable;
         this.weekendChargeable = weekendChargeable;
         this.holidayChargeable = holidayChargeable;
@@ -37,39 +56,33 @@ public class CatalogItem {
         return toolType;
     }
 
-    public void setToolType(String toolType) {
-        this.toolType = toolType;
-    }
-
     public double getDailyCharge() {
-        return dailyCharge;
+        return Money.toAmount(dailyChargeCents);
     }
 
-    public void setDailyCharge(double dailyCharge) {
-        this.dailyCharge = dailyCharge;
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
     }
 
     public boolean getWeekdayChargeable() {
         return weekdayChargeable;
     }
 
-    public void setWeekdayChargeable(boolean weekdayChargeable) {
-        this.weekdayChargeable = weekdayChargeable;
-    }
-
     public boolean getWeekendChargeable() {
         return weekendChargeable;
     }
 
-    public void setWeekendChargeable(boolean weekendChargeable) {
-        this.weekendChargeable = weekendChargeable;
-    }
-
     public boolean getHolidayChargeable() {
         return holidayChargeable;
     }
 
-    public void setHolidayChargeable(boolean holidayChargeable) {
-        this.holidayChargeable = holidayChargeable;
+    /**
+     * Get the chargeability flags of the item packed into a 3-bit mask
+     * @return the combination of WEEKDAY_CHARGEABLE, WEEKEND_CHARGEABLE and HOLIDAY_CHARGEABLE
+     */
+    public int getChargeMask() {
+        return (weekdayChargeable ? WEEKDAY_CHARGEABLE : 0)
+                | (weekendChargeable ? WEEKEND_CHARGEABLE : 0)
+                | (holidayChargeable ? HOLIDAY_CHARGEABLE : 0);
     }
 }
@@ -0,0 +1,91 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class representing an immutable version of a catalog. A snapshot never changes once
+ * published, so a checkout that reads only from one snapshot sees a consistent tool and price
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final CatalogIndex index;
+
+    /**
+     * Construct a CatalogSnapshot instance
+     * @param version the version of the catalog this snapshot captures
+     * @param index the compiled content of the snapshot
+     */
+    CatalogSnapshot(long version, CatalogIndex index) {
+        this.version = version;
+        this.index = index;
+    }
+
+    /**
+     * Get the version of the catalog this snapshot captures. Versions increase by one with
+     * every update of the catalog
+     * @return the version of the snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the content of the snapshot compiled for lookups by tool and tool type ID
+     * @return the catalog index of the snapshot
+     */
+    public CatalogIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the catalog item for the input tool type
+     * @param toolType the requested tool type
+     * @return the catalog item matching the input tool type, null if not found
+     */
+    public CatalogItem getCatalogItem(String toolType) {
+        return index.catalogItem(index.typeId(toolType));
+    }
+
+    /**
+     * Get the tool for the input tool code
+     * @param toolCode the requested tool code
+     * @return the tool matching the input tool code, null if not found
+     */
+    public Tool getTool(String toolCode) {
+        return index.tool(index.toolId(toolCode));
+    }
+
+    /**
+     * Get every tool of the snapshot
+     * @return an unmodifiable collection of the tools
+     */
+    public Collection<Tool> getTools() {
+        return nonNull(index.toolSlots());
+    }
+
+    /**
+     * Get every catalog item of the snapshot
+     * @return an unmodifiable collection of the catalog items
+     */
+    public Collection<CatalogItem> getCatalogItems() {
+        return nonNull(index.itemSlots());
+    }
+
+    private static <T> Collection<T> nonNull(T[] slots) {
+        List<T> values = new ArrayList<>(slots.length);
+
+        for (T value : slots) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+
+        return Collections.unmodifiableList(values);
+    }
+}
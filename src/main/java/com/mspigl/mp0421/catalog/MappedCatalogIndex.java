@@ -0,0 +1,238 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class representing a catalog index read directly from a memory-mapped catalog file, see
+ * CatalogFile. Lookups binary search the sorted tables of the file; tools and catalog items are
+ * only decoded when first requested, and the mapped pages are shared through the page cache
+ */
+final class MappedCatalogIndex extends CatalogIndex {
+
+    private final ByteBuffer buffer;
+    private final int toolCount;
+    private final int typeCount;
+    private final int typeTableOffset;
+    private final int priceTableOffset;
+    private final int maskTableOffset;
+    private final int toolTableOffset;
+    private final int stringPoolOffset;
+
+    /**
+     * Decoded tools and catalog items by ID. Entries are filled on first use; a racing fill
+     * decodes the same immutable value, so no synchronization is needed
+     */
+    private final Tool[] tools;
+    private final CatalogItem[] items;
+
+    /**
+     * Construct a MappedCatalogIndex instance
+     * @param buffer the mapped catalog file, with a validated header
+     */
+    MappedCatalogIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.toolCount = buffer.getInt(2 * Integer.BYTES);
+        this.typeCount = buffer.getInt(3 * Integer.BYTES);
+        this.typeTableOffset = buffer.getInt(4 * Integer.BYTES);
+        this.priceTableOffset = buffer.getInt(5 * Integer.BYTES);
+        this.maskTableOffset = buffer.getInt(6 * Integer.BYTES);
+        this.toolTableOffset = buffer.getInt(7 * Integer.BYTES);
+        this.stringPoolOffset = buffer.getInt(8 * Integer.BYTES);
+        this.tools = new Tool[toolCount];
+        this.items = new CatalogItem[typeCount];
+    }
+
+    @Override
+    public int toolId(String toolCode) {
+        return search(toolCode, toolTableOffset, CatalogFile.TOOL_ENTRY_BYTES, toolCount);
+    }
+
+    @Override
+    public int typeId(String toolType) {
+        return search(toolType, typeTableOffset, CatalogFile.TYPE_ENTRY_BYTES, typeCount);
+    }
+
+    @Override
+    public int toolCount() {
+        return toolCount;
+    }
+
+    @Override
+    public int typeCount() {
+        return typeCount;
+    }
+
+    @Override
+    public Tool tool(int toolId) {
+        if (toolId < 0 || toolId >= toolCount) {
+            return null;
+        }
+
+        Tool tool = tools[toolId];
+
+        if (tool == null) {
+            int entry = toolTableOffset + toolId * CatalogFile.TOOL_ENTRY_BYTES;
+
+            tool = new Tool(string(entry), string(entry + 2 * Integer.BYTES), string(entry + 4 * Integer.BYTES));
+            tools[toolId] = tool;
+        }
+
+        return tool;
+    }
+
+    @Override
+    public int toolTypeId(int toolId) {
+        return buffer.getInt(toolTableOffset + toolId * CatalogFile.TOOL_ENTRY_BYTES + 6 * Integer.BYTES);
+    }
+
+    @Override
+    public CatalogItem catalogItem(int typeId) {
+        if (typeId < 0 || typeId >= typeCount) {
+            return null;
+        }
+
+        CatalogItem item = items[typeId];
+
+        if (item == null) {
+            int mask = chargeMask(typeId);
+
+            item = new CatalogItem(
+                    string(typeTableOffset + typeId * CatalogFile.TYPE_ENTRY_BYTES),
+                    dailyChargeCents(typeId) / 100d,
+                    (mask & CatalogItem.WEEKDAY_CHARGEABLE) != 0,
+                    (mask & CatalogItem.WEEKEND_CHARGEABLE) != 0,
+                    (mask & CatalogItem.HOLIDAY_CHARGEABLE) != 0
+            );
+            items[typeId] = item;
+        }
+
+        return item;
+    }
+
+    @Override
+    public long dailyChargeCents(int typeId) {
+        return buffer.getLong(priceTableOffset + typeId * Long.BYTES);
+    }
+
+    @Override
+    public int chargeMask(int typeId) {
+        return buffer.get(maskTableOffset + typeId);
+    }
+
+    @Override
+    Tool[] toolSlots() {
+        Tool[] slots = new Tool[toolCount];
+
+        for (int toolId = 0; toolId < toolCount; toolId++) {
+            slots[toolId] = tool(toolId);
+        }
+
+        return slots;
+    }
+
+    @Override
+    CatalogItem[] itemSlots() {
+        CatalogItem[] slots = new CatalogItem[typeCount];
+
+        for (int typeId = 0; typeId < typeCount; typeId++) {
+            slots[typeId] = catalogItem(typeId);
+        }
+
+        return slots;
+    }
+
+    /**
+     * Binary search a table whose entries start with a string reference
+     * @return the position of the matching entry, NOT_FOUND if there is none
+     */
+    private int search(String key, int tableOffset, int entryBytes, int count) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+
+        byte[] encoded = isAscii(key) ? null : key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = tableOffset + middle * entryBytes;
+            int comparison = encoded == null ? compareAscii(key, entry) : compareBytes(encoded, entry);
+
+            if (comparison == 0) {
+                return middle;
+            } else if (comparison < 0) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private static boolean isAscii(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Compare an ASCII key with a stored string without encoding the key
+     */
+    private int compareAscii(String key, int entry) {
+        int offset = stringPoolOffset + buffer.getInt(entry);
+        int length = buffer.getInt(entry + Integer.BYTES);
+        int common = Math.min(length, key.length());
+
+        for (int i = 0; i < common; i++) {
+            int difference = key.charAt(i) - (buffer.get(offset + i) & 0xFF);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return key.length() - length;
+    }
+
+    private int compareBytes(byte[] key, int entry) {
+        int offset = stringPoolOffset + buffer.getInt(entry);
+        int length = buffer.getInt(entry + Integer.BYTES);
+        int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            int difference = (key[i] & 0xFF) - (buffer.get(offset + i) & 0xFF);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return key.length - length;
+    }
+
+    private String string(int reference) {
+        int length = buffer.getInt(reference + Integer.BYTES);
+
+        if (length < 0) {
+            return null;
+        }
+
+        int offset = stringPoolOffset + buffer.getInt(reference);
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
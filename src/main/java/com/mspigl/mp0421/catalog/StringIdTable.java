@@ -0,0 +1,74 @@
+package com.mspigl.mp0421.catalog;
+
+/**
+ * Immutable open-addressing hash table mapping strings to dense int IDs. Keys and IDs are held
+ * in two parallel arrays, avoiding the entry objects and boxed values of a HashMap
+ */
+final class StringIdTable {
+
+    /**
+     * ID returned when a key is not present in the table
+     */
+    static final int NOT_FOUND = -1;
+
+    private final String[] keys;
+    private final int[] ids;
+    private final int mask;
+
+    /**
+     * Construct a StringIdTable instance mapping every non-null key to its index in the input array
+     * @param keysById the keys of the table indexed by ID, null entries are skipped
+     */
+    StringIdTable(String[] keysById) {
+        int capacity = Integer.highestOneBit(Math.max(2, keysById.length) * 2 - 1) << 1;
+
+        this.keys = new String[capacity];
+        this.ids = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (int id = 0; id < keysById.length; id++) {
+            String key = keysById[id];
+
+            if (key != null) {
+                int slot = slot(key);
+
+                while (keys[slot] != null && !keys[slot].equals(key)) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = key;
+                ids[slot] = id;
+            }
+        }
+    }
+
+    /**
+     * Get the ID of the input key
+     * @param key the key to look up
+     * @return the ID of the key, NOT_FOUND if the key is null or not present
+     */
+    int get(String key) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+
+        int slot = slot(key);
+        String candidate;
+
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return ids[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return NOT_FOUND;
+    }
+
+    private int slot(String key) {
+        int hash = key.hashCode();
+
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,420 @@
+package com.mspigl.mp0421.cluster;
+
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.inventory.Inventory;
+import com.mspigl.mp0421.store.CheckoutRequest;
+import com.mspigl.mp0421.store.CheckoutResult;
+import com.mspigl.mp0421.store.RentalAgreement;
+import com.mspigl.mp0421.store.Store;
+import com.mspigl.mp0421.tool.Tool;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Class representing in-process store shards partitioned by tool code hash. Every shard owns a
+ * store over its slice of the catalog and inventory, and a single writer thread drains a
+ * lock-free inbox of checkouts and cancellations, so shards share no mutable state and never
+ * contend with each other. Quotes reserve nothing and run on the calling thread
+ *
+ * Futures returned by the cluster complete on the shard writer thread, so dependent stages that
+ * do real work should use the async variants to keep the writer free
+ */
+public class StoreCluster implements Closeable {
+
+    static final String CLUSTER_CLOSED_ERROR_MESSAGE = "The store cluster is closed.";
+
+    private final Shard[] shards;
+
+    /**
+     * Construct a StoreCluster instance and start its shard writer threads
+     * @param shardCount the number of shards (must be greater than 0)
+     * @param tools the tools to partition across the shards (must not be null)
+     * @param items the catalog items, each shard keeping those of its own tools (must not be null)
+     * @param holidayCalendar the calendar deciding which days are holidays (must not be null)
+     * @param unitsByToolCode the number of units of each tool, null to skip availability checks
+     */
+    public StoreCluster(
+            int shardCount,
+            List<Tool> tools,
+            List<CatalogItem> items,
+            HolidayCalendar holidayCalendar,
+            Map<String, Integer> unitsByToolCode
+    ) {
+        if (shardCount < 1 || tools == null || items == null || holidayCalendar == null) {
+            throw new IllegalArgumentException("A store cluster needs a positive shard count, tools, catalog items and a holiday calendar");
+        }
+
+        List<List<Tool>> toolsByShard = new ArrayList<>(shardCount);
+
+        for (int i = 0; i < shardCount; i++) {
+            toolsByShard.add(new ArrayList<>());
+        }
+
+        for (Tool tool : tools) {
+            toolsByShard.get(shardIndex(tool.getCode(), shardCount)).add(tool);
+        }
+
+        this.shards = new Shard[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            List<Tool> shardTools = toolsByShard.get(i);
+            Set<String> shardTypes = new HashSet<>();
+            List<CatalogItem> shardItems = new ArrayList<>();
+            Inventory inventory = null;
+
+            for (Tool tool : shardTools) {
+                shardTypes.add(tool.getType());
+            }
+
+            for (CatalogItem item : items) {
+                if (shardTypes.contains(item.getToolType())) {
+                    shardItems.add(item);
+                }
+            }
+
+            if (unitsByToolCode != null) {
+                // a single writer reserves from the inventory, so one stripe is enough
+                inventory = new Inventory(1);
+
+                for (Tool tool : shardTools) {
+                    Integer units = unitsByToolCode.get(tool.getCode());
+
+                    if (units != null) {
+                        inventory.setUnits(tool.getCode(), units);
+                    }
+                }
+            }
+
+            shards[i] = new Shard(i, new Store(new Catalog(shardTools, shardItems), holidayCalendar, inventory));
+        }
+    }
+
+    /**
+     * Get the index of the shard owning a tool code
+     * @param toolCode the tool code to route
+     * @return the shard index in the range 0 - getShardCount() (exclusive)
+     */
+    public int shardIndex(String toolCode) {
+        return shardIndex(toolCode, shards.length);
+    }
+
+    /**
+     * Queue a checkout on the shard owning the tool
+     * @param request the request to check out (must not be null)
+     * @return a future of the result holding the agreement or every reason for the rejection. It
+     * completes exceptionally with an IllegalStateException if the cluster is closed
+     */
+    public CompletableFuture<CheckoutResult> submit(CheckoutRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Cannot check out a null request");
+        }
+
+        Shard shard = shards[shardIndex(request.getToolCode())];
+
+        return shard.submit(() -> shard.store.tryCheckout(request));
+    }
+
+    /**
+     * Check out a request on the shard owning the tool, waiting for the result
+     * @param request the request to check out (must not be null)
+     * @return the result holding the agreement or every reason for the rejection
+     * @throws IllegalStateException if the cluster is closed
+     */
+    public CheckoutResult tryCheckout(CheckoutRequest request) {
+        return join(submit(request));
+    }
+
+    /**
+     * Generate a rental agreement on the shard owning the tool, see Store.checkout
+     * @param toolCode the code of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals
+     */
+    public RentalAgreement checkout(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        CheckoutResult result = tryCheckout(new CheckoutRequest(toolCode, rentalDayCount, discountPercent, checkoutDate));
+
+        if (!result.isSuccess()) {
+            throw new IllegalArgumentException(result.getError().getMessage());
+        }
+
+        return result.getRentalAgreement();
+    }
+
+    /**
+     * Price a rental on the calling thread without checking it out, see Store.quote
+     * @param toolCode the code of the tool to quote
+     * @param rentalDayCount the number of days the tool would be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals and no reservation
+     */
+    public RentalAgreement quote(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        return shards[shardIndex(toolCode)].store.quote(toolCode, rentalDayCount, discountPercent, checkoutDate);
+    }
+
+    /**
+     * Cancel a checked out rental on the shard owning the tool, releasing its reservation
+     * @param rentalAgreement the agreement of the rental to cancel
+     * @return whether a held reservation was released
+     * @throws IllegalStateException if the cluster is closed
+     */
+    public boolean cancel(RentalAgreement rentalAgreement) {
+        if (rentalAgreement == null) {
+            return false;
+        }
+
+        Shard shard = shards[shardIndex(rentalAgreement.getToolCode())];
+
+        return join(shard.submit(() -> shard.store.cancel(rentalAgreement)));
+    }
+
+    /**
+     * Check out a batch across the shards. The batch is split by owning shard and every shard
+     * checks its part out in one inbox task, in parallel with the other shards. A rejected
+     * request is reported in its result and does not abort the rest of the batch
+     * @param requests the requests to check out (must not be null)
+     * @return one result per request, in input order
+     * @throws IllegalStateException if the cluster is closed
+     */
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Cannot check out a batch without requests");
+        }
+
+        CheckoutRequest[] batch = requests.toArray(new CheckoutRequest[0]);
+        CheckoutResult[] results = new CheckoutResult[batch.length];
+        int[][] indicesByShard = new int[shards.length][];
+        int[] counts = new int[shards.length];
+        int[] shardOfRequest = new int[batch.length];
+
+        for (int i = 0; i < batch.length; i++) {
+            if (batch[i] == null) {
+                throw new IllegalArgumentException("Cannot check out a null request");
+            }
+
+            shardOfRequest[i] = shardIndex(batch[i].getToolCode());
+            counts[shardOfRequest[i]]++;
+        }
+
+        for (int s = 0; s < shards.length; s++) {
+            indicesByShard[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+
+        for (int i = 0; i < batch.length; i++) {
+            int s = shardOfRequest[i];
+            indicesByShard[s][counts[s]++] = i;
+        }
+
+        List<CompletableFuture<Void>> parts = new ArrayList<>(shards.length);
+
+        for (int s = 0; s < shards.length; s++) {
+            int[] indices = indicesByShard[s];
+            Shard shard = shards[s];
+
+            if (indices.length > 0) {
+                parts.add(shard.submit(() -> {
+                    // each shard writes disjoint slots, and joining the parts publishes them
+                    for (int i : indices) {
+                        results[i] = shard.store.tryCheckout(batch[i]);
+                    }
+
+                    return null;
+                }));
+            }
+        }
+
+        join(CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])));
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Get the store of a shard, e.g. to read its metrics. Checkouts and cancellations made
+     * directly on the store bypass the shard writer thread
+     * @param shardIndex the index of the shard
+     * @return the shard store
+     */
+    public Store getShard(int shardIndex) {
+        return shards[shardIndex].store;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Stop the shard writer threads once their queued tasks are done. Later submissions fail
+     * with an IllegalStateException
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+
+        for (Shard shard : shards) {
+            shard.awaitTermination();
+        }
+    }
+
+    /**
+     * Route a tool code to a shard. The hash is spread so that codes differing only in their
+     * last characters still land on different shards
+     */
+    private static int shardIndex(String toolCode, int shardCount) {
+        if (toolCode == null) {
+            return 0;
+        }
+
+        int hash = toolCode.hashCode() * 0x9E3779B9;
+
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Class representing one shard: a store and the single writer thread draining its inbox
+     */
+    private static final class Shard {
+
+        final Store store;
+
+        private final ConcurrentLinkedQueue<Task<?>> inbox = new ConcurrentLinkedQueue<>();
+        private final Thread writer;
+
+        private volatile boolean closed;
+
+        Shard(int index, Store store) {
+            this.store = store;
+            this.writer = new Thread(this::drain, "store-shard-" + index);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> work) {
+            Task<T> task = new Task<>(work);
+
+            if (closed) {
+                task.fail();
+
+                return task.future;
+            }
+
+            inbox.offer(task);
+            LockSupport.unpark(writer);
+
+            // the writer may have exited between the closed check and the offer. Only one of
+            // the writer poll and this remove can take the task, so it never runs twice
+            if (closed && inbox.remove(task)) {
+                task.fail();
+            }
+
+            return task.future;
+        }
+
+        void close() {
+            closed = true;
+            LockSupport.unpark(writer);
+        }
+
+        void awaitTermination() {
+            boolean interrupted = false;
+
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Task<?> task = inbox.poll();
+
+                if (task != null) {
+                    task.run();
+                } else if (closed) {
+                    // a task offered after the poll above but before its submitter saw closed is
+                    // left to this thread, so the inbox is drained once more before exiting
+                    while ((task = inbox.poll()) != null) {
+                        task.run();
+                    }
+
+                    return;
+                } else {
+                    // an unpark made before this park leaves a permit, so no submission is missed
+                    LockSupport.park(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Class representing a unit of work queued on a shard and the future it completes
+     */
+    private static final class Task<T> {
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final Supplier<T> work;
+
+        Task(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            try {
+                future.complete(work.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        void fail() {
+            future.completeExceptionally(new IllegalStateException(CLUSTER_CLOSED_ERROR_MESSAGE));
+        }
+    }
+}
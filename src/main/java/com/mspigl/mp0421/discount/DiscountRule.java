@@ -0,0 +1,136 @@
+package com.mspigl.mp0421.discount;
+
+import java.time.LocalDate;
+
+/**
+ * Class representing a discount granted to rentals matching every one of its conditions: a tool
+ * type, a minimum rental length, a window of checkout dates and a minimum loyalty tier. An
+ * unset condition matches every rental. When several rules match a rental, the highest
+ * discount wins, see DiscountTable
+ */
+public final class DiscountRule {
+
+    private final String toolType;
+    private final int minRentalDays;
+    private final long firstEpochDay;
+    private final long lastEpochDay;
+    private final int minLoyaltyTier;
+    private final int percent;
+
+    /**
+     * Construct a DiscountRule instance
+     * @param toolType the tool type the rule applies to, null for every type
+     * @param minRentalDays the shortest rental the rule applies to (must be greater than 0)
+     * @param firstCheckoutDate the first checkout date of the rule window, null for no start
+     * @param lastCheckoutDate the last checkout date of the rule window (inclusive), null for no end
+     * @param minLoyaltyTier the lowest loyalty tier the rule applies to (must not be negative)
+     * @param percent the discount percent (must be in the range 0 - 100 inclusive)
+     */
+    public DiscountRule(
+            String toolType,
+            int minRentalDays,
+            LocalDate firstCheckoutDate,
+            LocalDate lastCheckoutDate,
+            int minLoyaltyTier,
+            int percent
+    ) {
+        long firstEpochDay = firstCheckoutDate == null ? Long.MIN_VALUE : firstCheckoutDate.toEpochDay();
+        long lastEpochDay = lastCheckoutDate == null ? Long.MAX_VALUE - 1 : lastCheckoutDate.toEpochDay();
+
+        if (minRentalDays < 1 || minLoyaltyTier < 0 || percent < 0 || percent > 100 || firstEpochDay > lastEpochDay) {
+            throw new IllegalArgumentException("A discount rule needs a positive rental length, a valid window and tier and a percent in the range 0 - 100");
+        }
+
+        this.toolType = toolType;
+        this.minRentalDays = minRentalDays;
+        this.firstEpochDay = firstEpochDay;
+        this.lastEpochDay = lastEpochDay;
+        this.minLoyaltyTier = minLoyaltyTier;
+        this.percent = percent;
+    }
+
+    /**
+     * Create a tiered duration discount for rentals of at least the input length
+     * @param minRentalDays the shortest rental the rule applies to
+     * @param percent the discount percent
+     * @return the rule
+     */
+    public static DiscountRule forDuration(int minRentalDays, int percent) {
+        return new DiscountRule(null, minRentalDays, null, null, 0, percent);
+    }
+
+    /**
+     * Create a promotion for every rental of a tool type
+     * @param toolType the promoted tool type (must not be null)
+     * @param percent the discount percent
+     * @return the rule
+     */
+    public static DiscountRule forToolType(String toolType, int percent) {
+        if (toolType == null) {
+            throw new IllegalArgumentException("A tool type promotion needs a tool type");
+        }
+
+        return new DiscountRule(toolType, 1, null, null, 0, percent);
+    }
+
+    /**
+     * Create a sale for every rental checked out within a window of dates
+     * @param firstCheckoutDate the first checkout date of the sale (must not be null)
+     * @param lastCheckoutDate the last checkout date of the sale, inclusive (must not be null)
+     * @param percent the discount percent
+     * @return the rule
+     */
+    public static DiscountRule forDateWindow(LocalDate firstCheckoutDate, LocalDate lastCheckoutDate, int percent) {
+        if (firstCheckoutDate == null || lastCheckoutDate == null) {
+            throw new IllegalArgumentException("A date window sale needs a first and a last date");
+        }
+
+        return new DiscountRule(null, 1, firstCheckoutDate, lastCheckoutDate, 0, percent);
+    }
+
+    /**
+     * Create a loyalty discount for customers of at least the input tier
+     * @param minLoyaltyTier the lowest loyalty tier the rule applies to
+     * @param percent the discount percent
+     * @return the rule
+     */
+    public static DiscountRule forLoyaltyTier(int minLoyaltyTier, int percent) {
+        return new DiscountRule(null, 1, null, null, minLoyaltyTier, percent);
+    }
+
+    /**
+     * Get the tool type the rule applies to
+     * @return the tool type, null if the rule applies to every type
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    public int getMinRentalDays() {
+        return minRentalDays;
+    }
+
+    /**
+     * Get the first checkout epoch day of the rule window
+     * @return the first epoch day, Long.MIN_VALUE if the window has no start
+     */
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    /**
+     * Get the last checkout epoch day of the rule window (inclusive)
+     * @return the last epoch day, Long.MAX_VALUE - 1 if the window has no end
+     */
+    public long getLastEpochDay() {
+        return lastEpochDay;
+    }
+
+    public int getMinLoyaltyTier() {
+        return minLoyaltyTier;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+}
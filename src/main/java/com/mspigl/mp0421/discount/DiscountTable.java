@@ -0,0 +1,226 @@
+package com.mspigl.mp0421.discount;
+
+import com.mspigl.mp0421.catalog.CatalogIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Class representing discount rules compiled into an immutable decision table. The distinct
+ * rule boundaries split checkout dates into windows, rental lengths into duration buckets and
+ * loyalty tiers into tier buckets, and the table holds the best discount of every combination
+ * of window, tool type ID, duration bucket and tier bucket. A lookup maps its inputs to their
+ * buckets and reads one cell, so it allocates nothing and scans no rules.
+ *
+ * Tool type IDs are those of the catalog index the table was compiled against. A table with tool
+ * type rules is only valid for that index: isCompiledFor tells whether it matches another index,
+ * and recompile builds the same rules against it, e.g. after Catalog.replaceAll reassigned IDs.
+ * A table without tool type rules reads every type from the same row and matches any index
+ */
+public final class DiscountTable {
+
+    /**
+     * The largest number of cells a table may hold
+     */
+    public static final int MAX_CELLS = 1 << 24;
+
+    /**
+     * A table granting no discount
+     */
+    public static final DiscountTable NONE = compile(List.of(), 0, null);
+
+    private final List<DiscountRule> rules;
+    private final CatalogIndex catalogIndex;
+    private final long[] windowStarts;
+    private final int typeRows;
+    private final int[] durationStarts;
+    private final int[] tierStarts;
+    private final byte[] percents;
+
+    private DiscountTable(
+            List<DiscountRule> rules,
+            CatalogIndex catalogIndex,
+            long[] windowStarts,
+            int typeRows,
+            int[] durationStarts,
+            int[] tierStarts,
+            byte[] percents
+    ) {
+        this.rules = rules;
+        this.catalogIndex = catalogIndex;
+        this.windowStarts = windowStarts;
+        this.typeRows = typeRows;
+        this.durationStarts = durationStarts;
+        this.tierStarts = tierStarts;
+        this.percents = percents;
+    }
+
+    /**
+     * Compile discount rules against the tool types of a catalog index
+     * @param rules the rules to compile (must not be null)
+     * @param catalogIndex the catalog index resolving tool types to IDs (must not be null)
+     * @return the compiled table
+     * @throws IllegalArgumentException if the table would exceed MAX_CELLS
+     */
+    public static DiscountTable compile(List<DiscountRule> rules, CatalogIndex catalogIndex) {
+        if (rules == null || catalogIndex == null) {
+            throw new IllegalArgumentException("Cannot compile a discount table without rules or a catalog index");
+        }
+
+        return compile(rules, catalogIndex.typeCount(), catalogIndex);
+    }
+
+    private static DiscountTable compile(List<DiscountRule> rules, int typeCount, CatalogIndex catalogIndex) {
+        TreeSet<Long> windowBoundaries = new TreeSet<>();
+        TreeSet<Integer> durationBoundaries = new TreeSet<>();
+        TreeSet<Integer> tierBoundaries = new TreeSet<>();
+        boolean typed = false;
+
+        windowBoundaries.add(Long.MIN_VALUE);
+        durationBoundaries.add(1);
+        tierBoundaries.add(0);
+
+        for (DiscountRule rule : rules) {
+            windowBoundaries.add(rule.getFirstEpochDay());
+            windowBoundaries.add(rule.getLastEpochDay() + 1);
+            durationBoundaries.add(rule.getMinRentalDays());
+            tierBoundaries.add(rule.getMinLoyaltyTier());
+            typed |= rule.getToolType() != null;
+        }
+
+        long[] windowStarts = windowBoundaries.stream().mapToLong(Long::longValue).toArray();
+        int[] durationStarts = durationBoundaries.stream().mapToInt(Integer::intValue).toArray();
+        int[] tierStarts = tierBoundaries.stream().mapToInt(Integer::intValue).toArray();
+
+        // one row per catalog tool type plus a last row for types the index does not know
+        int typeRows = typeCount + 1;
+        long cells = (long) windowStarts.length * typeRows * durationStarts.length * tierStarts.length;
+
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("The discount rules compile to more than " + MAX_CELLS + " table cells");
+        }
+
+        DiscountTable table = new DiscountTable(
+                List.copyOf(rules),
+                typed ? catalogIndex : null,
+                windowStarts,
+                typeRows,
+                durationStarts,
+                tierStarts,
+                new byte[(int) cells]
+        );
+
+        for (DiscountRule rule : rules) {
+            table.fill(rule, catalogIndex);
+        }
+
+        return table;
+    }
+
+    /**
+     * Get the best discount percent of the rules matching a rental
+     * @param typeId the tool type ID of the rented tool
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @return the discount percent, 0 if no rule matches
+     */
+    public int discountPercent(int typeId, int rentalDayCount, long checkoutEpochDay, int loyaltyTier) {
+        int row = typeId < 0 || typeId >= typeRows - 1 ? typeRows - 1 : typeId;
+
+        return percents[cell(window(checkoutEpochDay), row, durationBucket(rentalDayCount), tierBucket(loyaltyTier))];
+    }
+
+    /**
+     * Tell whether the tool type IDs of the table are those of a catalog index
+     * @param catalogIndex the catalog index to check
+     * @return true if the table has no tool type rules or was compiled against the index
+     */
+    public boolean isCompiledFor(CatalogIndex catalogIndex) {
+        return this.catalogIndex == null || this.catalogIndex == catalogIndex;
+    }
+
+    /**
+     * Compile the rules of the table against another catalog index
+     * @param catalogIndex the catalog index resolving tool types to IDs (must not be null)
+     * @return this table if it is compiled for the index, a new table otherwise
+     */
+    public DiscountTable recompile(CatalogIndex catalogIndex) {
+        return isCompiledFor(catalogIndex) ? this : compile(rules, catalogIndex);
+    }
+
+    /**
+     * Get the number of compiled rules
+     * @return the number of rules
+     */
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    /**
+     * Raise every cell matched by a rule to the rule discount
+     */
+    private void fill(DiscountRule rule, CatalogIndex catalogIndex) {
+        int firstRow = 0;
+        int lastRow = typeRows - 1;
+
+        if (rule.getToolType() != null) {
+            int typeId = catalogIndex.typeId(rule.getToolType());
+
+            if (typeId == CatalogIndex.NOT_FOUND) {
+                return;
+            }
+
+            firstRow = typeId;
+            lastRow = typeId;
+        }
+
+        int firstWindow = window(rule.getFirstEpochDay());
+        int lastWindow = window(rule.getLastEpochDay());
+        int firstDurationBucket = durationBucket(rule.getMinRentalDays());
+        int firstTierBucket = tierBucket(rule.getMinLoyaltyTier());
+        byte percent = (byte) rule.getPercent();
+
+        for (int window = firstWindow; window <= lastWindow; window++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int duration = firstDurationBucket; duration < durationStarts.length; duration++) {
+                    for (int tier = firstTierBucket; tier < tierStarts.length; tier++) {
+                        int cell = cell(window, row, duration, tier);
+
+                        if (percents[cell] < percent) {
+                            percents[cell] = percent;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int cell(int window, int row, int durationBucket, int tierBucket) {
+        return ((window * typeRows + row) * durationStarts.length + durationBucket) * tierStarts.length + tierBucket;
+    }
+
+    private int window(long epochDay) {
+        int index = Arrays.binarySearch(windowStarts, epochDay);
+
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int durationBucket(int rentalDayCount) {
+        return bucket(durationStarts, rentalDayCount);
+    }
+
+    private int tierBucket(int loyaltyTier) {
+        return bucket(tierStarts, loyaltyTier);
+    }
+
+    /**
+     * Get the index of the last bucket start not above a value, 0 for a value below every start
+     */
+    private static int bucket(int[] starts, int value) {
+        int index = Arrays.binarySearch(starts, value);
+
+        return index >= 0 ? index : Math.max(-index - 2, 0);
+    }
+}
@@ -0,0 +1,286 @@
+package com.mspigl.mp0421.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class tracking the units of each tool and the day ranges they are reserved for. Tools are
+ * guarded by a fixed set of striped locks chosen by tool code, so reservations on different
+ * tools rarely contend. Tools without a stock level are not tracked and are always available
+ */
+public class Inventory {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentMap<String, List<UnitSchedule>> stock;
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Construct an Inventory instance with the default number of lock stripes
+     */
+    public Inventory() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Construct an Inventory instance
+     * @param stripeCount the number of lock stripes (must be greater than 0), rounded up to a power of two
+     */
+    public Inventory(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("An inventory must have at least one lock stripe");
+        }
+
+        this.stock = new ConcurrentHashMap<>();
+        this.stripes = new ReentrantLock[Integer.highestOneBit(stripeCount * 2 - 1)];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Set the number of units of a tool. Units holding reservations cannot be removed
+     * @param toolCode the code of the tool (must not be null)
+     * @param units the number of units (must not be negative)
+     */
+    public void setUnits(String toolCode, int units) {
+        if (toolCode == null || units < 0) {
+            throw new IllegalArgumentException("A stock level needs a tool code and a non-negative unit count");
+        }
+
+        ReentrantLock lock = lockFor(toolCode);
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.computeIfAbsent(toolCode, code -> new ArrayList<>());
+
+            for (int unit = units; unit < schedules.size(); unit++) {
+                if (!schedules.get(unit).isEmpty()) {
+                    throw new IllegalArgumentException("Cannot remove units of " + toolCode + " holding reservations");
+                }
+            }
+
+            while (schedules.size() > units) {
+                schedules.remove(schedules.size() - 1);
+            }
+
+            while (schedules.size() < units) {
+                schedules.add(new UnitSchedule());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of units of a tool
+     * @param toolCode the code of the tool
+     * @return the number of units, -1 if the tool is not tracked
+     */
+    public int getUnits(String toolCode) {
+        requireToolCode(toolCode);
+
+        ReentrantLock lock = lockFor(toolCode);
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(toolCode);
+
+            return schedules == null ? -1 : schedules.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count the units of a tool free for every day of a range
+     * @param toolCode the code of the tool
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive)
+     * @return the number of free units, Integer.MAX_VALUE if the tool is not tracked
+     */
+    public int countAvailableUnits(String toolCode, long firstEpochDay, long lastEpochDay) {
+        requireToolCode(toolCode);
+
+        ReentrantLock lock = lockFor(toolCode);
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(toolCode);
+
+            if (schedules == null) {
+                return Integer.MAX_VALUE;
+            }
+
+            int available = 0;
+
+            for (UnitSchedule schedule : schedules) {
+                if (schedule.isFree(firstEpochDay, lastEpochDay)) {
+                    available++;
+                }
+            }
+
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserve the first unit of a tool free for every day of a range
+     * @param toolCode the code of the tool
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive, not before the first day)
+     * @return the reservation, null if every unit is taken. A tool that is not tracked gets a
+     * reservation of unit -1
+     */
+    public Reservation reserve(String toolCode, long firstEpochDay, long lastEpochDay) {
+        requireToolCode(toolCode);
+
+        if (lastEpochDay < firstEpochDay) {
+            throw new IllegalArgumentException("A reservation cannot end before it starts");
+        }
+
+        ReentrantLock lock = lockFor(toolCode);
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(toolCode);
+
+            if (schedules == null) {
+                return new Reservation(toolCode, -1, firstEpochDay, lastEpochDay);
+            }
+
+            for (int unit = 0; unit < schedules.size(); unit++) {
+                UnitSchedule schedule = schedules.get(unit);
+
+                if (schedule.isFree(firstEpochDay, lastEpochDay)) {
+                    Reservation reservation = new Reservation(toolCode, unit, firstEpochDay, lastEpochDay);
+                    schedule.reserve(reservation);
+
+                    return reservation;
+                }
+            }
+
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Extend a held reservation to a later last day, keeping the same unit. Only the added days
+     * are checked against the other reservations of the unit
+     * @param reservation the reservation to extend
+     * @param lastEpochDay the new last day of the reservation (inclusive, after the current one)
+     * @return the extended reservation replacing the input one, null if the unit is taken for
+     * an added day or the reservation is not held
+     */
+    public Reservation extend(Reservation reservation, long lastEpochDay) {
+        if (reservation == null || lastEpochDay <= reservation.getLastEpochDay()) {
+            throw new IllegalArgumentException("A reservation can only be extended to a later day");
+        }
+
+        if (reservation.getUnit() < 0) {
+            return new Reservation(reservation.getToolCode(), -1, reservation.getFirstEpochDay(), lastEpochDay);
+        }
+
+        ReentrantLock lock = lockFor(reservation.getToolCode());
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(reservation.getToolCode());
+
+            if (schedules == null || reservation.getUnit() >= schedules.size()) {
+                return null;
+            }
+
+            UnitSchedule schedule = schedules.get(reservation.getUnit());
+
+            if (!schedule.isFree(reservation.getLastEpochDay() + 1, lastEpochDay) || !schedule.release(reservation)) {
+                return null;
+            }
+
+            Reservation extended = new Reservation(
+                    reservation.getToolCode(),
+                    reservation.getUnit(),
+                    reservation.getFirstEpochDay(),
+                    lastEpochDay
+            );
+            schedule.reserve(extended);
+
+            return extended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a reservation, making its unit available again for its range. Only the instance
+     * returned by reserve or extend is released, never another reservation of the same days
+     * @param reservation the reservation to release
+     * @return whether the reservation was held and is now released
+     */
+    public boolean release(Reservation reservation) {
+        if (reservation == null || reservation.getUnit() < 0) {
+            return false;
+        }
+
+        ReentrantLock lock = lockFor(reservation.getToolCode());
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(reservation.getToolCode());
+
+            return schedules != null
+                    && reservation.getUnit() < schedules.size()
+                    && schedules.get(reservation.getUnit()).release(reservation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Determine if a reservation is still held, i.e. neither released nor replaced by an extension
+     * @param reservation the reservation to check
+     * @return whether the reservation holds its unit, always true for an untracked tool
+     */
+    public boolean isHeld(Reservation reservation) {
+        if (reservation == null) {
+            return false;
+        }
+
+        if (reservation.getUnit() < 0) {
+            return true;
+        }
+
+        ReentrantLock lock = lockFor(reservation.getToolCode());
+        lock.lock();
+
+        try {
+            List<UnitSchedule> schedules = stock.get(reservation.getToolCode());
+
+            return schedules != null
+                    && reservation.getUnit() < schedules.size()
+                    && schedules.get(reservation.getUnit()).isHeld(reservation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String toolCode) {
+        int hash = toolCode.hashCode();
+
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static void requireToolCode(String toolCode) {
+        if (toolCode == null) {
+            throw new IllegalArgumentException("Inventory lookups require a tool code");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mspigl.mp0421.inventory;
+
+/**
+ * Class representing one unit of a tool held for a range of days. An inventory tells
+ * reservations apart by identity, so two reservations of the same unit and days are distinct
+ */
+public final class Reservation {
+
+    private final String toolCode;
+    private final int unit;
+    private final long firstEpochDay;
+    private final long lastEpochDay;
+
+    /**
+     * Construct a Reservation instance
+     * @param toolCode the code of the reserved tool
+     * @param unit the index of the reserved unit
+     * @param firstEpochDay the first reserved day (inclusive)
+     * @param lastEpochDay the last reserved day (inclusive)
+     */
+    Reservation(String toolCode, int unit, long firstEpochDay, long lastEpochDay) {
+        this.toolCode = toolCode;
+        this.unit = unit;
+        this.firstEpochDay = firstEpochDay;
+        this.lastEpochDay = lastEpochDay;
+    }
+
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    public int getUnit() {
+        return unit;
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public long getLastEpochDay() {
+        return lastEpochDay;
+    }
+}
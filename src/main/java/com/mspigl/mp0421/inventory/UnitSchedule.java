@@ -0,0 +1,44 @@
+package com.mspigl.mp0421.inventory;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class representing the reservations of a single unit of a tool. Reservations never overlap,
+ * so they are kept in a tree keyed by first day and an overlap query only has to inspect the
+ * reservation starting closest before the end of the queried range. The tree holds the
+ * Reservation instances themselves, and releases and checks match them by identity, so a stale
+ * handle never matches a later reservation of the same days
+ */
+final class UnitSchedule {
+
+    private final TreeMap<Long, Reservation> reservations = new TreeMap<>();
+
+    /**
+     * Determine if the unit is free for every day of a range
+     * @param firstEpochDay the first day of the range (inclusive)
+     * @param lastEpochDay the last day of the range (inclusive)
+     * @return whether no reservation overlaps the range
+     */
+    boolean isFree(long firstEpochDay, long lastEpochDay) {
+        Map.Entry<Long, Reservation> candidate = reservations.floorEntry(lastEpochDay);
+
+        return candidate == null || candidate.getValue().getLastEpochDay() < firstEpochDay;
+    }
+
+    void reserve(Reservation reservation) {
+        reservations.put(reservation.getFirstEpochDay(), reservation);
+    }
+
+    boolean release(Reservation reservation) {
+        return reservations.remove(reservation.getFirstEpochDay(), reservation);
+    }
+
+    boolean isHeld(Reservation reservation) {
+        return reservations.get(reservation.getFirstEpochDay()) == reservation;
+    }
+
+    boolean isEmpty() {
+        return reservations.isEmpty();
+    }
+}
@@ -0,0 +1,447 @@
+package com.mspigl.mp0421.journal;
+
+import com.mspigl.mp0421.store.RentalAgreement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Class representing a durable append-only journal of rental agreements. Appends from any
+ * number of threads are queued and a single writer thread drains the queue, writing every
+ * queued record with one channel write and at most one fsync per group commit. Records are
+ * checksummed, so replay stops at and truncates a torn tail left by a crash
+ *
+ * The journal holds an exclusive lock on its file while open, so a second journal, in this or
+ * another process, cannot interleave records with it
+ */
+public class AgreementJournal implements Closeable {
+
+    static final String JOURNAL_CLOSED_ERROR_MESSAGE = "The agreement journal is closed.";
+    static final String JOURNAL_LOCKED_ERROR_MESSAGE = "The agreement journal is in use by another journal: ";
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+    private static final int REPLAY_BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private long lastFsyncNanos;
+    private boolean unforced;
+
+    /**
+     * Replay every intact record of a journal file in append order. A torn or corrupt record
+     * ends the replay, and the file is truncated to the last intact record so that later
+     * appends follow valid data
+     * @param path the journal file, a missing file replays nothing
+     * @param consumer the consumer receiving each replayed agreement (must not be null)
+     * @return the number of agreements replayed
+     * @throws IOException if the file cannot be read or truncated, or is locked by an open journal
+     */
+    public static long replay(Path path, Consumer<RentalAgreement> consumer) throws IOException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Cannot replay a journal without a consumer");
+        }
+
+        if (!path.toFile().exists()) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            lock(channel, path);
+
+            return replay(channel, consumer);
+        }
+    }
+
+    /**
+     * Open a journal that forces every group commit to the storage device
+     * @param path the journal file, created if missing
+     * @throws IOException if the file cannot be opened
+     */
+    public AgreementJournal(Path path) throws IOException {
+        this(path, FsyncPolicy.EVERY_COMMIT, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a journal, truncating any torn tail so that new records follow valid data
+     * @param path the journal file, created if missing
+     * @param fsyncPolicy when to force written records to the storage device (must not be null)
+     * @param fsyncInterval the time between forces under FsyncPolicy.INTERVAL
+     * @param unit the unit of the fsync interval
+     * @throws IOException if the file cannot be opened or is locked by another journal
+     */
+    public AgreementJournal(Path path, FsyncPolicy fsyncPolicy, long fsyncInterval, TimeUnit unit) throws IOException {
+        this(path, fsyncPolicy, fsyncInterval, unit, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Open a journal, truncating any torn tail so that new records follow valid data
+     * @param path the journal file, created if missing
+     * @param fsyncPolicy when to force written records to the storage device (must not be null)
+     * @param fsyncInterval the time between forces under FsyncPolicy.INTERVAL
+     * @param unit the unit of the fsync interval
+     * @param maxBatchSize the maximum number of records in one group commit (must be positive)
+     * @throws IOException if the file cannot be opened or is locked by another journal
+     */
+    public AgreementJournal(
+            Path path,
+            FsyncPolicy fsyncPolicy,
+            long fsyncInterval,
+            TimeUnit unit,
+            int maxBatchSize
+    ) throws IOException {
+        if (fsyncPolicy == null || unit == null || fsyncInterval < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Cannot open a journal without a valid fsync policy and batch size");
+        }
+
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = unit.toNanos(fsyncInterval);
+        this.maxBatchSize = maxBatchSize;
+        this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+
+        try {
+            lock(channel, path);
+            replay(channel, agreement -> { });
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.lastFsyncNanos = System.nanoTime();
+        this.writer = new Thread(this::drain, "agreement-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Append an agreement to the journal. The record is encoded on the calling thread and
+     * written by the next group commit
+     * @param agreement the agreement to append (must not be null)
+     * @return a future completing once the record is written, and forced when the fsync policy
+     * is EVERY_COMMIT. It completes exceptionally if the record cannot be encoded or written
+     */
+    public CompletableFuture<Void> append(RentalAgreement agreement) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        if (agreement == null) {
+            future.completeExceptionally(new IllegalArgumentException("Cannot journal a null agreement"));
+            return future;
+        }
+
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException(JOURNAL_CLOSED_ERROR_MESSAGE));
+            return future;
+        }
+
+        if (failure != null) {
+            future.completeExceptionally(failure);
+            return future;
+        }
+
+        PendingRecord record;
+
+        try {
+            record = new PendingRecord(AgreementRecordCodec.encode(agreement), future);
+        } catch (IllegalArgumentException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        queue.add(record);
+
+        // close may have drained the queue for the last time between the closed check and the
+        // add. Only one of the writer, the close drain and this remove can take the record
+        if (closed && queue.remove(record)) {
+            future.completeExceptionally(new IllegalStateException(JOURNAL_CLOSED_ERROR_MESSAGE));
+        }
+
+        return future;
+    }
+
+    /**
+     * Write every queued record, force the file and stop the writer thread. Appends made
+     * after close complete exceptionally, and a concurrent close waits for the first one
+     * @throws IOException if the final force or close fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        queue.add(PendingRecord.SHUTDOWN);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        PendingRecord late;
+
+        while ((late = queue.poll()) != null) {
+            late.future.completeExceptionally(new IllegalStateException(JOURNAL_CLOSED_ERROR_MESSAGE));
+        }
+
+        try {
+            if (failure == null && channel.isOpen()) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writer thread loop: block for the first queued record, then drain whatever else queued
+     * up meanwhile into the same group commit. While written records wait for an interval force,
+     * the wait is bounded by the end of the interval, so the force happens even if no further
+     * record arrives
+     */
+    private void drain() {
+        List<PendingRecord> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        boolean running = true;
+
+        while (running) {
+            PendingRecord first;
+
+            try {
+                first = unforced
+                        ? queue.poll(lastFsyncNanos + fsyncIntervalNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+                        : queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            if (first == null) {
+                force();
+                continue;
+            }
+
+            batch.add(first);
+
+            queue.drainTo(batch, maxBatchSize - 1);
+
+            int shutdownIndex = batch.indexOf(PendingRecord.SHUTDOWN);
+
+            if (shutdownIndex >= 0) {
+                running = false;
+                // nothing is queued behind the shutdown marker except appends that raced close
+                queue.drainTo(batch);
+                batch.remove(shutdownIndex);
+            }
+
+            buffer = commit(batch, buffer);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write and, depending on the fsync policy, force one group of records, then complete
+     * their futures
+     * @param batch the records to commit
+     * @param buffer the reusable write buffer
+     * @return the write buffer, grown if the batch did not fit
+     */
+    private ByteBuffer commit(List<PendingRecord> batch, ByteBuffer buffer) {
+        if (batch.isEmpty()) {
+            return buffer;
+        }
+
+        if (failure != null) {
+            batch.forEach(record -> record.future.completeExceptionally(failure));
+            return buffer;
+        }
+
+        int totalBytes = 0;
+
+        for (PendingRecord record : batch) {
+            totalBytes += record.bytes.length;
+        }
+
+        if (buffer.capacity() < totalBytes) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(totalBytes - 1) << 1);
+        }
+
+        buffer.clear();
+
+        for (PendingRecord record : batch) {
+            buffer.put(record.bytes);
+        }
+
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            long now = System.nanoTime();
+
+            if (fsyncPolicy == FsyncPolicy.EVERY_COMMIT
+                    || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsyncNanos >= fsyncIntervalNanos)) {
+                channel.force(false);
+                lastFsyncNanos = now;
+                unforced = false;
+            } else if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                unforced = true;
+            }
+        } catch (IOException e) {
+            failure = e;
+            batch.forEach(record -> record.future.completeExceptionally(e));
+            return buffer;
+        }
+
+        batch.forEach(record -> record.future.complete(null));
+
+        return buffer;
+    }
+
+    /**
+     * Force the records written since the last interval force. A failed force fails the journal
+     * like a failed write
+     */
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        lastFsyncNanos = System.nanoTime();
+        unforced = false;
+    }
+
+    /**
+     * Take an exclusive lock on a journal file, released when the channel is closed
+     * @throws IOException if the file is locked by another journal, in this or another process
+     */
+    private static void lock(FileChannel channel, Path path) throws IOException {
+        FileLock lock;
+
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+
+        if (lock == null) {
+            throw new IOException(JOURNAL_LOCKED_ERROR_MESSAGE + path);
+        }
+    }
+
+    /**
+     * Replay the intact records of an open channel, truncate a torn tail and leave the channel
+     * positioned at the end of the valid data
+     * @param channel the channel to replay
+     * @param consumer the consumer receiving each replayed agreement
+     * @return the number of agreements replayed
+     * @throws IOException if the channel cannot be read or truncated
+     */
+    private static long replay(FileChannel channel, Consumer<RentalAgreement> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(REPLAY_BUFFER_BYTES);
+        long validBytes = 0;
+        long records = 0;
+        boolean endOfFile = false;
+
+        channel.position(0);
+
+        while (true) {
+            if (!endOfFile && channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+
+            buffer.flip();
+
+            while (buffer.remaining() >= AgreementRecordCodec.HEADER_BYTES) {
+                int start = buffer.position();
+                int payloadBytes = buffer.getInt(start);
+                int checksum = buffer.getInt(start + Integer.BYTES);
+
+                if (payloadBytes < 0 || payloadBytes > AgreementRecordCodec.MAX_PAYLOAD_BYTES) {
+                    return truncate(channel, validBytes, records);
+                }
+
+                if (buffer.remaining() < AgreementRecordCodec.HEADER_BYTES + payloadBytes) {
+                    if (buffer.capacity() < AgreementRecordCodec.HEADER_BYTES + payloadBytes) {
+                        buffer = ByteBuffer.allocate(AgreementRecordCodec.HEADER_BYTES + payloadBytes).put(buffer);
+                        buffer.flip();
+                    }
+                    break;
+                }
+
+                int payloadStart = start + AgreementRecordCodec.HEADER_BYTES;
+
+                if (AgreementRecordCodec.checksum(buffer.array(), payloadStart, payloadBytes) != checksum) {
+                    return truncate(channel, validBytes, records);
+                }
+
+                buffer.position(payloadStart);
+                consumer.accept(AgreementRecordCodec.decode(buffer.slice()));
+                buffer.position(payloadStart + payloadBytes);
+
+                validBytes += AgreementRecordCodec.HEADER_BYTES + payloadBytes;
+                records++;
+            }
+
+            buffer.compact();
+
+            if (endOfFile) {
+                return truncate(channel, validBytes, records);
+            }
+        }
+    }
+
+    private static long truncate(FileChannel channel, long validBytes, long records) throws IOException {
+        if (channel.size() > validBytes) {
+            channel.truncate(validBytes);
+            channel.force(false);
+        }
+
+        channel.position(validBytes);
+
+        return records;
+    }
+
+    /**
+     * Class representing an encoded record waiting for the writer thread
+     */
+    private static final class PendingRecord {
+
+        static final PendingRecord SHUTDOWN = new PendingRecord(new byte[0], null);
+
+        final byte[] bytes;
+        final CompletableFuture<Void> future;
+
+        PendingRecord(byte[] bytes, CompletableFuture<Void> future) {
+            this.bytes = bytes;
+            this.future = future;
+        }
+    }
+}
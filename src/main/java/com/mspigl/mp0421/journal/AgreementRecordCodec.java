@@ -0,0 +1,123 @@
+package com.mspigl.mp0421.journal;
+
+import com.mspigl.mp0421.store.RentalAgreement;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Utility class for the binary journal record of a rental agreement. A record is a header of
+ * the payload length and the CRC-32 of the payload (2 ints) followed by the payload: tool code,
+ * tool type, tool brand, checkout date and due date as length-prefixed UTF-8 strings, then the
+ * rental days, charge days and discount percent (ints) and the daily charge in cents (long)
+ */
+final class AgreementRecordCodec {
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Upper bound of a payload length, anything larger is treated as a corrupt header
+     */
+    static final int MAX_PAYLOAD_BYTES = 5 * (Short.BYTES + 0xFFFF) + 3 * Integer.BYTES + Long.BYTES;
+
+    private static final byte[] NULL_STRING = new byte[0];
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_STRING_BYTES = 0xFFFE;
+
+    private AgreementRecordCodec() {
+    }
+
+    /**
+     * Encode a rental agreement into a complete record
+     * @param agreement the agreement to encode
+     * @return the record bytes
+     * @throws IllegalArgumentException if a string field is longer than 65534 UTF-8 bytes
+     */
+    static byte[] encode(RentalAgreement agreement) {
+        byte[][] strings = {
+                utf8(agreement.getToolCode()),
+                utf8(agreement.getToolType()),
+                utf8(agreement.getToolBrand()),
+                utf8(agreement.getCheckoutDate()),
+                utf8(agreement.getDueDate())
+        };
+
+        int payloadBytes = 3 * Integer.BYTES + Long.BYTES;
+
+        for (byte[] string : strings) {
+            payloadBytes += Short.BYTES + string.length;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payloadBytes);
+        record.putInt(payloadBytes).putInt(0);
+
+        for (byte[] string : strings) {
+            record.putShort((short) (string == NULL_STRING ? NULL_LENGTH : string.length)).put(string);
+        }
+
+        record.putInt(agreement.getRentalDays())
+                .putInt(agreement.getChargeDays())
+                .putInt(agreement.getDiscountPercent())
+                .putLong(agreement.getDailyChargeCents());
+
+        record.putInt(Integer.BYTES, checksum(record.array(), HEADER_BYTES, payloadBytes));
+
+        return record.array();
+    }
+
+    /**
+     * Decode the payload of a record
+     * @param payload the buffer positioned at the start of the payload
+     * @return the decoded agreement
+     */
+    static RentalAgreement decode(ByteBuffer payload) {
+        RentalAgreement agreement = new RentalAgreement();
+
+        agreement.setToolCode(readString(payload));
+        agreement.setToolType(readString(payload));
+        agreement.setToolBrand(readString(payload));
+        agreement.setCheckoutDate(readString(payload));
+        agreement.setDueDate(readString(payload));
+        agreement.setRentalDays(payload.getInt());
+        agreement.setChargeDays(payload.getInt());
+        agreement.setDiscountPercent(payload.getInt());
+        agreement.setDailyChargeCents(payload.getLong());
+
+        return agreement;
+    }
+
+    static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+
+        if (encoded.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("A journaled agreement field cannot exceed " + MAX_STRING_BYTES + " bytes");
+        }
+
+        return encoded;
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getShort() & 0xFFFF;
+
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mspigl.mp0421.journal;
+
+/**
+ * Enum of the policies deciding when the journal forces written records to the storage device
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Force after every group commit. An append completes once its record is durable
+     */
+    EVERY_COMMIT,
+
+    /**
+     * Force at most once per configured interval, and at the end of the interval when records
+     * written during it are still unforced. An append completes once its record is written, and
+     * a crash can lose up to one interval of records
+     */
+    INTERVAL,
+
+    /**
+     * Never force explicitly and leave flushing to the operating system
+     */
+    NEVER
+}
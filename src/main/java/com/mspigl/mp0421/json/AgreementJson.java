@@ -0,0 +1,69 @@
+package com.mspigl.mp0421.json;
+
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.money.Money;
+import com.mspigl.mp0421.store.RentalAgreement;
+import com.mspigl.mp0421.tool.Tool;
+
+/**
+ * Utility class writing rental agreements and catalog entries as flat JSON objects. Money is
+ * written as plain decimal numbers formatted from cents
+ */
+public final class AgreementJson {
+
+    private AgreementJson() {
+    }
+
+    /**
+     * Append a rental agreement as a JSON object
+     * @param builder the builder to append to
+     * @param agreement the agreement to append
+     */
+    public static void appendAgreement(StringBuilder builder, RentalAgreement agreement) {
+        builder.append("{\"toolCode\":");
+        FlatJson.appendString(builder, agreement.getToolCode());
+        builder.append(",\"toolType\":");
+        FlatJson.appendString(builder, agreement.getToolType());
+        builder.append(",\"toolBrand\":");
+        FlatJson.appendString(builder, agreement.getToolBrand());
+        builder.append(",\"rentalDays\":").append(agreement.getRentalDays());
+        builder.append(",\"checkoutDate\":\"").append(agreement.getCheckoutDate());
+        builder.append("\",\"dueDate\":\"").append(agreement.getDueDate());
+        builder.append("\",\"dailyCharge\":");
+        Money.appendDecimal(builder, agreement.getDailyChargeCents());
+        builder.append(",\"chargeDays\":").append(agreement.getChargeDays());
+        builder.append(",\"preDiscountCharge\":");
+        Money.appendDecimal(builder, agreement.getPreDiscountChargeCents());
+        builder.append(",\"discountPercent\":").append(agreement.getDiscountPercent());
+        builder.append(",\"discountAmount\":");
+        Money.appendDecimal(builder, agreement.getDiscountAmountCents());
+        builder.append(",\"finalCharge\":");
+        Money.appendDecimal(builder, agreement.getFinalChargeCents());
+        builder.append('}');
+    }
+
+    /**
+     * Append a tool and the catalog item of its type as a JSON object
+     * @param builder the builder to append to
+     * @param tool the tool to append
+     * @param catalogItem the catalog item of the tool type, null if the type has no pricing
+     */
+    public static void appendTool(StringBuilder builder, Tool tool, CatalogItem catalogItem) {
+        builder.append("{\"toolCode\":");
+        FlatJson.appendString(builder, tool.getCode());
+        builder.append(",\"toolType\":");
+        FlatJson.appendString(builder, tool.getType());
+        builder.append(",\"toolBrand\":");
+        FlatJson.appendString(builder, tool.getBrand());
+
+        if (catalogItem != null) {
+            builder.append(",\"dailyCharge\":");
+            Money.appendDecimal(builder, catalogItem.getDailyChargeCents());
+            builder.append(",\"weekdayChargeable\":").append(catalogItem.getWeekdayChargeable());
+            builder.append(",\"weekendChargeable\":").append(catalogItem.getWeekendChargeable());
+            builder.append(",\"holidayChargeable\":").append(catalogItem.getHolidayChargeable());
+        }
+
+        builder.append('}');
+    }
+}
@@ -0,0 +1,215 @@
+package com.mspigl.mp0421.json;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility class reading and writing flat JSON objects (string, number, boolean and null values only)
+ */
+public final class FlatJson {
+
+    public static final String MALFORMED_JSON_ERROR_MESSAGE = "The text is not a flat JSON object.";
+
+    private FlatJson() {
+    }
+
+    /**
+     * Parse a flat JSON object
+     * @param json the JSON text of the object
+     * @return the members of the object, numbers and booleans as their literal text and null as null
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static Map<String, String> parse(String json) {
+        Map<String, String> members = new HashMap<>();
+        int[] position = { skipWhitespace(json, 0) };
+
+        expect(json, position, '{');
+
+        if (peek(json, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String key = readString(json, position);
+
+                expect(json, position, ':');
+                members.put(key, readValue(json, position));
+
+                char next = peek(json, position);
+                position[0]++;
+
+                if (next == '}') {
+                    break;
+                }
+
+                if (next != ',') {
+                    throw malformed();
+                }
+            }
+        }
+
+        if (skipWhitespace(json, position[0]) != json.length()) {
+            throw malformed();
+        }
+
+        return members;
+    }
+
+    /**
+     * Append a string as a quoted JSON string
+     * @param builder the builder to append to
+     * @param value the string to append
+     */
+    public static void appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append("null");
+
+            return;
+        }
+
+        builder.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+
+        builder.append('"');
+    }
+
+    private static String readValue(String json, int[] position) {
+        char first = peek(json, position);
+
+        if (first == '"') {
+            return readString(json, position);
+        }
+
+        int start = position[0];
+
+        while (position[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(position[0])) < 0) {
+            position[0]++;
+        }
+
+        String literal = json.substring(start, position[0]);
+
+        if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+            throw malformed();
+        }
+
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private static String readString(String json, int[] position) {
+        expect(json, position, '"');
+
+        StringBuilder builder = new StringBuilder();
+
+        while (position[0] < json.length()) {
+            char c = json.charAt(position[0]++);
+
+            if (c == '"') {
+                return builder.toString();
+            }
+
+            if (c == '\\') {
+                if (position[0] >= json.length()) {
+                    throw malformed();
+                }
+
+                char escaped = json.charAt(position[0]++);
+
+                switch (escaped) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        if (position[0] + 4 > json.length()) {
+                            throw malformed();
+                        }
+
+                        try {
+                            builder.append((char) Integer.parseInt(json.substring(position[0], position[0] + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed();
+                        }
+
+                        position[0] += 4;
+                        break;
+                    default:
+                        builder.append(escaped);
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+
+        throw malformed();
+    }
+
+    private static void expect(String json, int[] position, char expected) {
+        if (peek(json, position) != expected) {
+            throw malformed();
+        }
+
+        position[0]++;
+    }
+
+    /**
+     * Skip whitespace and return the next character without consuming it
+     */
+    private static char peek(String json, int[] position) {
+        position[0] = skipWhitespace(json, position[0]);
+
+        if (position[0] >= json.length()) {
+            throw malformed();
+        }
+
+        return json.charAt(position[0]);
+    }
+
+    private static int skipWhitespace(String json, int position) {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+
+        return position;
+    }
+
+    private static IllegalArgumentException malformed() {
+        return new IllegalArgumentException(MALFORMED_JSON_ERROR_MESSAGE);
+    }
+}
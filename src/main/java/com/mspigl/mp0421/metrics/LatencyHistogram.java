@@ -0,0 +1,176 @@
+package com.mspigl.mp0421.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class representing a concurrent latency histogram with log-linear buckets in the style of an
+ * HdrHistogram. Values below 64 get one bucket each, and every power of two above that is split
+ * into 32 equal buckets, so a reported value is within about 3% of the recorded one. Recording
+ * is one atomic increment on a bucket array striped by thread, so it can stay on under full load
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 6;
+    private static final int HALF_LINEAR = 1 << (LINEAR_BITS - 1);
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_TRACKABLE_VALUE = (1L << MAX_MAGNITUDE + 1) - 1;
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Construct a LatencyHistogram instance with one stripe per available processor
+     */
+    public LatencyHistogram() {
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+        this.stripes = new AtomicLongArray[stripeCount];
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    /**
+     * Record a value. Negative values are recorded as 0 and values above about 2^41 (36 minutes
+     * in nanoseconds) are recorded in the last bucket
+     * @param value the value to record, typically a latency in nanoseconds
+     */
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_TRACKABLE_VALUE);
+        long threadHash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+
+        stripes[(int) (threadHash >>> 32) & (stripes.length - 1)].incrementAndGet(bucketIndex(clamped));
+        sum.add(clamped);
+    }
+
+    /**
+     * Take a snapshot of the recorded values. Values recorded while the snapshot is taken may
+     * or may not be included
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+
+        return new Snapshot(counts, sum.sum());
+    }
+
+    /**
+     * Clear every recorded value
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                stripe.set(i, 0);
+            }
+        }
+
+        sum.reset();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * HALF_LINEAR) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (LINEAR_BITS - 1);
+
+        return shift * HALF_LINEAR + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int bucketIndex) {
+        if (bucketIndex < 2 * HALF_LINEAR) {
+            return bucketIndex;
+        }
+
+        int shift = bucketIndex / HALF_LINEAR - 1;
+        long linear = bucketIndex - (long) shift * HALF_LINEAR;
+
+        return ((linear + 1) << shift) - 1;
+    }
+
+    /**
+     * Class representing an immutable view of a histogram at one point in time
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long totalCount;
+        private final long sum;
+
+        private Snapshot(long[] counts, long sum) {
+            long totalCount = 0;
+
+            for (long count : counts) {
+                totalCount += count;
+            }
+
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.sum = sum;
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * Get the mean of the recorded values
+         * @return the mean, 0 if nothing was recorded
+         */
+        public double getMean() {
+            return totalCount == 0 ? 0 : (double) sum / totalCount;
+        }
+
+        /**
+         * Get the highest recorded value, rounded up to its bucket bound
+         * @return the highest value, 0 if nothing was recorded
+         */
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return highestEquivalentValue(i);
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * Get the value below or at which the input percentage of recorded values fall, rounded
+         * up to its bucket bound
+         * @param percentile the percentile in the range 0 - 100 (inclusive)
+         * @return the value at the percentile, 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("A percentile must be in the range 0 - 100 (inclusive)");
+            }
+
+            if (totalCount == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+
+                if (seen >= rank) {
+                    return highestEquivalentValue(i);
+                }
+            }
+
+            return getMax();
+        }
+    }
+}
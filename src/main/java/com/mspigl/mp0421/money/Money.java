@@ -0,0 +1,152 @@
+package com.mspigl.mp0421.money;
+
+/**
+ * Utility class for fixed-point money arithmetic. Amounts are held as a long number of cents,
+ * so sums are exact and no rounding error accumulates across many amounts
+ */
+public final class Money {
+
+    private static final int CENTS_PER_UNIT = 100;
+    private static final int PERCENT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Convert a decimal amount to cents, rounding half up (away from zero) to the nearest cent
+     * @param amount the amount to convert
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return amount < 0 ? -Math.round(-amount * CENTS_PER_UNIT) : Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Convert an amount in cents to a decimal amount
+     * @param cents the amount in cents
+     * @return the decimal amount
+     */
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Multiply an amount by a quantity
+     * @param cents the amount in cents
+     * @param quantity the quantity
+     * @return the product in cents
+     * @throws ArithmeticException if the product overflows a long
+     */
+    public static long multiply(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Get a percentage of an amount, rounded half up (away from zero) to the nearest cent
+     * @param cents the amount in cents
+     * @param percent the percentage to take
+     * @return the percentage of the amount in cents
+     * @throws ArithmeticException if the intermediate product overflows a long
+     */
+    public static long percentOf(long cents, int percent) {
+        long scaled = Math.multiplyExact(cents, (long) percent);
+
+        return scaled < 0 ? -((-scaled + PERCENT / 2) / PERCENT) : (scaled + PERCENT / 2) / PERCENT;
+    }
+
+    /**
+     * Format an amount in cents as a plain decimal string with two fraction digits (e.g. "-1.05")
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String toDecimalString(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+
+        appendDecimal(builder, cents);
+
+        return builder.toString();
+    }
+
+    /**
+     * Append an amount in cents as a plain decimal string with two fraction digits
+     * @param builder the builder to append to
+     * @param cents the amount in cents
+     */
+    public static void appendDecimal(StringBuilder builder, long cents) {
+        if (cents < 0) {
+            builder.append('-');
+        }
+
+        long absolute = Math.abs(cents);
+        long fraction = absolute % CENTS_PER_UNIT;
+
+        builder.append(absolute / CENTS_PER_UNIT).append('.');
+
+        if (fraction < 10) {
+            builder.append('0');
+        }
+
+        builder.append(fraction);
+    }
+
+    /**
+     * Format an amount in cents as US dollars with thousands separators (e.g. "$1,234.05",
+     * "-$0.50"), matching the en-US currency NumberFormat without its per-call setup
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String toCurrencyString(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+
+        appendCurrency(builder, cents);
+
+        return builder.toString();
+    }
+
+    /**
+     * Append an amount in cents as US dollars with thousands separators
+     * @param builder the builder to append to
+     * @param cents the amount in cents
+     */
+    public static void appendCurrency(StringBuilder builder, long cents) {
+        if (cents < 0) {
+            builder.append('-');
+        }
+
+        long absolute = Math.abs(cents);
+        long fraction = absolute % CENTS_PER_UNIT;
+
+        builder.append('$');
+        appendGrouped(builder, absolute / CENTS_PER_UNIT);
+        builder.append('.');
+
+        if (fraction < 10) {
+            builder.append('0');
+        }
+
+        builder.append(fraction);
+    }
+
+    private static void appendGrouped(StringBuilder builder, long units) {
+        if (units < 1000) {
+            builder.append(units);
+            return;
+        }
+
+        appendGrouped(builder, units / 1000);
+
+        long group = units % 1000;
+
+        builder.append(',');
+
+        if (group < 100) {
+            builder.append('0');
+        }
+
+        if (group < 10) {
+            builder.append('0');
+        }
+
+        builder.append(group);
+    }
+}
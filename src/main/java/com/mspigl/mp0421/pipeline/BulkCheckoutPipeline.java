@@ -0,0 +1,183 @@
+package com.mspigl.mp0421.pipeline;
+
+import com.mspigl.mp0421.store.CheckoutRequest;
+import com.mspigl.mp0421.store.CheckoutResult;
+import com.mspigl.mp0421.store.RentalAgreement;
+import com.mspigl.mp0421.store.Store;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class streaming checkout records from a flat file through a store. Records are read one line
+ * at a time and at most a fixed number of checkouts are in flight, so memory use does not depend
+ * on the size of the file. Agreements and rejected records are written to separate outputs, each
+ * in input order, as soon as the oldest in-flight record completes
+ */
+public class BulkCheckoutPipeline {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    private final Store store;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    /**
+     * Construct a BulkCheckoutPipeline instance running checkouts on the common fork-join pool
+     * @param store the store to check records out from (must not be null)
+     */
+    public BulkCheckoutPipeline(Store store) {
+        this(store, ForkJoinPool.commonPool(), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Construct a BulkCheckoutPipeline instance
+     * @param store the store to check records out from (must not be null)
+     * @param executor the executor to run checkouts on (must not be null)
+     * @param maxInFlight the maximum number of records checked out concurrently (must be greater than 0)
+     */
+    public BulkCheckoutPipeline(Store store, Executor executor, int maxInFlight) {
+        if (store == null || executor == null || maxInFlight < 1) {
+            throw new IllegalArgumentException("A pipeline needs a store, an executor and a positive in-flight limit");
+        }
+
+        this.store = store;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Check out every record of a file, in the format given by its extension
+     * @param input the file to read records from
+     * @param agreements the file to write agreements to, in the input format
+     * @param rejects the file to write rejected records to, in the input format
+     * @return the record counts of the run
+     * @throws IOException if a file cannot be read or written
+     */
+    public PipelineSummary run(Path input, Path agreements, Path rejects) throws IOException {
+        RecordFormat format = RecordFormat.of(input);
+
+        try (
+                BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                BufferedWriter agreementWriter = Files.newBufferedWriter(agreements, StandardCharsets.UTF_8);
+                BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)
+        ) {
+            return run(reader, format, agreementWriter, rejectWriter);
+        }
+    }
+
+    /**
+     * Check out every record read from a reader. The writers are flushed but not closed
+     * @param input the reader to read records from
+     * @param format the format of the records
+     * @param agreements the writer to write agreements to
+     * @param rejects the writer to write rejected records to
+     * @return the record counts of the run
+     * @throws IOException if a record cannot be read or written
+     */
+    public PipelineSummary run(BufferedReader input, RecordFormat format, Writer agreements, Writer rejects)
+            throws IOException {
+        ArrayDeque<CompletableFuture<Outcome>> inFlight = new ArrayDeque<>(maxInFlight);
+        StringBuilder line = new StringBuilder(256);
+        long[] counts = new long[2];
+        long recordsRead = 0;
+        long lineNumber = 0;
+        String record;
+
+        while ((record = input.readLine()) != null) {
+            lineNumber++;
+
+            CompletableFuture<Outcome> outcome = submit(format, lineNumber, record);
+
+            if (outcome != null) {
+                recordsRead++;
+                inFlight.add(outcome);
+            }
+
+            while (inFlight.size() >= maxInFlight) {
+                write(inFlight.poll().join(), format, agreements, rejects, line, counts);
+            }
+        }
+
+        while (!inFlight.isEmpty()) {
+            write(inFlight.poll().join(), format, agreements, rejects, line, counts);
+        }
+
+        agreements.flush();
+        rejects.flush();
+
+        return new PipelineSummary(recordsRead, counts[0], counts[1]);
+    }
+
+    /**
+     * Parse a line and submit its checkout
+     * @return the pending outcome of the record, null if the line holds no record
+     */
+    private CompletableFuture<Outcome> submit(RecordFormat format, long lineNumber, String record) {
+        CheckoutRequest request;
+
+        try {
+            request = format.parse(record, lineNumber);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new Outcome(lineNumber, record, null, e.getMessage()));
+        }
+
+        return request == null
+                ? null
+                : CompletableFuture.supplyAsync(() -> checkout(lineNumber, record, request), executor);
+    }
+
+    private Outcome checkout(long lineNumber, String record, CheckoutRequest request) {
+        CheckoutResult result = store.tryCheckout(request);
+
+        return new Outcome(lineNumber, record, result.getRentalAgreement(), result.getErrorMessage());
+    }
+
+    private static void write(
+            Outcome outcome,
+            RecordFormat format,
+            Writer agreements,
+            Writer rejects,
+            StringBuilder line,
+            long[] counts
+    ) throws IOException {
+        line.setLength(0);
+
+        if (outcome.agreement != null) {
+            format.appendAgreement(line, outcome.agreement);
+            agreements.append(line).append('\n');
+            counts[0]++;
+        } else {
+            format.appendReject(line, outcome.lineNumber, outcome.record, outcome.errorMessage);
+            rejects.append(line).append('\n');
+            counts[1]++;
+        }
+    }
+
+    /**
+     * Result of one record: an agreement, or the reason the record was rejected
+     */
+    private static final class Outcome {
+
+        private final long lineNumber;
+        private final String record;
+        private final RentalAgreement agreement;
+        private final String errorMessage;
+
+        private Outcome(long lineNumber, String record, RentalAgreement agreement, String errorMessage) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+            this.agreement = agreement;
+            this.errorMessage = errorMessage;
+        }
+    }
+}
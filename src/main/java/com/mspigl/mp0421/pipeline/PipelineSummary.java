@@ -0,0 +1,29 @@
+package com.mspigl.mp0421.pipeline;
+
+/**
+ * Class representing the record counts of a completed bulk checkout run
+ */
+public final class PipelineSummary {
+
+    private final long recordsRead;
+    private final long agreementsWritten;
+    private final long rejectsWritten;
+
+    PipelineSummary(long recordsRead, long agreementsWritten, long rejectsWritten) {
+        this.recordsRead = recordsRead;
+        this.agreementsWritten = agreementsWritten;
+        this.rejectsWritten = rejectsWritten;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public long getAgreementsWritten() {
+        return agreementsWritten;
+    }
+
+    public long getRejectsWritten() {
+        return rejectsWritten;
+    }
+}
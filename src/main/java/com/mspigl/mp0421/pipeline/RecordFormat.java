@@ -0,0 +1,173 @@
+package com.mspigl.mp0421.pipeline;
+
+import com.mspigl.mp0421.json.AgreementJson;
+import com.mspigl.mp0421.json.FlatJson;
+import com.mspigl.mp0421.money.Money;
+import com.mspigl.mp0421.store.CheckoutRequest;
+import com.mspigl.mp0421.store.RentalAgreement;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Enum of the flat file formats read and written by the bulk checkout pipeline. Input records
+ * hold a tool code, a rental day count, a discount percent and a checkout date
+ */
+public enum RecordFormat {
+
+    /**
+     * Comma separated values: toolCode,days,discount,date. An optional header line, exactly
+     * "toolCode,days,discount,date" on the first line, blank lines and lines starting with '#'
+     * are skipped
+     */
+    CSV {
+        @Override
+        CheckoutRequest parse(String line, long lineNumber) {
+            if (line.isEmpty() || line.charAt(0) == '#' || (lineNumber == 1 && CSV_HEADER.equals(line.trim()))) {
+                return null;
+            }
+
+            String[] fields = line.split(",", -1);
+
+            if (fields.length != 4) {
+                throw new IllegalArgumentException(MALFORMED_RECORD_ERROR_MESSAGE);
+            }
+
+            return request(fields[0].trim(), fields[1].trim(), fields[2].trim(), fields[3].trim());
+        }
+
+        @Override
+        void appendAgreement(StringBuilder builder, RentalAgreement agreement) {
+            appendField(builder, agreement.getToolCode()).append(',');
+            appendField(builder, agreement.getToolType()).append(',');
+            appendField(builder, agreement.getToolBrand()).append(',');
+            builder.append(agreement.getRentalDays()).append(',');
+            builder.append(agreement.getCheckoutDate()).append(',');
+            builder.append(agreement.getDueDate()).append(',');
+            Money.appendDecimal(builder, agreement.getDailyChargeCents());
+            builder.append(',').append(agreement.getChargeDays()).append(',');
+            Money.appendDecimal(builder, agreement.getPreDiscountChargeCents());
+            builder.append(',').append(agreement.getDiscountPercent()).append(',');
+            Money.appendDecimal(builder, agreement.getDiscountAmountCents());
+            builder.append(',');
+            Money.appendDecimal(builder, agreement.getFinalChargeCents());
+        }
+
+        @Override
+        void appendReject(StringBuilder builder, long lineNumber, String record, String errorMessage) {
+            builder.append(lineNumber).append(',');
+            appendField(builder, errorMessage).append(',');
+            appendField(builder, record);
+        }
+    },
+
+    /**
+     * One flat JSON object per line: {"toolCode": "LADW", "days": 3, "discount": 10, "date": "7/2/20"}.
+     * Blank lines are skipped
+     */
+    JSONL {
+        @Override
+        CheckoutRequest parse(String line, long lineNumber) {
+            if (line.trim().isEmpty()) {
+                return null;
+            }
+
+            Map<String, String> members;
+
+            try {
+                members = FlatJson.parse(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(MALFORMED_RECORD_ERROR_MESSAGE);
+            }
+
+            return request(members.get("toolCode"), members.get("days"), members.get("discount"), members.get("date"));
+        }
+
+        @Override
+        void appendAgreement(StringBuilder builder, RentalAgreement agreement) {
+            AgreementJson.appendAgreement(builder, agreement);
+        }
+
+        @Override
+        void appendReject(StringBuilder builder, long lineNumber, String record, String errorMessage) {
+            builder.append("{\"line\":").append(lineNumber).append(",\"error\":");
+            FlatJson.appendString(builder, errorMessage);
+            builder.append(",\"record\":");
+            FlatJson.appendString(builder, record);
+            builder.append('}');
+        }
+    };
+
+    static final String MALFORMED_RECORD_ERROR_MESSAGE = "The record is not a valid checkout record.";
+
+    private static final String CSV_HEADER = "toolCode,days,discount,date";
+
+    /**
+     * Get the format matching the extension of the input file (.csv or .jsonl)
+     * @param path the file to inspect
+     * @return the format of the file
+     */
+    public static RecordFormat of(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+
+        if (name.endsWith(".csv")) {
+            return CSV;
+        } else if (name.endsWith(".jsonl")) {
+            return JSONL;
+        }
+
+        throw new IllegalArgumentException("Unknown record format for file " + path);
+    }
+
+    /**
+     * Parse a line into a checkout request
+     * @param line the line to parse
+     * @param lineNumber the line number of the line in the input, starting at 1
+     * @return the request, null if the line holds no record
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    abstract CheckoutRequest parse(String line, long lineNumber);
+
+    /**
+     * Append a rental agreement as a line (without line separator)
+     * @param builder the builder to append to
+     * @param agreement the agreement to append
+     */
+    abstract void appendAgreement(StringBuilder builder, RentalAgreement agreement);
+
+    /**
+     * Append a rejected record as a line (without line separator)
+     * @param builder the builder to append to
+     * @param lineNumber the line number of the record in the input
+     * @param record the raw record
+     * @param errorMessage the reason the record was rejected
+     */
+    abstract void appendReject(StringBuilder builder, long lineNumber, String record, String errorMessage);
+
+    private static CheckoutRequest request(String toolCode, String days, String discount, String date) {
+        if (toolCode == null || days == null || discount == null || date == null) {
+            throw new IllegalArgumentException(MALFORMED_RECORD_ERROR_MESSAGE);
+        }
+
+        try {
+            return new CheckoutRequest(toolCode, Integer.parseInt(days), Integer.parseInt(discount), date);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(MALFORMED_RECORD_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Append a CSV field, quoting it when it contains a separator, quote or line break
+     */
+    private static StringBuilder appendField(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder;
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return builder.append(value);
+        }
+
+        return builder.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,382 @@
+package com.mspigl.mp0421.reload;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.catalog.CatalogSnapshot;
+import com.mspigl.mp0421.json.FlatJson;
+import com.mspigl.mp0421.metrics.LatencyHistogram;
+import com.mspigl.mp0421.tool.Tool;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Class representing a catalog kept in sync with a catalog definition file. A background thread
+ * watches the file and, on every change, parses, validates and swaps the new content into the
+ * catalog with Catalog.replaceAll. Checkouts in progress keep reading the snapshot they started
+ * with, so a reload never pauses them, and an invalid file leaves the catalog unchanged
+ *
+ * The definition file holds one flat JSON object per line. Blank lines and lines starting with
+ * # are skipped
+ *
+ * <ul>
+ *     <li>{"toolCode":"CHNS","brand":"Stihl","toolType":"Chainsaw"} defines a tool</li>
+ *     <li>{"toolType":"Chainsaw","dailyCharge":1.49,"weekday":true,"weekend":false,"holiday":true}
+ *     defines the pricing of a tool type</li>
+ * </ul>
+ *
+ * Lines unchanged since the previous version are not parsed again. Tool and tool type IDs are
+ * reassigned by every reload. A store recompiles its discount table for the snapshot each
+ * checkout reads, so discounts stay on the right tool types without a listener. Prepared
+ * checkouts keep the snapshot they were prepared from
+ */
+public class CatalogReloader implements Closeable {
+
+    static final String INVALID_ENTRY_ERROR_MESSAGE = "The catalog definition has an invalid entry on line ";
+    static final String DUPLICATE_ENTRY_ERROR_MESSAGE = "The catalog definition defines twice ";
+    static final String MISSING_PRICING_ERROR_MESSAGE = "The catalog definition has no pricing for tool type ";
+
+    /**
+     * Time to wait for a burst of file events to settle before reloading, so a file written in
+     * several steps is read once, complete
+     */
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path file;
+    private final Catalog catalog;
+    private final Consumer<CatalogSnapshot> listener;
+    private final LatencyHistogram reloadLatency = new LatencyHistogram();
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong failedReloadCount = new AtomicLong();
+
+    private Map<String, Object> entriesByLine = new HashMap<>();
+    private volatile long lastReloadNanos;
+    private volatile String lastError;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Construct a CatalogReloader instance. Nothing is read before start
+     * @param file the catalog definition file (must not be null)
+     * @param catalog the catalog to keep in sync (must not be null)
+     */
+    public CatalogReloader(Path file, Catalog catalog) {
+        this(file, catalog, snapshot -> { });
+    }
+
+    /**
+     * Construct a CatalogReloader instance notifying a listener of every reload. The listener
+     * runs on the reloading thread
+     * @param file the catalog definition file (must not be null)
+     * @param catalog the catalog to keep in sync (must not be null)
+     * @param listener the listener receiving the snapshot published by each reload (must not be null)
+     */
+    public CatalogReloader(Path file, Catalog catalog, Consumer<CatalogSnapshot> listener) {
+        if (file == null || catalog == null || listener == null) {
+            throw new IllegalArgumentException("A catalog reloader needs a file, a catalog and a listener");
+        }
+
+        this.file = file.toAbsolutePath();
+        this.catalog = catalog;
+        this.listener = listener;
+    }
+
+    /**
+     * Load the file once and start watching it for changes
+     * @throws IOException if the file cannot be read or its directory cannot be watched
+     * @throws IllegalArgumentException if the file is not a valid catalog definition
+     * @throws IllegalStateException if the reloader is already started
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("The catalog reloader is already started");
+        }
+
+        reload();
+
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+        );
+
+        watcher = new Thread(this::watch, "catalog-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Parse and validate the file and swap it into the catalog
+     * @return the snapshot published by the reload
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid catalog definition, in which
+     * case the catalog is left unchanged
+     */
+    public synchronized CatalogSnapshot reload() throws IOException {
+        long startNanos = System.nanoTime();
+
+        try {
+            List<Tool> tools = new ArrayList<>();
+            List<CatalogItem> items = new ArrayList<>();
+            Map<String, Object> parsed = parse(tools, items);
+
+            validate(tools, items);
+            catalog.replaceAll(tools, items);
+            entriesByLine = parsed;
+        } catch (IOException | RuntimeException e) {
+            failedReloadCount.incrementAndGet();
+            lastError = e.getMessage();
+
+            throw e;
+        }
+
+        CatalogSnapshot snapshot = catalog.snapshot();
+
+        lastReloadNanos = System.nanoTime() - startNanos;
+        reloadLatency.record(lastReloadNanos);
+        reloadCount.incrementAndGet();
+        lastError = null;
+        listener.accept(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Stop watching the file
+     */
+    @Override
+    public void close() {
+        Thread thread;
+
+        synchronized (this) {
+            if (watchService == null) {
+                return;
+            }
+
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // the watcher thread exits on the closed service either way
+            }
+
+            thread = watcher;
+        }
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the version of the catalog, increased by every reload and every other catalog update
+     * @return the catalog version
+     */
+    public long getVersion() {
+        return catalog.snapshot().getVersion();
+    }
+
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Get the number of reloads rejected for an unreadable or invalid file
+     * @return the number of failed reloads
+     */
+    public long getFailedReloadCount() {
+        return failedReloadCount.get();
+    }
+
+    /**
+     * Get the time taken by the last successful reload, from reading the file to publishing the
+     * snapshot
+     * @return the reload latency in nanoseconds, 0 before the first reload
+     */
+    public long getLastReloadNanos() {
+        return lastReloadNanos;
+    }
+
+    /**
+     * Get a snapshot of the latencies of every successful reload
+     * @return the latency snapshot in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getReloadLatency() {
+        return reloadLatency.snapshot();
+    }
+
+    /**
+     * Get the reason the last reload failed
+     * @return the error message, null if the last reload succeeded
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Reload the file whenever an event names it, until the watch service is closed
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isFileEvent(key);
+
+                // let a burst of events from one save settle into a single reload
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= isFileEvent(key);
+                }
+
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        // counted and kept in lastError, the catalog keeps its previous content
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed, stop watching
+        }
+    }
+
+    private boolean isFileEvent(WatchKey key) {
+        boolean fileEvent = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                fileEvent = true;
+            }
+        }
+
+        key.reset();
+
+        return fileEvent;
+    }
+
+    /**
+     * Parse the file into tools and catalog items, reusing the entries of unchanged lines
+     * @return the entries of the file by line
+     */
+    private Map<String, Object> parse(List<Tool> tools, List<CatalogItem> items) throws IOException {
+        Map<String, Object> parsed = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            int lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                Object entry = entriesByLine.get(line);
+
+                if (entry == null) {
+                    entry = parseEntry(line, lineNumber);
+                }
+
+                parsed.put(line, entry);
+
+                if (entry instanceof Tool) {
+                    tools.add((Tool) entry);
+                } else {
+                    items.add((CatalogItem) entry);
+                }
+            }
+        }
+
+        return parsed;
+    }
+
+    private static Object parseEntry(String line, int lineNumber) {
+        try {
+            Map<String, String> fields = FlatJson.parse(line);
+            String toolType = require(fields, "toolType");
+
+            if (fields.containsKey("toolCode")) {
+                return new Tool(require(fields, "toolCode"), require(fields, "brand"), toolType);
+            }
+
+            double dailyCharge = Double.parseDouble(require(fields, "dailyCharge"));
+
+            if (!(dailyCharge >= 0)) {
+                throw new IllegalArgumentException("negative daily charge");
+            }
+
+            return new CatalogItem(
+                    toolType,
+                    dailyCharge,
+                    parseBoolean(require(fields, "weekday")),
+                    parseBoolean(require(fields, "weekend")),
+                    parseBoolean(require(fields, "holiday"))
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID_ENTRY_ERROR_MESSAGE + lineNumber, e);
+        }
+    }
+
+    private static String require(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + name);
+        }
+
+        return value;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!"true".equals(value) && !"false".equals(value)) {
+            throw new IllegalArgumentException("not a boolean: " + value);
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Check that no tool or tool type is defined twice and that every tool type is priced
+     */
+    private static void validate(List<Tool> tools, List<CatalogItem> items) {
+        Set<String> toolTypes = new HashSet<>();
+        Set<String> toolCodes = new HashSet<>();
+
+        for (CatalogItem item : items) {
+            if (!toolTypes.add(item.getToolType())) {
+                throw new IllegalArgumentException(DUPLICATE_ENTRY_ERROR_MESSAGE + "tool type " + item.getToolType());
+            }
+        }
+
+        for (Tool tool : tools) {
+            if (!toolCodes.add(tool.getCode())) {
+                throw new IllegalArgumentException(DUPLICATE_ENTRY_ERROR_MESSAGE + "tool " + tool.getCode());
+            }
+
+            if (!toolTypes.contains(tool.getType())) {
+                throw new IllegalArgumentException(MISSING_PRICING_ERROR_MESSAGE + tool.getType());
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.mspigl.mp0421.service;
+
+import com.mspigl.mp0421.catalog.CatalogSnapshot;
+import com.mspigl.mp0421.json.AgreementJson;
+import com.mspigl.mp0421.json.FlatJson;
+import com.mspigl.mp0421.store.CheckoutRequest;
+import com.mspigl.mp0421.store.CheckoutResult;
+import com.mspigl.mp0421.store.RentalAgreement;
+import com.mspigl.mp0421.store.Store;
+import com.mspigl.mp0421.tool.Tool;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Class representing an embedded HTTP service in front of a store. Every exchange runs on its
+ * own thread, virtual when the JVM supports it, so concurrent connections need no pool sizing.
+ * Requests and responses are flat JSON objects written by hand, without reflection
+ *
+ * <ul>
+ *     <li>POST /checkout with {"toolCode", "days", "discount", "date"} checks a tool out</li>
+ *     <li>GET /quote?toolCode=&amp;days=&amp;discount=&amp;date= prices a rental without reserving it</li>
+ *     <li>GET /catalog/tools/{toolCode} looks a tool and its pricing up</li>
+ * </ul>
+ *
+ * A checkout body larger than MAX_REQUEST_BODY_BYTES is rejected with 413 without being read
+ * further
+ */
+public class CheckoutService implements Closeable {
+
+    static final String MALFORMED_REQUEST_ERROR_MESSAGE = "The request must carry toolCode, days, discount and date.";
+    static final String TOOL_NOT_FOUND_ERROR_MESSAGE = "No tool with the requested code is in the catalog.";
+    static final String MALFORMED_URL_ERROR_MESSAGE = "The request URL is not correctly encoded.";
+    static final String REQUEST_TOO_LARGE_ERROR_MESSAGE = "The request body is too large.";
+    static final String INTERNAL_ERROR_MESSAGE = "The request could not be processed.";
+    static final int MAX_REQUEST_BODY_BYTES = 8 * 1024;
+
+    private static final String CATALOG_TOOLS_PATH = "/catalog/tools/";
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_CONFLICT = 409;
+    private static final int STATUS_PAYLOAD_TOO_LARGE = 413;
+    private static final int STATUS_INTERNAL_ERROR = 500;
+
+    private final Store store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Construct a CheckoutService instance bound to the input address. The service does not
+     * accept connections until started
+     * @param store the store to serve (must not be null)
+     * @param address the address to bind to, port 0 for any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public CheckoutService(Store store, InetSocketAddress address) throws IOException {
+        if (store == null) {
+            throw new IllegalArgumentException("Cannot serve checkouts without a store");
+        }
+
+        this.store = store;
+        this.server = HttpServer.create(address, 0);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor();
+
+        server.setExecutor(executor);
+        server.createContext("/checkout", this::handleCheckout);
+        server.createContext("/quote", this::handleQuote);
+        server.createContext(CATALOG_TOOLS_PATH, this::handleToolLookup);
+    }
+
+    /**
+     * Start accepting connections
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Get the address the service is bound to
+     * @return the bound address, with the actual port when bound to port 0
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stop accepting connections, wait up to a second for exchanges in progress and release
+     * the request threads
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handleCheckout(HttpExchange exchange) throws IOException {
+        handle(exchange, "POST", () -> {
+            byte[] body;
+
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_REQUEST_BODY_BYTES + 1);
+            }
+
+            if (body.length > MAX_REQUEST_BODY_BYTES) {
+                return error(STATUS_PAYLOAD_TOO_LARGE, REQUEST_TOO_LARGE_ERROR_MESSAGE);
+            }
+
+            Map<String, String> members;
+
+            try {
+                members = FlatJson.parse(new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                return error(STATUS_BAD_REQUEST, MALFORMED_REQUEST_ERROR_MESSAGE);
+            }
+
+            return agreement(members, true);
+        });
+    }
+
+    private void handleQuote(HttpExchange exchange) throws IOException {
+        handle(exchange, "GET", () -> {
+            Map<String, String> parameters;
+
+            try {
+                parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                return error(STATUS_BAD_REQUEST, MALFORMED_URL_ERROR_MESSAGE);
+            }
+
+            return agreement(parameters, false);
+        });
+    }
+
+    private void handleToolLookup(HttpExchange exchange) throws IOException {
+        handle(exchange, "GET", () -> {
+            String toolCode;
+
+            try {
+                toolCode = URLDecoder.decode(
+                        exchange.getRequestURI().getRawPath().substring(CATALOG_TOOLS_PATH.length()),
+                        StandardCharsets.UTF_8
+                );
+            } catch (IllegalArgumentException e) {
+                return error(STATUS_BAD_REQUEST, MALFORMED_URL_ERROR_MESSAGE);
+            }
+
+            CatalogSnapshot snapshot = store.getCatalog().snapshot();
+            Tool tool = snapshot.getTool(toolCode);
+
+            if (tool == null) {
+                return error(STATUS_NOT_FOUND, TOOL_NOT_FOUND_ERROR_MESSAGE);
+            }
+
+            StringBuilder body = new StringBuilder(192);
+            AgreementJson.appendTool(body, tool, snapshot.getCatalogItem(tool.getType()));
+
+            return new Response(STATUS_OK, body);
+        });
+    }
+
+    /**
+     * Check out or quote the rental described by the request fields
+     * @param fields the request fields
+     * @param checkout whether to check the tool out rather than quote it
+     * @return the response carrying the agreement or the rejection
+     */
+    private Response agreement(Map<String, String> fields, boolean checkout) {
+        String toolCode = fields.get("toolCode");
+        String date = fields.get("date");
+        int days;
+        int discount;
+
+        try {
+            days = Integer.parseInt(fields.get("days"));
+            discount = Integer.parseInt(fields.get("discount"));
+        } catch (NumberFormatException e) {
+            return error(STATUS_BAD_REQUEST, MALFORMED_REQUEST_ERROR_MESSAGE);
+        }
+
+        if (toolCode == null || date == null) {
+            return error(STATUS_BAD_REQUEST, MALFORMED_REQUEST_ERROR_MESSAGE);
+        }
+
+        RentalAgreement agreement;
+
+        if (checkout) {
+            CheckoutResult result = store.tryCheckout(new CheckoutRequest(toolCode, days, discount, date));
+
+            if (!result.isSuccess()) {
+                switch (result.getError()) {
+                    case TOOL_UNAVAILABLE:
+                        return error(STATUS_CONFLICT, result.getErrorMessage());
+                    default:
+                        return error(STATUS_BAD_REQUEST, result.getErrorMessage());
+                }
+            }
+
+            agreement = result.getRentalAgreement();
+        } else {
+            try {
+                agreement = store.quote(toolCode, days, discount, date);
+            } catch (IllegalArgumentException e) {
+                // a quote reserves nothing, so it only fails on invalid input
+                return error(STATUS_BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        StringBuilder body = new StringBuilder(384);
+        AgreementJson.appendAgreement(body, agreement);
+
+        return new Response(STATUS_OK, body);
+    }
+
+    /**
+     * Run a handler for one allowed method and write its response, closing the exchange
+     * @param exchange the exchange to serve
+     * @param method the only HTTP method the endpoint accepts
+     * @param handler the handler producing the response
+     * @throws IOException if the response cannot be written
+     */
+    private static void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try {
+            Response response;
+
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                response = error(STATUS_METHOD_NOT_ALLOWED, "Only " + method + " is allowed.");
+            } else {
+                try {
+                    response = handler.handle();
+                } catch (RuntimeException e) {
+                    response = error(STATUS_INTERNAL_ERROR, INTERNAL_ERROR_MESSAGE);
+                }
+            }
+
+            byte[] bytes = response.body.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, bytes.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder body = new StringBuilder(96).append("{\"error\":");
+        FlatJson.appendString(body, message);
+
+        return new Response(status, body.append('}'));
+    }
+
+    /**
+     * Parse a raw URL query into its decoded parameters, the last value winning for a repeated name
+     * @param rawQuery the raw query, null for none
+     * @return the parameters
+     * @throws IllegalArgumentException if a name or value is not correctly percent-encoded
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+
+            if (separator > 0) {
+                parameters.put(
+                        URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Interface of an endpoint handler producing a response for an accepted exchange
+     */
+    private interface Handler {
+        Response handle() throws IOException;
+    }
+
+    /**
+     * Class representing a response status and JSON body
+     */
+    private static final class Response {
+
+        final int status;
+        final StringBuilder body;
+
+        Response(int status, StringBuilder body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mspigl.mp0421.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class creating a thread-per-task executor on virtual threads when the running JVM
+ * supports them (Java 21+). The project still compiles for Java 11, so the executor is looked up
+ * reflectively, and older JVMs get an unbounded cached pool of daemon platform threads instead
+ */
+final class VirtualThreads {
+
+    private static final AtomicLong PLATFORM_THREAD_COUNT = new AtomicLong();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Create an executor starting one new thread per task
+     * @return the executor, backed by virtual threads when available
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "checkout-service-" + PLATFORM_THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Determine if the running JVM supports virtual threads
+     * @return whether virtual threads are available
+     */
+    static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mspigl.mp0421.store;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Class representing a non-blocking front of a store. Checkouts run on an executor and complete
+ * a future, and an admission limit bounds how many are in flight at once: a checkout beyond the
+ * limit is rejected immediately instead of queueing, so callers on an event loop never block
+ */
+public class AsyncStore {
+
+    static final String ADMISSION_LIMIT_ERROR_MESSAGE = "Too many checkouts are in flight, try again later.";
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    private final Store store;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Semaphore admissions;
+
+    /**
+     * Construct an AsyncStore instance running checkouts on the common fork-join pool
+     * @param store the store to check out from (must not be null)
+     */
+    public AsyncStore(Store store) {
+        this(store, ForkJoinPool.commonPool(), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Construct an AsyncStore instance
+     * @param store the store to check out from (must not be null)
+     * @param executor the executor to run checkouts on (must not be null)
+     * @param maxInFlight the maximum number of checkouts in flight at once (must be greater than 0)
+     */
+    public AsyncStore(Store store, Executor executor, int maxInFlight) {
+        if (store == null || executor == null || maxInFlight < 1) {
+            throw new IllegalArgumentException("An async store needs a store, an executor and a positive in-flight limit");
+        }
+
+        this.store = store;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.admissions = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Check a tool out on the executor
+     * @param toolCode the code of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a future of the rental agreement. It completes exceptionally with an
+     * IllegalArgumentException if the checkout is rejected by the store, or with a
+     * RejectedExecutionException if the admission limit is reached
+     */
+    public CompletableFuture<RentalAgreement> checkoutAsync(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        return checkoutAsync(toolCode, rentalDayCount, discountPercent, checkoutDate, CompletableFuture::completedFuture);
+    }
+
+    /**
+     * Check a tool out on the executor and pass the agreement through a follow-up stage, such
+     * as a payment or an external inventory system. The checkout holds its admission until the
+     * stage completes, and if the stage fails the rental is cancelled so its unit is released
+     * @param toolCode the code of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param stage the follow-up stage receiving the agreement (must not be null)
+     * @param <T> the result type of the follow-up stage
+     * @return a future of the follow-up stage result, completing exceptionally if the
+     * checkout is rejected, not admitted or the stage fails
+     */
+    public <T> CompletableFuture<T> checkoutAsync(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            Function<? super RentalAgreement, ? extends CompletionStage<T>> stage
+    ) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Cannot compose a checkout with a null stage");
+        }
+
+        if (!admissions.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(ADMISSION_LIMIT_ERROR_MESSAGE));
+        }
+
+        CompletableFuture<RentalAgreement> checkout;
+
+        try {
+            checkout = CompletableFuture.supplyAsync(
+                    () -> store.checkout(toolCode, rentalDayCount, discountPercent, checkoutDate),
+                    executor
+            );
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> result = checkout.thenCompose(agreement -> {
+            CompletionStage<T> next;
+
+            try {
+                next = stage.apply(agreement);
+            } catch (RuntimeException e) {
+                store.cancel(agreement);
+
+                throw e;
+            }
+
+            return next.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    store.cancel(agreement);
+                }
+            });
+        });
+
+        result.whenComplete((value, failure) -> admissions.release());
+
+        return result;
+    }
+
+    /**
+     * Get the number of checkouts currently in flight
+     * @return the number of admitted checkouts that have not completed
+     */
+    public int getInFlightCount() {
+        return maxInFlight - admissions.availablePermits();
+    }
+}
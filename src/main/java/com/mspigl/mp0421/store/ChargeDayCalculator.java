@@ -0,0 +1,83 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+
+/**
+ * Class counting the chargeable days of a rental period without walking it one day at a time.
+ * Weekend days are counted with whole-week arithmetic and holidays are counted by the holiday
+ * calendar, so the cost of a count does not grow with the rental length
+ */
+final class ChargeDayCalculator {
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int WEEKEND_DAYS_PER_WEEK = 2;
+
+    private ChargeDayCalculator() {
+    }
+
+    /**
+     * Count the chargeable days of a rental. The rental period starts the day after checkout
+     * and spans the input number of days
+     * @param holidayCalendar the calendar deciding which days are holidays
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param chargeMask the chargeability mask of the tool, see CatalogItem.getChargeMask
+     * @return the number of chargeable days in the rental period
+     */
+    static int countChargeDays(
+            HolidayCalendar holidayCalendar,
+            long checkoutEpochDay,
+            int rentalDayCount,
+            int chargeMask
+    ) {
+        if (rentalDayCount < 1) {
+            return 0;
+        }
+
+        long firstDay = checkoutEpochDay + 1;
+        long lastDay = checkoutEpochDay + rentalDayCount;
+
+        int weekendDays = countWeekendDays(firstDay, rentalDayCount);
+        int weekdays = rentalDayCount - weekendDays;
+        int holidays = holidayCalendar.countHolidays(firstDay, lastDay);
+        int weekendHolidays = holidays == 0 ? 0 : holidayCalendar.countWeekendHolidays(firstDay, lastDay);
+        int weekdayHolidays = holidays - weekendHolidays;
+
+        int chargeDays = 0;
+
+        if ((chargeMask & CatalogItem.WEEKDAY_CHARGEABLE) != 0) {
+            chargeDays += weekdays - weekdayHolidays;
+        }
+
+        if ((chargeMask & CatalogItem.WEEKEND_CHARGEABLE) != 0) {
+            chargeDays += weekendDays - weekendHolidays;
+        }
+
+        if ((chargeMask & CatalogItem.HOLIDAY_CHARGEABLE) != 0) {
+            chargeDays += holidays;
+        }
+
+        return chargeDays;
+    }
+
+    /**
+     * Count the weekend days in a run of consecutive days
+     * @param firstEpochDay the first day of the run as an epoch day
+     * @param dayCount the number of days in the run
+     * @return the number of Saturdays and Sundays in the run
+     */
+    static int countWeekendDays(long firstEpochDay, int dayCount) {
+        int weekendDays = (dayCount / DAYS_PER_WEEK) * WEEKEND_DAYS_PER_WEEK;
+        int firstDayOfWeek = EpochDays.dayOfWeekIndex(firstEpochDay);
+
+        for (int i = 0; i < dayCount % DAYS_PER_WEEK; i++) {
+            if ((firstDayOfWeek + i) % DAYS_PER_WEEK >= 5) {
+                weekendDays++;
+            }
+        }
+
+        return weekendDays;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+
+/**
+ * Utility class parsing and formatting rental agreement dates without regular expressions,
+ * formatters or intermediate date objects
+ */
+final class CheckoutDates {
+
+    /**
+     * Value returned by parse when the input is not a valid checkout date
+     */
+    static final long INVALID_DATE = Long.MIN_VALUE;
+
+    /**
+     * Two digit years are read as years of this century
+     */
+    private static final int CENTURY = 2000;
+
+    private CheckoutDates() {
+    }
+
+    /**
+     * Parse a checkout date in m/d/yy format (leading zero optional for month and day) into an
+     * epoch day. A day of the month past the end of the month is adjusted to the last day of the
+     * month, as with java.time's smart resolution
+     * @param date the date to parse
+     * @return the date as an epoch day, INVALID_DATE if the date is malformed or invalid
+     */
+    static long parse(String date) {
+        if (date == null) {
+            return INVALID_DATE;
+        }
+
+        int length = date.length();
+        int position = 0;
+        int month = 0;
+        int dayOfMonth = 0;
+        int digits;
+
+        for (digits = 0; position < length && digits < 3 && isDigit(date.charAt(position)); digits++) {
+            month = month * 10 + date.charAt(position++) - '0';
+        }
+
+        if (digits < 1 || digits > 2 || position >= length || date.charAt(position++) != '/') {
+            return INVALID_DATE;
+        }
+
+        for (digits = 0; position < length && digits < 3 && isDigit(date.charAt(position)); digits++) {
+            dayOfMonth = dayOfMonth * 10 + date.charAt(position++) - '0';
+        }
+
+        if (digits < 1 || digits > 2 || position >= length || date.charAt(position++) != '/') {
+            return INVALID_DATE;
+        }
+
+        if (length - position != 2 || !isDigit(date.charAt(position)) || !isDigit(date.charAt(position + 1))) {
+            return INVALID_DATE;
+        }
+
+        int year = CENTURY + (date.charAt(position) - '0') * 10 + date.charAt(position + 1) - '0';
+
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            return INVALID_DATE;
+        }
+
+        return EpochDays.of(year, month, Math.min(dayOfMonth, EpochDays.lengthOfMonth(year, month)));
+    }
+
+    /**
+     * Format an epoch day as mm/dd/yy
+     * @param epochDay the day to format
+     * @return the formatted date
+     */
+    static String format(long epochDay) {
+        int month = EpochDays.month(epochDay);
+        int dayOfMonth = EpochDays.dayOfMonth(epochDay);
+        int yearOfCentury = Math.floorMod(EpochDays.year(epochDay), 100);
+
+        char[] chars = {
+                (char) ('0' + month / 10),
+                (char) ('0' + month % 10),
+                '/',
+                (char) ('0' + dayOfMonth / 10),
+                (char) ('0' + dayOfMonth % 10),
+                '/',
+                (char) ('0' + yearOfCentury / 10),
+                (char) ('0' + yearOfCentury % 10)
+        };
+
+        return new String(chars);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,66 @@
+package com.mspigl.mp0421.store;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enum of the reasons a checkout is rejected
+ */
+public enum CheckoutError {
+
+    TOOL_NOT_IN_CATALOG(Store.TOOL_NOT_IN_CATALOG_ERROR_MESSAGE),
+    INVALID_RENTAL_DAY_COUNT(Store.INVALID_RENTAL_DAY_COUNT_ERROR_MESSAGE),
+    INVALID_DISCOUNT(Store.INVALID_DISCOUNT_ERROR_MESSAGE),
+    INVALID_CHECKOUT_DATE(Store.INVALID_CHECKOUT_DATE_ERROR_MESSAGE),
+    TOOL_UNAVAILABLE(Store.TOOL_UNAVAILABLE_ERROR_MESSAGE);
+
+    private static final CheckoutError[] VALUES = values();
+
+    private final String message;
+
+    CheckoutError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Get the human readable message of the error
+     * @return the error message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Get the bit of the error in an error mask
+     * @return the error bit
+     */
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the error of the lowest bit set in an error mask, in declaration order
+     * @param errorMask the error mask (must not be 0)
+     * @return the first error of the mask
+     */
+    static CheckoutError first(int errorMask) {
+        return VALUES[Integer.numberOfTrailingZeros(errorMask)];
+    }
+
+    /**
+     * Get the errors of an error mask
+     * @param errorMask the error mask
+     * @return the errors set in the mask
+     */
+    static Set<CheckoutError> fromMask(int errorMask) {
+        Set<CheckoutError> errors = EnumSet.noneOf(CheckoutError.class);
+
+        for (CheckoutError error : VALUES) {
+            if ((errorMask & error.bit()) != 0) {
+                errors.add(error);
+            }
+        }
+
+        return errors;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mspigl.mp0421.store;
+
+/**
+ * Class representing the input of a single checkout
+ */
+public class CheckoutRequest {
+
+    private final String toolCode;
+    private final int rentalDayCount;
+    private final int discountPercent;
+    private final String checkoutDate;
+
+    /**
+     * Construct a CheckoutRequest instance
+     * @param toolCode the code of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy)
+     */
+    public CheckoutRequest(String toolCode, int rentalDayCount, int discountPercent, String checkoutDate) {
+        this.toolCode = toolCode;
+        this.rentalDayCount = rentalDayCount;
+        this.discountPercent = discountPercent;
+        this.checkoutDate = checkoutDate;
+    }
+
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    public int getRentalDayCount() {
+        return rentalDayCount;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public String getCheckoutDate() {
+        return checkoutDate;
+    }
+}
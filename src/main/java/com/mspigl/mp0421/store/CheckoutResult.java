@@ -0,0 +1,115 @@
+package com.mspigl.mp0421.store;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Class representing the outcome of a single checkout, holding either the generated
+ * rental agreement or every reason the request was rejected
+ */
+public class CheckoutResult {
+
+    private static final String ERROR_MESSAGE_SEPARATOR = "; ";
+
+    private final CheckoutRequest request;
+    private final RentalAgreement rentalAgreement;
+    private final int errorMask;
+
+    private CheckoutResult(CheckoutRequest request, RentalAgreement rentalAgreement, int errorMask) {
+        this.request = request;
+        this.rentalAgreement = rentalAgreement;
+        this.errorMask = errorMask;
+    }
+
+    /**
+     * Create a successful result
+     * @param request the request that was checked out
+     * @param rentalAgreement the generated rental agreement
+     * @return the result
+     */
+    static CheckoutResult success(CheckoutRequest request, RentalAgreement rentalAgreement) {
+        return new CheckoutResult(request, rentalAgreement, 0);
+    }
+
+    /**
+     * Create a rejected result
+     * @param request the request that was rejected
+     * @param errorMask the bits of every reason the request was rejected, see CheckoutError.bit
+     * @return the result
+     */
+    static CheckoutResult failure(CheckoutRequest request, int errorMask) {
+        return new CheckoutResult(request, null, errorMask);
+    }
+
+    /**
+     * Determine if the checkout produced a rental agreement
+     * @return whether the checkout succeeded
+     */
+    public boolean isSuccess() {
+        return rentalAgreement != null;
+    }
+
+    /**
+     * Get the request that was checked out
+     * @return the request, null for a result of a checkout made without a request object
+     */
+    public CheckoutRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the generated rental agreement
+     * @return the rental agreement, null if the request was rejected
+     */
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    /**
+     * Get the first reason the request was rejected, in CheckoutError declaration order. This is
+     * the error a throwing checkout reports
+     * @return the first error, null if the checkout succeeded
+     */
+    public CheckoutError getError() {
+        return errorMask == 0 ? null : CheckoutError.first(errorMask);
+    }
+
+    /**
+     * Get every reason the request was rejected
+     * @return the errors, empty if the checkout succeeded
+     */
+    public Set<CheckoutError> getErrors() {
+        return Collections.unmodifiableSet(CheckoutError.fromMask(errorMask));
+    }
+
+    /**
+     * Determine if the request was rejected for a reason
+     * @param error the reason to test
+     * @return whether the error is one of the reasons the request was rejected
+     */
+    public boolean hasError(CheckoutError error) {
+        return (errorMask & error.bit()) != 0;
+    }
+
+    /**
+     * Get the reasons the request was rejected as text
+     * @return the Store error message of every error, separated by "; ", null if the checkout succeeded
+     */
+    public String getErrorMessage() {
+        if (errorMask == 0) {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (CheckoutError error : CheckoutError.fromMask(errorMask)) {
+            if (builder.length() > 0) {
+                builder.append(ERROR_MESSAGE_SEPARATOR);
+            }
+
+            builder.append(error.getMessage());
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,367 @@
+package com.mspigl.mp0421.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Class representing rental agreements appended column by column into primitive arrays: tool
+ * type ID, checkout epoch day, rental days, charge days, discount percent and charges in cents.
+ * Charges are rounded once on append, so aggregations are tight loops over arrays that never
+ * touch an agreement object, and can be split across the common fork-join pool
+ *
+ * Appends are serialized, and queries run concurrently with them without locking: a query sees
+ * every agreement appended before it started, and possibly some appended while it runs
+ */
+public final class ColumnarAgreementStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+
+    private final Map<String, Integer> typeIds = new HashMap<>();
+
+    // columns is published before the size covering its new rows, so readers load size first
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY, new String[0]);
+    private volatile int size;
+
+    /**
+     * Append an agreement
+     * @param rentalAgreement the agreement to append (must not be null, with a tool type)
+     */
+    public synchronized void append(RentalAgreement rentalAgreement) {
+        if (rentalAgreement == null) {
+            throw new IllegalArgumentException("Cannot append a null rental agreement");
+        }
+
+        if (rentalAgreement.getToolType() == null) {
+            throw new IllegalArgumentException("Cannot append a rental agreement without a tool type");
+        }
+
+        int row = size;
+        Columns target = columns;
+
+        if (row == target.capacity()) {
+            target = target.grow(row * 2);
+        }
+
+        Integer typeId = typeIds.get(rentalAgreement.getToolType());
+
+        if (typeId == null) {
+            typeId = target.typeNames.length;
+            typeIds.put(rentalAgreement.getToolType(), typeId);
+            target = target.withTypeName(rentalAgreement.getToolType());
+        }
+
+        long preDiscountChargeCents = rentalAgreement.getPreDiscountChargeCents();
+
+        target.typeIds[row] = typeId;
+        target.checkoutEpochDays[row] = checkoutEpochDayOf(rentalAgreement);
+        target.rentalDays[row] = rentalAgreement.getRentalDays();
+        target.chargeDays[row] = rentalAgreement.getChargeDays();
+        target.discountPercents[row] = (byte) rentalAgreement.getDiscountPercent();
+        target.preDiscountChargeCents[row] = preDiscountChargeCents;
+        target.finalChargeCents[row] = rentalAgreement.getFinalChargeCents();
+
+        columns = target;
+        size = row + 1;
+    }
+
+    /**
+     * Append every agreement of a sequence
+     * @param rentalAgreements the agreements to append (must not be null, each with a tool type)
+     */
+    public synchronized void appendAll(Iterable<RentalAgreement> rentalAgreements) {
+        if (rentalAgreements == null) {
+            throw new IllegalArgumentException("Cannot append null rental agreements");
+        }
+
+        for (RentalAgreement rentalAgreement : rentalAgreements) {
+            append(rentalAgreement);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sum the final charges of every agreement
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the revenue in cents
+     */
+    public long totalRevenueCents(boolean parallel) {
+        int rows = size;
+        long[] finalChargeCents = columns.finalChargeCents;
+
+        return aggregate(rows, 1, parallel, (from, to, sums) -> {
+            long sum = 0;
+
+            for (int i = from; i < to; i++) {
+                sum += finalChargeCents[i];
+            }
+
+            sums[0] += sum;
+        })[0];
+    }
+
+    /**
+     * Sum the final charges of the agreements of every tool type
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the revenue in cents by tool type, sorted by tool type
+     */
+    public Map<String, Long> revenueByToolType(boolean parallel) {
+        int rows = size;
+        Columns source = columns;
+        int[] typeIds = source.typeIds;
+        long[] finalChargeCents = source.finalChargeCents;
+
+        long[] sums = aggregate(rows, source.typeNames.length, parallel, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                partial[typeIds[i]] += finalChargeCents[i];
+            }
+        });
+
+        Map<String, Long> revenue = new TreeMap<>();
+
+        for (int typeId = 0; typeId < sums.length; typeId++) {
+            revenue.put(source.typeNames[typeId], sums[typeId]);
+        }
+
+        return revenue;
+    }
+
+    /**
+     * Sum the final charges of the agreements checked out on every day of a window
+     * @param firstCheckoutDate the first checkout date of the window (must not be null)
+     * @param dayCount the number of days in the window (must not be negative)
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the revenue in cents by day, index 0 holding the first checkout date
+     */
+    public long[] revenueByDay(LocalDate firstCheckoutDate, int dayCount, boolean parallel) {
+        if (firstCheckoutDate == null || dayCount < 0) {
+            throw new IllegalArgumentException("A daily revenue window needs a first date and a day count that is not negative");
+        }
+
+        int rows = size;
+        Columns source = columns;
+        long[] checkoutEpochDays = source.checkoutEpochDays;
+        long[] finalChargeCents = source.finalChargeCents;
+        long firstEpochDay = firstCheckoutDate.toEpochDay();
+
+        return aggregate(rows, dayCount, parallel, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                long day = checkoutEpochDays[i] - firstEpochDay;
+
+                if (day >= 0 && day < dayCount) {
+                    partial[(int) day] += finalChargeCents[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * Sum the final charges of the agreements in every discount bucket. Bucket i holds the
+     * discounts from i * bucketWidth through (i + 1) * bucketWidth - 1 percent
+     * @param bucketWidth the number of discount percents per bucket (must be in the range 1 - 101)
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the revenue in cents by discount bucket
+     */
+    public long[] revenueByDiscountBucket(int bucketWidth, boolean parallel) {
+        if (bucketWidth < 1 || bucketWidth > 101) {
+            throw new IllegalArgumentException("A discount bucket must span 1 - 101 percents");
+        }
+
+        int rows = size;
+        Columns source = columns;
+        byte[] discountPercents = source.discountPercents;
+        long[] finalChargeCents = source.finalChargeCents;
+
+        return aggregate(rows, 100 / bucketWidth + 1, parallel, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                partial[discountPercents[i] / bucketWidth] += finalChargeCents[i];
+            }
+        });
+    }
+
+    /**
+     * Sum the discounts given on the agreements of every tool type, the difference between the
+     * pre-discount and final charges
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the discount in cents by tool type, sorted by tool type
+     */
+    public Map<String, Long> discountByToolType(boolean parallel) {
+        int rows = size;
+        Columns source = columns;
+        int[] typeIds = source.typeIds;
+        long[] preDiscountChargeCents = source.preDiscountChargeCents;
+        long[] finalChargeCents = source.finalChargeCents;
+
+        long[] sums = aggregate(rows, source.typeNames.length, parallel, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                partial[typeIds[i]] += preDiscountChargeCents[i] - finalChargeCents[i];
+            }
+        });
+
+        Map<String, Long> discounts = new TreeMap<>();
+
+        for (int typeId = 0; typeId < sums.length; typeId++) {
+            discounts.put(source.typeNames[typeId], sums[typeId]);
+        }
+
+        return discounts;
+    }
+
+    /**
+     * Sum the charge days of every agreement
+     * @param parallel whether to split the scan across the common fork-join pool
+     * @return the number of charge days
+     */
+    public long totalChargeDays(boolean parallel) {
+        int rows = size;
+        int[] chargeDays = columns.chargeDays;
+
+        return aggregate(rows, 1, parallel, (from, to, sums) -> {
+            long sum = 0;
+
+            for (int i = from; i < to; i++) {
+                sum += chargeDays[i];
+            }
+
+            sums[0] += sum;
+        })[0];
+    }
+
+    /**
+     * Run a scan over the first rows, serially or in chunks on the common fork-join pool
+     * @param rows the number of rows to scan
+     * @param width the number of sums the scan produces
+     * @param parallel whether to split the scan into chunks
+     * @param scan the scan adding a range of rows into an array of sums
+     * @return the sums
+     */
+    private static long[] aggregate(int rows, int width, boolean parallel, RangeScan scan) {
+        if (!parallel || rows <= PARALLEL_CHUNK_SIZE) {
+            long[] sums = new long[width];
+            scan.scan(0, rows, sums);
+
+            return sums;
+        }
+
+        int chunks = (rows + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] sums = new long[width];
+                    int from = chunk * PARALLEL_CHUNK_SIZE;
+
+                    scan.scan(from, Math.min(rows, from + PARALLEL_CHUNK_SIZE), sums);
+
+                    return sums;
+                })
+                .reduce((left, right) -> {
+                    for (int i = 0; i < width; i++) {
+                        left[i] += right[i];
+                    }
+
+                    return left;
+                })
+                .orElseGet(() -> new long[width]);
+    }
+
+    private static long checkoutEpochDayOf(RentalAgreement rentalAgreement) {
+        return rentalAgreement.getChargeMask() != RentalAgreement.NO_CHARGE_STATE
+                ? rentalAgreement.getCheckoutEpochDay()
+                : CheckoutDates.parse(rentalAgreement.getCheckoutDate());
+    }
+
+    /**
+     * Interface of a scan adding the rows of a range into an array of sums
+     */
+    private interface RangeScan {
+        void scan(int from, int to, long[] sums);
+    }
+
+    /**
+     * Class representing the column arrays and the tool type names indexed by tool type ID
+     */
+    private static final class Columns {
+
+        final int[] typeIds;
+        final long[] checkoutEpochDays;
+        final int[] rentalDays;
+        final int[] chargeDays;
+        final byte[] discountPercents;
+        final long[] preDiscountChargeCents;
+        final long[] finalChargeCents;
+        final String[] typeNames;
+
+        Columns(int capacity, String[] typeNames) {
+            this(
+                    new int[capacity],
+                    new long[capacity],
+                    new int[capacity],
+                    new int[capacity],
+                    new byte[capacity],
+                    new long[capacity],
+                    new long[capacity],
+                    typeNames
+            );
+        }
+
+        private Columns(
+                int[] typeIds,
+                long[] checkoutEpochDays,
+                int[] rentalDays,
+                int[] chargeDays,
+                byte[] discountPercents,
+                long[] preDiscountChargeCents,
+                long[] finalChargeCents,
+                String[] typeNames
+        ) {
+            this.typeIds = typeIds;
+            this.checkoutEpochDays = checkoutEpochDays;
+            this.rentalDays = rentalDays;
+            this.chargeDays = chargeDays;
+            this.discountPercents = discountPercents;
+            this.preDiscountChargeCents = preDiscountChargeCents;
+            this.finalChargeCents = finalChargeCents;
+            this.typeNames = typeNames;
+        }
+
+        int capacity() {
+            return typeIds.length;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(
+                    Arrays.copyOf(typeIds, capacity),
+                    Arrays.copyOf(checkoutEpochDays, capacity),
+                    Arrays.copyOf(rentalDays, capacity),
+                    Arrays.copyOf(chargeDays, capacity),
+                    Arrays.copyOf(discountPercents, capacity),
+                    Arrays.copyOf(preDiscountChargeCents, capacity),
+                    Arrays.copyOf(finalChargeCents, capacity),
+                    typeNames
+            );
+        }
+
+        Columns withTypeName(String typeName) {
+            String[] names = Arrays.copyOf(typeNames, typeNames.length + 1);
+            names[typeNames.length] = typeName;
+
+            return new Columns(
+                    typeIds,
+                    checkoutEpochDays,
+                    rentalDays,
+                    chargeDays,
+                    discountPercents,
+                    preDiscountChargeCents,
+                    finalChargeCents,
+                    names
+            );
+        }
+    }
+}
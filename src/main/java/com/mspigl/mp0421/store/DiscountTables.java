@@ -0,0 +1,88 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.discount.DiscountTable;
+
+/**
+ * Class representing the installed discount table of a store with the same rules recently
+ * compiled against other catalog indexes, e.g. the index a PreparedCheckout was made with before
+ * a catalog update. Instances are immutable and replaced as a whole, and installing other rules
+ * drops every compiled table, so a cached table always holds the installed rules
+ */
+final class DiscountTables {
+
+    /**
+     * The largest number of tables compiled for other indexes that are kept
+     */
+    static final int MAX_RECENT = 4;
+
+    static final DiscountTables NONE = new DiscountTables(DiscountTable.NONE, new DiscountTable[0]);
+
+    private final DiscountTable installed;
+    private final DiscountTable[] recent;
+
+    private DiscountTables(DiscountTable installed, DiscountTable[] recent) {
+        this.installed = installed;
+        this.recent = recent;
+    }
+
+    /**
+     * Create the tables holding new rules, with no table compiled for another index
+     * @param installed the rules to install
+     * @return the new tables
+     */
+    static DiscountTables of(DiscountTable installed) {
+        return new DiscountTables(installed, new DiscountTable[0]);
+    }
+
+    DiscountTable getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Find the table compiled for a catalog index
+     * @param catalogIndex the catalog index the tool type IDs are read from
+     * @return the installed or recently compiled table matching the index, null if there is none
+     */
+    DiscountTable find(CatalogIndex catalogIndex) {
+        if (installed.isCompiledFor(catalogIndex)) {
+            return installed;
+        }
+
+        for (DiscountTable table : recent) {
+            if (table.isCompiledFor(catalogIndex)) {
+                return table;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Install a table compiled for the current catalog index, keeping the replaced one for the
+     * handles still reading its index
+     * @param compiled the installed rules compiled for the current index
+     * @return the new tables
+     */
+    DiscountTables install(DiscountTable compiled) {
+        return new DiscountTables(compiled, push(installed));
+    }
+
+    /**
+     * Keep a table compiled for an older catalog index, evicting the oldest one past MAX_RECENT
+     * @param compiled the installed rules compiled for an older index
+     * @return the new tables
+     */
+    DiscountTables remember(DiscountTable compiled) {
+        return new DiscountTables(installed, push(compiled));
+    }
+
+    private DiscountTable[] push(DiscountTable table) {
+        DiscountTable[] tables = new DiscountTable[Math.min(recent.length + 1, MAX_RECENT)];
+
+        tables[0] = table;
+        System.arraycopy(recent, 0, tables, 1, tables.length - 1);
+
+        return tables;
+    }
+}
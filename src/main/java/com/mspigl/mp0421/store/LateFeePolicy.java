@@ -0,0 +1,75 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.money.Money;
+
+/**
+ * Class representing the fee charged for returning a tool after its due date. Days within the
+ * grace period are free. Past it, the fee is a flat amount plus a percentage of the daily charge
+ * for every chargeable late day, capped at a maximum
+ */
+public final class LateFeePolicy {
+
+    /**
+     * A policy charging no late fee
+     */
+    public static final LateFeePolicy NONE = new LateFeePolicy(0, 0, 0, 0);
+
+    /**
+     * A policy charging the daily charge for every chargeable late day, as if the rental had been
+     * extended
+     */
+    public static final LateFeePolicy DAILY_RATE = new LateFeePolicy(0, 100, 0, Long.MAX_VALUE);
+
+    private final int graceDays;
+    private final int dailyRatePercent;
+    private final long flatFeeCents;
+    private final long maxFeeCents;
+
+    /**
+     * Construct a LateFeePolicy instance
+     * @param graceDays the number of late days charged nothing (must not be negative)
+     * @param dailyRatePercent the percentage of the daily charge due per chargeable late day,
+     * e.g. 150 for a 50% penalty (must not be negative)
+     * @param flatFeeCents the fee in cents charged once for any return past the grace period
+     * (must not be negative)
+     * @param maxFeeCents the largest late fee in cents (must not be negative)
+     */
+    public LateFeePolicy(int graceDays, int dailyRatePercent, long flatFeeCents, long maxFeeCents) {
+        if (graceDays < 0 || dailyRatePercent < 0 || flatFeeCents < 0 || maxFeeCents < 0) {
+            throw new IllegalArgumentException("A late fee policy cannot have a negative grace period, rate or fee");
+        }
+
+        this.graceDays = graceDays;
+        this.dailyRatePercent = dailyRatePercent;
+        this.flatFeeCents = flatFeeCents;
+        this.maxFeeCents = maxFeeCents;
+    }
+
+    /**
+     * Compute the fee of a return past the grace period
+     * @param dailyChargeCents the daily charge of the rental in cents
+     * @param lateChargeDays the number of chargeable late days past the grace period
+     * @return the late fee in cents
+     */
+    long feeCents(long dailyChargeCents, int lateChargeDays) {
+        long rateCents = Money.percentOf(Money.multiply(dailyChargeCents, lateChargeDays), dailyRatePercent);
+
+        return Math.min(maxFeeCents, flatFeeCents + rateCents);
+    }
+
+    public int getGraceDays() {
+        return graceDays;
+    }
+
+    public int getDailyRatePercent() {
+        return dailyRatePercent;
+    }
+
+    public long getFlatFeeCents() {
+        return flatFeeCents;
+    }
+
+    public long getMaxFeeCents() {
+        return maxFeeCents;
+    }
+}
@@ -0,0 +1,158 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.money.Money;
+import com.mspigl.mp0421.tool.Tool;
+
+/**
+ * Class representing a tool resolved once against the store catalog, with its pricing and
+ * chargeability, for repeated quotes and checkouts that skip every catalog lookup. A handle is
+ * immutable and safe to share between threads. It keeps the pricing it was prepared with, see
+ * Store.prepare
+ */
+public final class PreparedCheckout {
+
+    private final Store store;
+    private final CatalogIndex catalogIndex;
+    private final Tool tool;
+    private final int typeId;
+    private final int chargeMask;
+    private final long dailyChargeCents;
+
+    PreparedCheckout(
+            Store store,
+            CatalogIndex catalogIndex,
+            Tool tool,
+            int typeId,
+            int chargeMask,
+            long dailyChargeCents
+    ) {
+        this.store = store;
+        this.catalogIndex = catalogIndex;
+        this.tool = tool;
+        this.typeId = typeId;
+        this.chargeMask = chargeMask;
+        this.dailyChargeCents = dailyChargeCents;
+    }
+
+    /**
+     * Generate a rental agreement for the prepared tool, reserving a unit when the store has an
+     * inventory
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals
+     */
+    public RentalAgreement checkout(int rentalDayCount, int discountPercent, String checkoutDate) {
+        return checkout(rentalDayCount, discountPercent, checkoutDate, true);
+    }
+
+    /**
+     * Price a rental of the prepared tool without checking it out, see Store.quote
+     * @param rentalDayCount the number of days the tool would be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals and no reservation
+     */
+    public RentalAgreement quote(int rentalDayCount, int discountPercent, String checkoutDate) {
+        return checkout(rentalDayCount, discountPercent, checkoutDate, false);
+    }
+
+    /**
+     * Check out the prepared tool without throwing for a rejected request, see Store.tryCheckout
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return the result holding the agreement or every reason for the rejection
+     */
+    public CheckoutResult tryCheckout(int rentalDayCount, int discountPercent, String checkoutDate) {
+        return tryCheckout(rentalDayCount, discountPercent, checkoutDate, true);
+    }
+
+    /**
+     * Price a rental of the prepared tool down to its final charge only, creating no agreement
+     * @param rentalDayCount the number of days the tool would be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return the final charge in cents
+     * @throws IllegalArgumentException if an input is invalid
+     */
+    public long quoteFinalChargeCents(int rentalDayCount, int discountPercent, String checkoutDate) {
+        long checkoutEpochDay = CheckoutDates.parse(checkoutDate);
+
+        if (rentalDayCount < 1) {
+            throw new IllegalArgumentException(CheckoutError.INVALID_RENTAL_DAY_COUNT.getMessage());
+        }
+
+        if (discountPercent < 0 || discountPercent > 100) {
+            throw new IllegalArgumentException(CheckoutError.INVALID_DISCOUNT.getMessage());
+        }
+
+        if (checkoutEpochDay == CheckoutDates.INVALID_DATE) {
+            throw new IllegalArgumentException(CheckoutError.INVALID_CHECKOUT_DATE.getMessage());
+        }
+
+        long preDiscountChargeCents = Money.multiply(
+                dailyChargeCents,
+                store.countChargeDays(checkoutEpochDay, rentalDayCount, chargeMask)
+        );
+
+        int effectiveDiscountPercent = store.effectiveDiscountPercent(
+                catalogIndex,
+                typeId,
+                rentalDayCount,
+                discountPercent,
+                checkoutEpochDay,
+                0
+        );
+
+        return preDiscountChargeCents - Money.percentOf(preDiscountChargeCents, effectiveDiscountPercent);
+    }
+
+    public Tool getTool() {
+        return tool;
+    }
+
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    /**
+     * Get the chargeability mask of the tool type
+     * @return the chargeability mask, see CatalogItem.getChargeMask
+     */
+    public int getChargeMask() {
+        return chargeMask;
+    }
+
+    private CheckoutResult tryCheckout(int rentalDayCount, int discountPercent, String checkoutDate, boolean reserve) {
+        return store.tryCheckout(
+                catalogIndex,
+                tool,
+                typeId,
+                chargeMask,
+                dailyChargeCents,
+                null,
+                rentalDayCount,
+                discountPercent,
+                checkoutDate,
+                0,
+                reserve
+        );
+    }
+
+    private RentalAgreement checkout(int rentalDayCount, int discountPercent, String checkoutDate, boolean reserve) {
+        return store.checkout(
+                catalogIndex,
+                tool,
+                typeId,
+                chargeMask,
+                dailyChargeCents,
+                rentalDayCount,
+                discountPercent,
+                checkoutDate,
+                0,
+                reserve
+        );
+    }
+}
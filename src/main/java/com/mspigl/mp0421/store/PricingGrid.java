@@ -0,0 +1,190 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.money.Money;
+
+/**
+ * Class representing the quotes of one tool for every checkout date of a window and every rental
+ * length up to a maximum. The grid is filled from a prefix sum of the chargeable days of the
+ * window, so each cell costs one subtraction regardless of the rental length
+ */
+public final class PricingGrid {
+
+    /**
+     * The largest number of cells a single grid may hold
+     */
+    public static final int MAX_CELLS = 1 << 24;
+
+    private final String toolCode;
+    private final long firstCheckoutEpochDay;
+    private final int checkoutDayCount;
+    private final int maxRentalDays;
+    private final int discountPercent;
+    private final long dailyChargeCents;
+    private final int[] chargeDays;
+    private final long[] finalChargeCents;
+
+    /**
+     * Compute the grid of a tool
+     * @param holidayCalendar the calendar deciding which days are holidays
+     * @param toolCode the code of the quoted tool
+     * @param firstCheckoutEpochDay the first checkout date of the window as an epoch day
+     * @param checkoutDayCount the number of consecutive checkout dates in the window
+     * @param maxRentalDays the longest quoted rental length
+     * @param chargeMask the chargeability mask of the tool, see CatalogItem.getChargeMask
+     * @param dailyChargeCents the daily charge of the tool in cents
+     * @param discountPercent the discount percent applied to every quote
+     * @return the computed grid
+     */
+    static PricingGrid compute(
+            HolidayCalendar holidayCalendar,
+            String toolCode,
+            long firstCheckoutEpochDay,
+            int checkoutDayCount,
+            int maxRentalDays,
+            int chargeMask,
+            long dailyChargeCents,
+            int discountPercent
+    ) {
+        int windowDays = checkoutDayCount - 1 + maxRentalDays;
+
+        // chargeableBefore[i] is the number of chargeable days among the first i rental days of the window
+        int[] chargeableBefore = new int[windowDays + 1];
+        long day = firstCheckoutEpochDay + 1;
+        int dayOfWeek = EpochDays.dayOfWeekIndex(day);
+
+        for (int i = 0; i < windowDays; i++, day++, dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1) {
+            int dayKind;
+
+            if (holidayCalendar.isHoliday(day)) {
+                dayKind = CatalogItem.HOLIDAY_CHARGEABLE;
+            } else if (dayOfWeek >= 5) {
+                dayKind = CatalogItem.WEEKEND_CHARGEABLE;
+            } else {
+                dayKind = CatalogItem.WEEKDAY_CHARGEABLE;
+            }
+
+            chargeableBefore[i + 1] = chargeableBefore[i] + ((chargeMask & dayKind) != 0 ? 1 : 0);
+        }
+
+        int[] chargeDays = new int[checkoutDayCount * maxRentalDays];
+        long[] finalChargeCents = new long[chargeDays.length];
+        int cell = 0;
+
+        for (int start = 0; start < checkoutDayCount; start++) {
+            for (int rentalDays = 1; rentalDays <= maxRentalDays; rentalDays++, cell++) {
+                int count = chargeableBefore[start + rentalDays] - chargeableBefore[start];
+                long preDiscountChargeCents = Money.multiply(dailyChargeCents, count);
+
+                chargeDays[cell] = count;
+                finalChargeCents[cell] = preDiscountChargeCents - Money.percentOf(preDiscountChargeCents, discountPercent);
+            }
+        }
+
+        return new PricingGrid(
+                toolCode,
+                firstCheckoutEpochDay,
+                checkoutDayCount,
+                maxRentalDays,
+                discountPercent,
+                dailyChargeCents,
+                chargeDays,
+                finalChargeCents
+        );
+    }
+
+    private PricingGrid(
+            String toolCode,
+            long firstCheckoutEpochDay,
+            int checkoutDayCount,
+            int maxRentalDays,
+            int discountPercent,
+            long dailyChargeCents,
+            int[] chargeDays,
+            long[] finalChargeCents
+    ) {
+        this.toolCode = toolCode;
+        this.firstCheckoutEpochDay = firstCheckoutEpochDay;
+        this.checkoutDayCount = checkoutDayCount;
+        this.maxRentalDays = maxRentalDays;
+        this.discountPercent = discountPercent;
+        this.dailyChargeCents = dailyChargeCents;
+        this.chargeDays = chargeDays;
+        this.finalChargeCents = finalChargeCents;
+    }
+
+    /**
+     * Get the number of chargeable days of a quoted rental
+     * @param checkoutIndex the checkout date as an offset from the first checkout date of the window
+     * @param rentalDayCount the rental length, from 1 to getMaxRentalDays
+     * @return the number of chargeable days
+     */
+    public int getChargeDays(int checkoutIndex, int rentalDayCount) {
+        return chargeDays[cell(checkoutIndex, rentalDayCount)];
+    }
+
+    /**
+     * Get the final charge of a quoted rental in cents
+     * @param checkoutIndex the checkout date as an offset from the first checkout date of the window
+     * @param rentalDayCount the rental length, from 1 to getMaxRentalDays
+     * @return the final charge in cents
+     */
+    public long getFinalChargeCents(int checkoutIndex, int rentalDayCount) {
+        return finalChargeCents[cell(checkoutIndex, rentalDayCount)];
+    }
+
+    /**
+     * Get the final charge of a quoted rental
+     * @param checkoutIndex the checkout date as an offset from the first checkout date of the window
+     * @param rentalDayCount the rental length, from 1 to getMaxRentalDays
+     * @return the final charge
+     */
+    public double getFinalCharge(int checkoutIndex, int rentalDayCount) {
+        return Money.toAmount(getFinalChargeCents(checkoutIndex, rentalDayCount));
+    }
+
+    /**
+     * Get a checkout date of the window
+     * @param checkoutIndex the checkout date as an offset from the first checkout date of the window
+     * @return the checkout date (MM/dd/yy)
+     */
+    public String getCheckoutDate(int checkoutIndex) {
+        if (checkoutIndex < 0 || checkoutIndex >= checkoutDayCount) {
+            throw new IndexOutOfBoundsException("Checkout index " + checkoutIndex + " is outside the grid");
+        }
+
+        return CheckoutDates.format(firstCheckoutEpochDay + checkoutIndex);
+    }
+
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    public int getCheckoutDayCount() {
+        return checkoutDayCount;
+    }
+
+    public int getMaxRentalDays() {
+        return maxRentalDays;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    private int cell(int checkoutIndex, int rentalDayCount) {
+        if (checkoutIndex < 0 || checkoutIndex >= checkoutDayCount || rentalDayCount < 1 || rentalDayCount > maxRentalDays) {
+            throw new IndexOutOfBoundsException(
+                    "Cell (" + checkoutIndex + ", " + rentalDayCount + ") is outside the grid"
+            );
+        }
+
+        return checkoutIndex * maxRentalDays + rentalDayCount - 1;
+    }
+}
@@ -0,0 +1,172 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class representing a bounded cache of charge day counts keyed by chargeability mask, checkout
+ * epoch day and rental day count. Entries are split over segments, each a least recently used
+ * map guarded by its own lock, so concurrent quotes for different keys rarely contend. A count
+ * depends only on the holiday calendar, so a cache must only be shared between stores using
+ * the same calendar, and catalog changes never make an entry stale
+ *
+ * ChargeDaysBenchmark compares a hit with counting directly: the cache pays off for long rentals,
+ * whose direct count walks more holidays, and is about even for rentals of a few days
+ */
+public final class QuoteCache {
+
+    private static final int DEFAULT_SEGMENT_COUNT = 16;
+    private static final int MASK_SHIFT = 29;
+    private static final int MAX_CACHED_RENTAL_DAYS = (1 << MASK_SHIFT) - 1;
+    private static final int MAX_CHARGE_MASK = 7;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Construct a QuoteCache instance
+     * @param maximumSize the maximum number of cached counts (must be greater than 0)
+     */
+    public QuoteCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("A quote cache must hold at least one entry");
+        }
+
+        int segmentCount = Math.min(DEFAULT_SEGMENT_COUNT, Integer.highestOneBit(maximumSize));
+        int segmentSize = maximumSize / segmentCount;
+
+        this.segments = new Segment[segmentCount];
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Get the number of chargeable days of a rental, counting and caching it on a miss
+     * @param holidayCalendar the calendar deciding which days are holidays
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param chargeMask the chargeability mask of the tool, see CatalogItem.getChargeMask
+     * @return the number of chargeable days in the rental period
+     */
+    int getChargeDays(HolidayCalendar holidayCalendar, long checkoutEpochDay, int rentalDayCount, int chargeMask) {
+        if (checkoutEpochDay < 0 || checkoutEpochDay > Integer.MAX_VALUE
+                || rentalDayCount < 1 || rentalDayCount > MAX_CACHED_RENTAL_DAYS
+                || chargeMask < 0 || chargeMask > MAX_CHARGE_MASK) {
+            misses.increment();
+            return ChargeDayCalculator.countChargeDays(holidayCalendar, checkoutEpochDay, rentalDayCount, chargeMask);
+        }
+
+        long key = checkoutEpochDay << 32 | (long) chargeMask << MASK_SHIFT | rentalDayCount;
+        Segment segment = segmentFor(key);
+        Integer cached;
+
+        segment.lock.lock();
+        try {
+            cached = segment.entries.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+
+        // counted outside the lock, a concurrent miss on the same key computes the same value
+        int chargeDays = ChargeDayCalculator.countChargeDays(holidayCalendar, checkoutEpochDay, rentalDayCount, chargeMask);
+
+        segment.lock.lock();
+        try {
+            segment.entries.put(key, chargeDays);
+        } finally {
+            segment.lock.unlock();
+        }
+
+        return chargeDays;
+    }
+
+    /**
+     * Remove every cached count, e.g. after the holiday calendar of the stores sharing the cache
+     * changed. Catalog changes never need it, since counts are keyed by chargeability mask
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Get the number of cached counts
+     * @return the number of cached counts
+     */
+    public int size() {
+        int size = 0;
+
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Class representing one lock-guarded least recently used segment of the cache
+     */
+    private final class Segment {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Integer> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<Long, Integer>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+
+                    return false;
+                }
+            };
+        }
+    }
+}
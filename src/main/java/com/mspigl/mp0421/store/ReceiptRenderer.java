@@ -0,0 +1,135 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.money.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Utility class rendering rental agreements as printable receipts. Rendering appends straight
+ * into the output and formats money from cents, so it builds no formatters or intermediate
+ * strings and is safe to call from any number of threads
+ */
+public final class ReceiptRenderer {
+
+    /**
+     * Separator written between receipts rendered in bulk
+     */
+    public static final String RECEIPT_SEPARATOR = "\n\n";
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private ReceiptRenderer() {
+    }
+
+    /**
+     * Render a rental agreement as a receipt string
+     * @param agreement the agreement to render (must not be null)
+     * @return the receipt
+     */
+    public static String render(RentalAgreement agreement) {
+        StringBuilder builder = new StringBuilder(320);
+
+        render(agreement, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Append a rental agreement receipt to a builder
+     * @param agreement the agreement to render (must not be null)
+     * @param builder the builder to append to
+     */
+    public static void render(RentalAgreement agreement, StringBuilder builder) {
+        long preDiscountChargeCents = agreement.getPreDiscountChargeCents();
+        long discountAmountCents = Money.percentOf(preDiscountChargeCents, agreement.getDiscountPercent());
+
+        builder.append("Tool code: ").append(agreement.getToolCode())
+                .append("\nTool type: ").append(agreement.getToolType())
+                .append("\nTool brand: ").append(agreement.getToolBrand())
+                .append("\nRental days: ").append(agreement.getRentalDays())
+                .append("\nCheckout date: ").append(agreement.getCheckoutDate())
+                .append("\nDue date: ").append(agreement.getDueDate())
+                .append("\nDaily rental charge: ");
+        Money.appendCurrency(builder, agreement.getDailyChargeCents());
+        builder.append("\nCharge days: ").append(agreement.getChargeDays())
+                .append("\nPre-discount charge: ");
+        Money.appendCurrency(builder, preDiscountChargeCents);
+        builder.append("\nDiscount percent: ").append(agreement.getDiscountPercent())
+                .append("%\nDiscount amount: ");
+        Money.appendCurrency(builder, discountAmountCents);
+        builder.append("\nFinal charge: ");
+        Money.appendCurrency(builder, preDiscountChargeCents - discountAmountCents);
+    }
+
+    /**
+     * Append a rental agreement receipt to an output
+     * @param agreement the agreement to render (must not be null)
+     * @param out the output to append to (must not be null)
+     * @throws IOException if the output cannot be appended to
+     */
+    public static void render(RentalAgreement agreement, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            render(agreement, (StringBuilder) out);
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder(320);
+
+        render(agreement, builder);
+        out.append(builder);
+    }
+
+    /**
+     * Render many rental agreements to one output, separated by RECEIPT_SEPARATOR. Receipts are
+     * staged in a single reused buffer and appended to the output in large chunks
+     * @param agreements the agreements to render (must not be null)
+     * @param out the output to append to (must not be null)
+     * @return the number of receipts rendered
+     * @throws IOException if the output cannot be appended to
+     */
+    public static int renderAll(Iterable<RentalAgreement> agreements, Appendable out) throws IOException {
+        if (agreements == null || out == null) {
+            throw new IllegalArgumentException("Cannot render receipts without agreements or an output");
+        }
+
+        StringBuilder builder = new StringBuilder(FLUSH_THRESHOLD + 512);
+        int count = 0;
+
+        for (RentalAgreement agreement : agreements) {
+            if (count > 0) {
+                builder.append(RECEIPT_SEPARATOR);
+            }
+
+            render(agreement, builder);
+            count++;
+
+            if (builder.length() >= FLUSH_THRESHOLD) {
+                out.append(builder);
+                builder.setLength(0);
+            }
+        }
+
+        out.append(builder);
+
+        return count;
+    }
+
+    /**
+     * Render many rental agreements into one string, separated by RECEIPT_SEPARATOR
+     * @param agreements the agreements to render (must not be null)
+     * @return the rendered receipts
+     */
+    public static String renderAll(Iterable<RentalAgreement> agreements) {
+        StringBuilder builder = new StringBuilder();
+
+        try {
+            renderAll(agreements, builder);
+        } catch (IOException e) {
+            // a StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
+    }
+}
@@ -1,13 +1,20 @@
 package com.mspigl.mp0421.store;
 
-import java.text.NumberFormat;
-import java.util.Locale;
+import com.mspigl.mp0421.inventory.Reservation;
+import com.mspigl.mp0421.money.Money;
 
 /**
- * Class representing a rental agreement for a tool
+ * Class representing a rental agreement for a tool. An agreement made by a store also carries
+ * the charge state of the rental, its checkout epoch day and chargeability mask, so extending or
+ * returning it only prices the days past the due date
  */
 public class RentalAgreement {
 
+    /**
+     * Value of getChargeMask for an agreement built without charge state
+     */
+    public static final int NO_CHARGE_STATE = -1;
+
     private String toolCode;
     private String toolType;
     private String toolBrand;
@@ -16,7 +23,10 @@ public class RentalAgreement {
     private int rentalDays;
     private int chargeDays;
     private int discountPercent;
-    private double dailyCharge;
+    private long dailyChargeCents;
+    private Reservation reservation;
+    private long checkoutEpochDay;
+    private int chargeMask = NO_CHARGE_STATE;
 
     /**
      * Print stringified rental agreement to console
@@ -26,55 +36,21 @@ public class RentalAgreement {
     }
 
     /**
-     * Output all fields and calculated amounts as a string
+     * Output all fields and calculated amounts as a string, see ReceiptRenderer
      * @return all fields/amounts as a string
      */
     @Override
     public String toString() {
-        return "Tool code: " +
-                toolCode +
-                "\n" +
-                "Tool type: " +
-                toolType +
-                "\n" +
-                "Tool brand: " +
-                toolBrand +
-                "\n" +
-                "Rental days: " +
-                rentalDays +
-                "\n" +
-                "Checkout date: " +
-                checkoutDate +
-                "\n" +
-                "Due date: " +
-                dueDate +
-                "\n" +
-                "Daily rental charge: " +
-                formatCurrency(dailyCharge) +
-                "\n" +
-                "Charge days: " +
-                chargeDays +
-                "\n" +
-                "Pre-discount charge: " +
-                formatCurrency(getPreDiscountCharge()) +
-                "\n" +
-                "Discount percent: " +
-                discountPercent +
-                "%\n" +
-                "Discount amount: " +
-                formatCurrency(getDiscountAmount()) +
-                "\n" +
-                "Final charge: " +
-                formatCurrency(getFinalCharge());
+        return ReceiptRenderer.render(this);
     }
 
     /**
      * Get the pre-discount charge (the product of the number of charge days
-     * and the daily charge rate rounded half up to cents)
+     * and the daily charge rate)
      * @return the pre-discount charge
      */
     public double getPreDiscountCharge() {
-        return Math.round((this.chargeDays * this.dailyCharge) * 100) / 100d;
+        return Money.toAmount(getPreDiscountChargeCents());
     }
 
     /**
@@ -83,22 +59,42 @@ public class RentalAgreement {
      * @return the discount amount
      */
     public double getDiscountAmount() {
-        double preDiscountCharge = getPreDiscountCharge();
-        double discountPercent = this.discountPercent / 100d;
-
-        return Math.round((discountPercent * preDiscountCharge) * 100) / 100d;
+        return Money.toAmount(getDiscountAmountCents());
     }
 
     /**
      * Get the final charge (the difference of the pre-discount charge
-     * and the discount amount rounded half up to cents)
+     * and the discount amount)
      * @return the final charge
      */
     public double getFinalCharge() {
-        double preDiscountCharge = getPreDiscountCharge();
-        double discountAmount = getDiscountAmount();
+        return Money.toAmount(getFinalChargeCents());
+    }
+
+    /**
+     * Get the pre-discount charge in cents
+     * @return the pre-discount charge in cents
+     */
+    public long getPreDiscountChargeCents() {
+        return Money.multiply(this.dailyChargeCents, this.chargeDays);
+    }
 
-        return Math.round((preDiscountCharge - discountAmount) * 100) / 100d;
+    /**
+     * Get the discount amount in cents
+     * @return the discount amount in cents
+     */
+    public long getDiscountAmountCents() {
+        return Money.percentOf(getPreDiscountChargeCents(), this.discountPercent);
+    }
+
+    /**
+     * Get the final charge in cents
+     * @return the final charge in cents
+     */
+    public long getFinalChargeCents() {
+        long preDiscountChargeCents = getPreDiscountChargeCents();
+
+        return preDiscountChargeCents - Money.percentOf(preDiscountChargeCents, this.discountPercent);
     }
 
     public String getToolCode() {
@@ -166,21 +162,59 @@ public class RentalAgreement {
     }
 
     public double getDailyCharge() {
-        return dailyCharge;
+        return Money.toAmount(dailyChargeCents);
     }
 
     public void setDailyCharge(double dailyCharge) {
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Money.toCents(dailyCharge);
+    }
+
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    public void setDailyChargeCents(long dailyChargeCents) {
+        this.dailyChargeCents = dailyChargeCents;
     }
 
     /**
-     * Format the input amount into USD
-     * @param amount the amount to format
-     * @return a currency string representing the formatted amount
+     * Get the inventory reservation held for the rental
+     * @return the reservation, null if the store does not track inventory
      */
-    private String formatCurrency(double amount) {
-        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(new Locale("en", "US"));
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public void setReservation(Reservation reservation) {
+        this.reservation = reservation;
+    }
+
+    /**
+     * Get the checkout date as an epoch day
+     * @return the checkout epoch day, meaningless if getChargeMask is NO_CHARGE_STATE
+     */
+    public long getCheckoutEpochDay() {
+        return checkoutEpochDay;
+    }
+
+    /**
+     * Get the due date as an epoch day
+     * @return the due epoch day, meaningless if getChargeMask is NO_CHARGE_STATE
+     */
+    public long getDueEpochDay() {
+        return checkoutEpochDay + rentalDays;
+    }
+
+    /**
+     * Get the chargeability mask the rental was priced with
+     * @return the chargeability mask, see CatalogItem.getChargeMask, NO_CHARGE_STATE if unknown
+     */
+    public int getChargeMask() {
+        return chargeMask;
+    }
 
-        return numberFormat.format(amount);
+    void setChargeState(long checkoutEpochDay, int chargeMask) {
+        this.checkoutEpochDay = checkoutEpochDay;
+        this.chargeMask = chargeMask;
     }
 }
@@ -0,0 +1,70 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.money.Money;
+
+/**
+ * Class representing the return of a rented tool: the agreement it closes and the late fee due
+ * for the days past the due date. An early return is charged as agreed
+ */
+public final class RentalReturn {
+
+    private final RentalAgreement rentalAgreement;
+    private final String returnDate;
+    private final int lateDays;
+    private final int lateChargeDays;
+    private final long lateFeeCents;
+
+    RentalReturn(
+            RentalAgreement rentalAgreement,
+            String returnDate,
+            int lateDays,
+            int lateChargeDays,
+            long lateFeeCents
+    ) {
+        this.rentalAgreement = rentalAgreement;
+        this.returnDate = returnDate;
+        this.lateDays = lateDays;
+        this.lateChargeDays = lateChargeDays;
+        this.lateFeeCents = lateFeeCents;
+    }
+
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    public String getReturnDate() {
+        return returnDate;
+    }
+
+    /**
+     * Get the number of days between the due date and the return date
+     * @return the number of late days, 0 for a return on or before the due date
+     */
+    public int getLateDays() {
+        return lateDays;
+    }
+
+    /**
+     * Get the number of chargeable late days past the grace period of the late fee policy
+     * @return the number of chargeable late days
+     */
+    public int getLateChargeDays() {
+        return lateChargeDays;
+    }
+
+    public double getLateFee() {
+        return Money.toAmount(lateFeeCents);
+    }
+
+    public long getLateFeeCents() {
+        return lateFeeCents;
+    }
+
+    /**
+     * Get the total charge of the rental, the agreement final charge plus the late fee
+     * @return the total charge in cents
+     */
+    public long getTotalChargeCents() {
+        return rentalAgreement.getFinalChargeCents() + lateFeeCents;
+    }
+}
@@ -1,20 +1,26 @@
 package com.mspigl.mp0421.store;
 
+import com.mspigl.mp0421.calendar.HolidayCalendar;
 import com.mspigl.mp0421.catalog.Catalog;
 import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.discount.DiscountTable;
+import com.mspigl.mp0421.inventory.Inventory;
+import com.mspigl.mp0421.inventory.Reservation;
 import com.mspigl.mp0421.tool.Tool;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.Month;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.TemporalAdjusters;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Class representing a store from which tools can be rented
+ * Class representing a store from which tools can be rented. The store only reads from its
+ * catalog, so a single instance can serve concurrent checkouts. Each checkout reads one catalog
+ * snapshot, so a concurrent price change never mixes into a checkout in progress
  */
 public class Store {
 
@@ -22,11 +28,23 @@ public class Store {
     static final String INVALID_RENTAL_DAY_COUNT_ERROR_MESSAGE = "A tool must be rented for at least one day.";
     static final String INVALID_DISCOUNT_ERROR_MESSAGE = "Applied discount must be in the range 0 - 100 (inclusive)";
     static final String INVALID_CHECKOUT_DATE_ERROR_MESSAGE = "The checkout date must be a valid date in a valid format";
+    static final String INVALID_GRID_SIZE_ERROR_MESSAGE = "A pricing grid must span at least one checkout date and at most " + PricingGrid.MAX_CELLS + " quotes";
+    static final String TOOL_UNAVAILABLE_ERROR_MESSAGE = "No unit of the requested tool is available for the rental period.";
+    static final String RESERVATION_NOT_HELD_ERROR_MESSAGE = "The rental no longer holds its reservation, it was cancelled, returned or already extended.";
+    static final String INVALID_EXTENSION_ERROR_MESSAGE = "A rental must be extended by at least one day.";
+    static final String INVALID_RETURN_DATE_ERROR_MESSAGE = "The return date must be a valid date in a valid format, not before the checkout date";
 
     private final Catalog catalog;
+    private final HolidayCalendar holidayCalendar;
+    private final Inventory inventory;
+    private final QuoteCache quoteCache;
+    private final StoreMetrics metrics = new StoreMetrics();
+
+    private final AtomicReference<DiscountTables> discountTables = new AtomicReference<>(DiscountTables.NONE);
+    private volatile LateFeePolicy lateFeePolicy = LateFeePolicy.DAILY_RATE;
 
     /**
-     * Determine if the input day is chargeable
+     * Determine if the input day is chargeable under the standard holiday calendar
      * @param day the day to test if chargeable
      * @param catalogItem the catalog item to compare against the day
      * @return whether the input day is chargeable
@@ -37,7 +55,7 @@ public class Store {
         DayOfWeek dayOfWeek = day.getDayOfWeek();
         boolean isWeekend = dayOfWeek.equals(DayOfWeek.SATURDAY) || dayOfWeek.equals(DayOfWeek.SUNDAY);
 
-        if (isHoliday(day)) {
+        if (HolidayCalendar.standard().isHoliday(day)) {
             isChargeableDay = catalogItem.getHolidayChargeable();
         } else if (isWeekend) {
             isChargeableDay = catalogItem.getWeekendChargeable();
@@ -49,52 +67,66 @@ public class Store {
     }
 
     /**
-     * Determine if the input day is a holiday. Valid holidays are Independence Day (July 4th,
-     * observed July 3rd if 4th is a Saturday, July 5th if Sunday) and Labor Day (first Monday
-     * of September)
+     * Determine if the input day is a holiday under the standard holiday calendar. Valid holidays
+     * are Independence Day (July 4th, observed July 3rd if 4th is a Saturday, July 5th if Sunday)
+     * and Labor Day (first Monday of September)
      * @param day the day to test
      * @return whether the input day is a holiday
      */
     static boolean isHoliday(LocalDate day) {
-        boolean isHoliday;
-
-        Month month = day.getMonth();
-
-        if (month.equals(Month.JULY)) {
-            LocalDate independenceDay = LocalDate.of(day.getYear(), Month.JULY, 4);
-            LocalDate independenceDayObserved;
-
-            if (independenceDay.getDayOfWeek().equals(DayOfWeek.SATURDAY)) {
-                independenceDayObserved = independenceDay.minusDays(1);
-            } else if (independenceDay.getDayOfWeek().equals(DayOfWeek.SUNDAY)) {
-                independenceDayObserved = independenceDay.plusDays(1);
-            } else {
-                independenceDayObserved = independenceDay;
-            }
+        return HolidayCalendar.standard().isHoliday(day);
+    }
 
-            isHoliday = day.getDayOfMonth() == independenceDayObserved.getDayOfMonth();
-        } else if (month.equals(Month.SEPTEMBER)) {
-            LocalDate laborDay = day.with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+    /**
+     * Construct a Store instance using the standard holiday calendar
+     * @param catalog the catalog to assign to the store instance
+     */
+    public Store(Catalog catalog) {
+        this(catalog, HolidayCalendar.standard());
+    }
 
-            isHoliday = day.getDayOfMonth() == laborDay.getDayOfMonth();
-        } else {
-            isHoliday = false;
-        }
+    /**
+     * Construct a Store instance
+     * @param catalog the catalog to assign to the store instance
+     * @param holidayCalendar the calendar deciding which days are holidays (must not be null)
+     */
+    public Store(Catalog catalog, HolidayCalendar holidayCalendar) {
+        this(catalog, holidayCalendar, null);
+    }
 
-        return isHoliday;
+    /**
+     * Construct a Store instance that reserves a unit of the rented tool at checkout
+     * @param catalog the catalog to assign to the store instance
+     * @param holidayCalendar the calendar deciding which days are holidays (must not be null)
+     * @param inventory the inventory to reserve units from, null to skip availability checks
+     */
+    public Store(Catalog catalog, HolidayCalendar holidayCalendar, Inventory inventory) {
+        this(catalog, holidayCalendar, inventory, null);
     }
 
     /**
-     * Construct a Store instance
+     * Construct a Store instance that looks charge day counts up in a quote cache
      * @param catalog the catalog to assign to the store instance
+     * @param holidayCalendar the calendar deciding which days are holidays (must not be null)
+     * @param inventory the inventory to reserve units from, null to skip availability checks
+     * @param quoteCache the cache of charge day counts, null to count every checkout
      */
-    public Store(Catalog catalog) {
+    public Store(Catalog catalog, HolidayCalendar holidayCalendar, Inventory inventory, QuoteCache quoteCache) {
+        if (holidayCalendar == null) {
+            throw new IllegalArgumentException("Cannot instantiate a store without a holiday calendar");
+        }
+
         this.catalog = catalog;
+        this.holidayCalendar = holidayCalendar;
+        this.inventory = inventory;
+        this.quoteCache = quoteCache;
     }
 
     /**
      * Generate a rental agreement based on the store catalog and
-     * the input data
+     * the input data. When the store has an inventory, a unit of the tool is reserved from
+     * the checkout date up to the due date. The due date itself stays free, so the unit can be
+     * handed over to the next rental on the day it is returned
      * @param toolCode the code of the tool being rented
      * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
      * @param discountPercent the discount percent to apply to the total charge
@@ -107,93 +139,885 @@ public class Store {
             int discountPercent,
             String checkoutDate
     ) {
-        this.validateCheckoutInput(toolCode, rentalDayCount, discountPercent, checkoutDate);
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
 
-        Tool toolToRent = catalog.getTool(toolCode);
-        CatalogItem toolToRentCatalogItem = catalog.getCatalogItem(toolToRent.getType());
-        LocalDate localDate = LocalDate.parse(checkoutDate, DateTimeFormatter.ofPattern("M/d/y"));
-        int chargeDays = 0;
+        return checkout(catalogIndex, catalogIndex.toolId(toolCode), rentalDayCount, discountPercent, checkoutDate, 0, true);
+    }
 
-        for (int i = 0; i < rentalDayCount; i++) {
-            localDate = localDate.plusDays(1);
+    /**
+     * Generate a rental agreement for a customer of a loyalty tier. The agreement carries the
+     * higher of the input discount and the discount table percent for the tier
+     * @param toolCode the code of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @return a RentalAgreement containing the calculated rental totals
+     */
+    public RentalAgreement checkout(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            int loyaltyTier
+    ) {
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
 
-            if (isChargeableDay(localDate, toolToRentCatalogItem)) {
-                chargeDays++;
-            }
+        return checkout(
+                catalogIndex,
+                catalogIndex.toolId(toolCode),
+                rentalDayCount,
+                discountPercent,
+                checkoutDate,
+                loyaltyTier,
+                true
+        );
+    }
+
+    /**
+     * Generate a rental agreement for a tool identified by its catalog tool ID, skipping the
+     * tool code lookup. Tool IDs stay valid across catalog put and remove updates
+     * @param toolId the catalog tool ID of the tool being rented, see toolId
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals
+     */
+    public RentalAgreement checkout(
+            int toolId,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        return checkout(catalog.snapshot().getIndex(), toolId, rentalDayCount, discountPercent, checkoutDate, 0, true);
+    }
+
+    /**
+     * Price a rental without checking it out. A quote reserves no inventory and is not counted
+     * as a checkout in the store metrics
+     * @param toolCode the code of the tool to quote
+     * @param rentalDayCount the number of days the tool would be rented (must be greater than 0)
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return a RentalAgreement containing the calculated rental totals and no reservation
+     */
+    public RentalAgreement quote(
+            String toolCode,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
+
+        return checkout(catalogIndex, catalogIndex.toolId(toolCode), rentalDayCount, discountPercent, checkoutDate, 0, false);
+    }
+
+    /**
+     * Resolve a tool and its pricing once for repeated quotes and checkouts. The handle keeps the
+     * pricing of the current catalog snapshot, so prepare again to pick up later catalog changes
+     * @param toolCode the code of the tool to prepare
+     * @return a thread-safe handle quoting and checking out the tool without catalog lookups
+     * @throws IllegalArgumentException if the tool or the pricing of its type is not in the catalog
+     */
+    public PreparedCheckout prepare(String toolCode) {
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
+        int toolId = catalogIndex.toolId(toolCode);
+        Tool tool = catalogIndex.tool(toolId);
+        int typeId = tool == null ? CatalogIndex.NOT_FOUND : catalogIndex.toolTypeId(toolId);
+
+        if (typeId == CatalogIndex.NOT_FOUND) {
+            throw new IllegalArgumentException(TOOL_NOT_IN_CATALOG_ERROR_MESSAGE);
         }
 
-        RentalAgreement rentalAgreement = new RentalAgreement();
-        rentalAgreement.setRentalDays(rentalDayCount);
-        rentalAgreement.setDiscountPercent(discountPercent);
-        rentalAgreement.setToolCode(toolToRent.getCode());
-        rentalAgreement.setToolType(toolToRent.getType());
-        rentalAgreement.setToolBrand(toolToRent.getBrand());
-        rentalAgreement.setDailyCharge(toolToRentCatalogItem.getDailyCharge());
-        rentalAgreement.setChargeDays(chargeDays);
-        rentalAgreement.setDueDate(
-                localDate.format(DateTimeFormatter.ofPattern("MM/dd/y"))
-        );
-        rentalAgreement.setCheckoutDate(
-                LocalDate.parse(checkoutDate, DateTimeFormatter.ofPattern("M/d/y"))
-                    .format(DateTimeFormatter.ofPattern("MM/dd/y"))
+        return new PreparedCheckout(
+                this,
+                catalogIndex,
+                tool,
+                typeId,
+                catalogIndex.chargeMask(typeId),
+                catalogIndex.dailyChargeCents(typeId)
         );
+    }
 
-        return rentalAgreement;
+    /**
+     * Check out a request without throwing for a rejected request. Every input field is
+     * validated, so a rejected result reports all invalid fields at once, and no exception is
+     * created on any path
+     * @param request the request to check out (must not be null)
+     * @return the result holding the agreement or every reason for the rejection
+     */
+    public CheckoutResult tryCheckout(CheckoutRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Cannot check out a null request");
+        }
+
+        return checkoutForResult(request);
     }
 
     /**
-     * Validate that the the input tool code has a corresponding entry in the store catalog,
-     * the rental day count is greater than zero, the discount percent is in the range [0, 100]
-     * (inclusive) and that the checkout date is valid
+     * Check out a tool without throwing for a rejected request, see tryCheckout(CheckoutRequest)
      * @param toolCode the code of the tool being rented
-     * @param rentalDayCount the number of days the tool will be rented
+     * @param rentalDayCount the number of days the tool will be rented (must be greater than 0)
      * @param discountPercent the discount percent to apply to the total charge
      * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return the result holding the agreement or every reason for the rejection
      */
-    private void validateCheckoutInput(
+    public CheckoutResult tryCheckout(
             String toolCode,
             int rentalDayCount,
             int discountPercent,
             String checkoutDate
     ) {
-        Tool toolToRent = catalog.getTool(toolCode);
-        CatalogItem toolToRentCatalogItem = toolToRent == null ? null : catalog.getCatalogItem(toolToRent.getType());
+        return checkoutForResult(new CheckoutRequest(toolCode, rentalDayCount, discountPercent, checkoutDate));
+    }
 
-        if (toolToRentCatalogItem == null) {
-            throw new IllegalArgumentException(TOOL_NOT_IN_CATALOG_ERROR_MESSAGE);
+    /**
+     * Cancel a checked out rental, releasing its inventory reservation
+     * @param rentalAgreement the agreement of the rental to cancel
+     * @return whether a held reservation was released
+     */
+    public boolean cancel(RentalAgreement rentalAgreement) {
+        return inventory != null && rentalAgreement != null && inventory.release(rentalAgreement.getReservation());
+    }
+
+    /**
+     * Extend a rental by a number of days. Only the added days are priced and reserved, so the
+     * cost of an extension does not grow with the length of the rental. The extended rental
+     * keeps the pricing and discount of the input agreement, which must not be used afterwards
+     * @param rentalAgreement the agreement of the rental to extend (must not be null)
+     * @param additionalDays the number of days to add to the rental (must be greater than 0)
+     * @return a new agreement for the extended rental
+     * @throws IllegalArgumentException if the unit is not available for an added day, or the
+     * reservation of the agreement is no longer held
+     */
+    public RentalAgreement extend(RentalAgreement rentalAgreement, int additionalDays) {
+        if (rentalAgreement == null) {
+            throw new IllegalArgumentException("Cannot extend a null rental agreement");
         }
 
-        if (rentalDayCount < 1) {
-            throw new IllegalArgumentException(INVALID_RENTAL_DAY_COUNT_ERROR_MESSAGE);
+        if (additionalDays < 1) {
+            throw new IllegalArgumentException(INVALID_EXTENSION_ERROR_MESSAGE);
         }
 
-        if (discountPercent < 0 || discountPercent > 100) {
-            throw new IllegalArgumentException(INVALID_DISCOUNT_ERROR_MESSAGE);
+        int chargeMask = chargeMaskOf(rentalAgreement);
+        long checkoutEpochDay = checkoutEpochDayOf(rentalAgreement);
+        long dueEpochDay = checkoutEpochDay + rentalAgreement.getRentalDays();
+        Reservation reservation = rentalAgreement.getReservation();
+
+        if (inventory != null && reservation != null) {
+            Reservation extendedReservation = inventory.extend(reservation, dueEpochDay + additionalDays - 1);
+
+            if (extendedReservation == null) {
+                throw new IllegalArgumentException(
+                        inventory.isHeld(reservation) ? TOOL_UNAVAILABLE_ERROR_MESSAGE : RESERVATION_NOT_HELD_ERROR_MESSAGE
+                );
+            }
+
+            reservation = extendedReservation;
+        }
+
+        RentalAgreement extended = new RentalAgreement();
+        extended.setToolCode(rentalAgreement.getToolCode());
+        extended.setToolType(rentalAgreement.getToolType());
+        extended.setToolBrand(rentalAgreement.getToolBrand());
+        extended.setCheckoutDate(rentalAgreement.getCheckoutDate());
+        extended.setDiscountPercent(rentalAgreement.getDiscountPercent());
+        extended.setDailyChargeCents(rentalAgreement.getDailyChargeCents());
+        extended.setRentalDays(rentalAgreement.getRentalDays() + additionalDays);
+        extended.setChargeDays(
+                rentalAgreement.getChargeDays() + countChargeDays(dueEpochDay, additionalDays, chargeMask)
+        );
+        extended.setDueDate(CheckoutDates.format(dueEpochDay + additionalDays));
+        extended.setReservation(reservation);
+        extended.setChargeState(checkoutEpochDay, chargeMask);
+
+        return extended;
+    }
+
+    /**
+     * Return a rented tool, releasing its inventory reservation. Only the days past the due date
+     * are priced, under the late fee policy of the store
+     * @param rentalAgreement the agreement of the returned rental (must not be null)
+     * @param returnDate the return date (mm/dd/yy/), not before the checkout date
+     * @return the return holding the late fee
+     */
+    public RentalReturn returnRental(RentalAgreement rentalAgreement, String returnDate) {
+        if (rentalAgreement == null) {
+            throw new IllegalArgumentException("Cannot return a null rental agreement");
+        }
+
+        int chargeMask = chargeMaskOf(rentalAgreement);
+        long checkoutEpochDay = checkoutEpochDayOf(rentalAgreement);
+        long returnEpochDay = CheckoutDates.parse(returnDate);
+
+        if (returnEpochDay == CheckoutDates.INVALID_DATE || returnEpochDay < checkoutEpochDay) {
+            throw new IllegalArgumentException(INVALID_RETURN_DATE_ERROR_MESSAGE);
+        }
+
+        LateFeePolicy policy = lateFeePolicy;
+        long dueEpochDay = checkoutEpochDay + rentalAgreement.getRentalDays();
+        int lateDays = (int) Math.max(0, returnEpochDay - dueEpochDay);
+        int lateChargeDays = 0;
+        long lateFeeCents = 0;
+
+        if (lateDays > policy.getGraceDays()) {
+            lateChargeDays = countChargeDays(
+                    dueEpochDay + policy.getGraceDays(),
+                    lateDays - policy.getGraceDays(),
+                    chargeMask
+            );
+            lateFeeCents = policy.feeCents(rentalAgreement.getDailyChargeCents(), lateChargeDays);
+        }
+
+        cancel(rentalAgreement);
+
+        return new RentalReturn(
+                rentalAgreement,
+                CheckoutDates.format(returnEpochDay),
+                lateDays,
+                lateChargeDays,
+                lateFeeCents
+        );
+    }
+
+    /**
+     * Replace the policy pricing late returns, the daily charge per late day by default
+     * @param lateFeePolicy the late fee policy (must not be null)
+     */
+    public void setLateFeePolicy(LateFeePolicy lateFeePolicy) {
+        if (lateFeePolicy == null) {
+            throw new IllegalArgumentException("Cannot price late returns without a late fee policy");
+        }
+
+        this.lateFeePolicy = lateFeePolicy;
+    }
+
+    public LateFeePolicy getLateFeePolicy() {
+        return lateFeePolicy;
+    }
+
+    /**
+     * Replace the discount rules applied at checkout. Every checkout charges the higher of the
+     * caller discount and the table discount, so overlapping rules never stack. A table compiled
+     * against another catalog index than the one a checkout reads is compiled again for it, so
+     * the table stays correct when the catalog reassigns tool type IDs
+     * @param discountTable the discount rules, null for none
+     */
+    public void setDiscountTable(DiscountTable discountTable) {
+        discountTables.set(discountTable == null ? DiscountTables.NONE : DiscountTables.of(discountTable));
+    }
+
+    public DiscountTable getDiscountTable() {
+        return discountTables.get().getInstalled();
+    }
+
+    /**
+     * Get the catalog the store rents from
+     * @return the store catalog
+     */
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Get the catalog tool ID of the input tool code
+     * @param toolCode the tool code to look up
+     * @return the tool ID, CatalogIndex.NOT_FOUND if the tool is not in the catalog
+     */
+    public int toolId(String toolCode) {
+        return catalog.snapshot().getIndex().toolId(toolCode);
+    }
+
+    /**
+     * Quote a tool for every checkout date of a window and every rental length up to a maximum.
+     * Quotes read a single catalog snapshot and reserve no inventory. The grid applies the input
+     * discount only, not the discount table
+     * @param toolCode the code of the tool to quote
+     * @param firstCheckoutDate the first checkout date of the window (mm/dd/yy/)
+     * @param checkoutDayCount the number of consecutive checkout dates to quote (must be greater than 0)
+     * @param maxRentalDays the longest rental length to quote (must be greater than 0)
+     * @param discountPercent the discount percent to apply to every quote
+     * @return the grid of charge days and final charges
+     */
+    public PricingGrid priceGrid(
+            String toolCode,
+            String firstCheckoutDate,
+            int checkoutDayCount,
+            int maxRentalDays,
+            int discountPercent
+    ) {
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
+        int toolId = catalogIndex.toolId(toolCode);
+        long firstCheckoutEpochDay = this.validateCheckoutInput(
+                catalogIndex,
+                toolId,
+                maxRentalDays,
+                discountPercent,
+                firstCheckoutDate
+        );
+
+        if (checkoutDayCount < 1 || (long) checkoutDayCount * maxRentalDays > PricingGrid.MAX_CELLS) {
+            throw new IllegalArgumentException(INVALID_GRID_SIZE_ERROR_MESSAGE);
+        }
+
+        int typeId = catalogIndex.toolTypeId(toolId);
+
+        return PricingGrid.compute(
+                holidayCalendar,
+                catalogIndex.tool(toolId).getCode(),
+                firstCheckoutEpochDay,
+                checkoutDayCount,
+                maxRentalDays,
+                catalogIndex.chargeMask(typeId),
+                catalogIndex.dailyChargeCents(typeId),
+                discountPercent
+        );
+    }
+
+    /**
+     * Get the checkout metrics of the store. Register them with StoreMetrics.register to expose
+     * them over JMX
+     * @return the store metrics
+     */
+    public StoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Check out every request of a batch in parallel on the common fork-join pool. A rejected
+     * request is reported in its result and does not abort the rest of the batch
+     * @param requests the requests to check out (must not be null)
+     * @return one result per request, in input order
+     */
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests) {
+        return checkoutBatch(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Check out every request of a batch in parallel on the input fork-join pool. A rejected
+     * request is reported in its result and does not abort the rest of the batch
+     * @param requests the requests to check out (must not be null)
+     * @param pool the pool to run the checkouts on (must not be null)
+     * @return one result per request, in input order
+     */
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests, ForkJoinPool pool) {
+        if (requests == null || pool == null) {
+            throw new IllegalArgumentException("Cannot check out a batch without requests or a pool");
+        }
+
+        return pool.submit(() -> requests.parallelStream()
+                .map(this::checkoutForResult)
+                .collect(Collectors.toList())
+        ).join();
+    }
+
+    /**
+     * Lazily check out a stream of requests. Parallel input streams are checked out in parallel,
+     * and ordered input streams keep their encounter order
+     * @param requests the requests to check out (must not be null)
+     * @return a stream of one result per request
+     */
+    public Stream<CheckoutResult> checkoutStream(Stream<CheckoutRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Cannot check out a stream without requests");
         }
 
-        validateCheckoutDate(checkoutDate);
+        return requests.map(this::checkoutForResult);
     }
 
     /**
-     * Validate that the input date string is both in valid format (mm/dd/yy, leading zero
-     * optional for month and day) and that it is a valid date
-     * @param checkoutDate the date to validate
+     * Check out a single request, capturing a rejection in the result
+     * @param request the request to check out
+     * @return the result of the checkout
      */
-    private void validateCheckoutDate(String checkoutDate) {
-        Pattern datePattern = Pattern.compile("^\\d{1,2}/\\d{1,2}/\\d\\d$");
-        Matcher dateMatcher = datePattern.matcher(checkoutDate);
-        boolean dateValid = dateMatcher.matches();
+    private CheckoutResult checkoutForResult(CheckoutRequest request) {
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
 
-        if (dateValid) {
-            try {
-                LocalDate.parse(checkoutDate, DateTimeFormatter.ofPattern("M/d/y"));
-            } catch (DateTimeParseException e) {
-                dateValid = false;
+        return tryCheckout(
+                catalogIndex,
+                catalogIndex.toolId(request.getToolCode()),
+                request,
+                request.getRentalDayCount(),
+                request.getDiscountPercent(),
+                request.getCheckoutDate(),
+                0,
+                true
+        );
+    }
+
+    /**
+     * Generate a rental agreement reading the tool and its pricing from a single catalog index
+     * @param catalogIndex the catalog index to read from
+     * @param toolId the catalog tool ID of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @param reserve whether to reserve inventory and count the rental as a checkout
+     * @return a RentalAgreement containing the calculated rental totals
+     */
+    private RentalAgreement checkout(
+            CatalogIndex catalogIndex,
+            int toolId,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            int loyaltyTier,
+            boolean reserve
+    ) {
+        Tool tool = catalogIndex.tool(toolId);
+        int typeId = tool == null ? CatalogIndex.NOT_FOUND : catalogIndex.toolTypeId(toolId);
+
+        if (typeId == CatalogIndex.NOT_FOUND) {
+            return checkout(catalogIndex, null, typeId, 0, 0, rentalDayCount, discountPercent, checkoutDate, loyaltyTier, reserve);
+        }
+
+        return checkout(
+                catalogIndex,
+                tool,
+                typeId,
+                catalogIndex.chargeMask(typeId),
+                catalogIndex.dailyChargeCents(typeId),
+                rentalDayCount,
+                discountPercent,
+                checkoutDate,
+                loyaltyTier,
+                reserve
+        );
+    }
+
+    /**
+     * Generate a rental agreement reading the tool and its pricing from a single catalog index,
+     * reporting a rejection in the result rather than by throwing
+     * @param catalogIndex the catalog index to read from
+     * @param toolId the catalog tool ID of the tool being rented
+     * @param request the request to report in the result, may be null
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @param reserve whether to reserve inventory and count the rental as a checkout
+     * @return the result holding the agreement or every reason for the rejection
+     */
+    private CheckoutResult tryCheckout(
+            CatalogIndex catalogIndex,
+            int toolId,
+            CheckoutRequest request,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            int loyaltyTier,
+            boolean reserve
+    ) {
+        Tool tool = catalogIndex.tool(toolId);
+        int typeId = tool == null ? CatalogIndex.NOT_FOUND : catalogIndex.toolTypeId(toolId);
+
+        if (typeId == CatalogIndex.NOT_FOUND) {
+            return tryCheckout(
+                    catalogIndex,
+                    null,
+                    typeId,
+                    0,
+                    0,
+                    request,
+                    rentalDayCount,
+                    discountPercent,
+                    checkoutDate,
+                    loyaltyTier,
+                    reserve
+            );
+        }
+
+        return tryCheckout(
+                catalogIndex,
+                tool,
+                typeId,
+                catalogIndex.chargeMask(typeId),
+                catalogIndex.dailyChargeCents(typeId),
+                request,
+                rentalDayCount,
+                discountPercent,
+                checkoutDate,
+                loyaltyTier,
+                reserve
+        );
+    }
+
+    /**
+     * Generate a rental agreement for a resolved tool and pricing. This is the path of the
+     * throwing checkouts: a rejection throws without building a CheckoutResult, so the only
+     * allocation of an accepted checkout is the agreement
+     * @param catalogIndex the catalog index the tool and its type ID were read from
+     * @param tool the tool being rented, null if it is not in the catalog or its type has no pricing
+     * @param typeId the catalog tool type ID of the tool, looked up in the discount table
+     * @param chargeMask the chargeability mask of the tool type
+     * @param dailyChargeCents the daily charge of the tool type in cents
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @param reserve whether to reserve inventory and count the rental as a checkout
+     * @return a RentalAgreement containing the calculated rental totals
+     * @throws IllegalArgumentException with the message of the first reason for the rejection
+     */
+    RentalAgreement checkout(
+            CatalogIndex catalogIndex,
+            Tool tool,
+            int typeId,
+            int chargeMask,
+            long dailyChargeCents,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            int loyaltyTier,
+            boolean reserve
+    ) {
+        long startNanos = System.nanoTime();
+        long checkoutEpochDay = CheckoutDates.parse(checkoutDate);
+        int errorMask = validate(tool, rentalDayCount, discountPercent, checkoutEpochDay, startNanos);
+
+        if (errorMask != 0) {
+            throw new IllegalArgumentException(CheckoutError.first(errorMask).getMessage());
+        }
+
+        Reservation reservation = null;
+
+        if (reserve && inventory != null) {
+            reservation = inventory.reserve(tool.getCode(), checkoutEpochDay, checkoutEpochDay + rentalDayCount - 1);
+
+            if (reservation == null) {
+                metrics.recordRejection(CheckoutError.TOOL_UNAVAILABLE);
+
+                throw new IllegalArgumentException(TOOL_UNAVAILABLE_ERROR_MESSAGE);
+            }
+        }
+
+        return agreement(
+                catalogIndex,
+                tool,
+                typeId,
+                chargeMask,
+                dailyChargeCents,
+                rentalDayCount,
+                discountPercent,
+                checkoutEpochDay,
+                loyaltyTier,
+                reservation,
+                reserve,
+                startNanos
+        );
+    }
+
+    /**
+     * Generate a rental agreement for a resolved tool and pricing, reporting a rejection in the
+     * result rather than by throwing
+     * @param catalogIndex the catalog index the tool and its type ID were read from
+     * @param tool the tool being rented, null if it is not in the catalog or its type has no pricing
+     * @param typeId the catalog tool type ID of the tool, looked up in the discount table
+     * @param chargeMask the chargeability mask of the tool type
+     * @param dailyChargeCents the daily charge of the tool type in cents
+     * @param request the request to report in the result, may be null
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @param reserve whether to reserve inventory and count the rental as a checkout
+     * @return the result holding the agreement or every reason for the rejection
+     */
+    CheckoutResult tryCheckout(
+            CatalogIndex catalogIndex,
+            Tool tool,
+            int typeId,
+            int chargeMask,
+            long dailyChargeCents,
+            CheckoutRequest request,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate,
+            int loyaltyTier,
+            boolean reserve
+    ) {
+        long startNanos = System.nanoTime();
+        long checkoutEpochDay = CheckoutDates.parse(checkoutDate);
+        int errorMask = validate(tool, rentalDayCount, discountPercent, checkoutEpochDay, startNanos);
+
+        if (errorMask != 0) {
+            return CheckoutResult.failure(request, errorMask);
+        }
+
+        Reservation reservation = null;
+
+        if (reserve && inventory != null) {
+            reservation = inventory.reserve(tool.getCode(), checkoutEpochDay, checkoutEpochDay + rentalDayCount - 1);
+
+            if (reservation == null) {
+                metrics.recordRejection(CheckoutError.TOOL_UNAVAILABLE);
+
+                return CheckoutResult.failure(request, CheckoutError.TOOL_UNAVAILABLE.bit());
             }
         }
 
-        if (!dateValid) {
+        return CheckoutResult.success(request, agreement(
+                catalogIndex,
+                tool,
+                typeId,
+                chargeMask,
+                dailyChargeCents,
+                rentalDayCount,
+                discountPercent,
+                checkoutEpochDay,
+                loyaltyTier,
+                reservation,
+                reserve,
+                startNanos
+        ));
+    }
+
+    /**
+     * Validate the input of a checkout and record the validation time, and the rejection if any
+     * @return the error mask of the input, 0 if it is valid
+     */
+    private int validate(Tool tool, int rentalDayCount, int discountPercent, long checkoutEpochDay, long startNanos) {
+        int errorMask = validationErrors(tool != null, rentalDayCount, discountPercent, checkoutEpochDay);
+
+        metrics.recordValidation(System.nanoTime() - startNanos);
+
+        if (errorMask != 0) {
+            metrics.recordRejection(CheckoutError.first(errorMask));
+        }
+
+        return errorMask;
+    }
+
+    /**
+     * Build the agreement of a validated checkout, releasing its reservation if that fails
+     * @param reservation the unit reserved for the rental, null for none
+     * @param reserve whether to count the rental as a checkout
+     * @param startNanos the time the checkout started, for the checkout latency
+     * @return the rental agreement
+     */
+    private RentalAgreement agreement(
+            CatalogIndex catalogIndex,
+            Tool tool,
+            int typeId,
+            int chargeMask,
+            long dailyChargeCents,
+            int rentalDayCount,
+            int discountPercent,
+            long checkoutEpochDay,
+            int loyaltyTier,
+            Reservation reservation,
+            boolean reserve,
+            long startNanos
+    ) {
+        RentalAgreement rentalAgreement;
+
+        try {
+            rentalAgreement = new RentalAgreement();
+            rentalAgreement.setRentalDays(rentalDayCount);
+            rentalAgreement.setDiscountPercent(
+                    effectiveDiscountPercent(
+                            catalogIndex,
+                            typeId,
+                            rentalDayCount,
+                            discountPercent,
+                            checkoutEpochDay,
+                            loyaltyTier
+                    )
+            );
+            rentalAgreement.setToolCode(tool.getCode());
+            rentalAgreement.setToolType(tool.getType());
+            rentalAgreement.setToolBrand(tool.getBrand());
+            rentalAgreement.setDailyChargeCents(dailyChargeCents);
+            rentalAgreement.setChargeDays(countChargeDays(checkoutEpochDay, rentalDayCount, chargeMask));
+            rentalAgreement.setDueDate(CheckoutDates.format(checkoutEpochDay + rentalDayCount));
+            rentalAgreement.setCheckoutDate(CheckoutDates.format(checkoutEpochDay));
+            rentalAgreement.setReservation(reservation);
+            rentalAgreement.setChargeState(checkoutEpochDay, chargeMask);
+        } catch (RuntimeException e) {
+            // no agreement will ever hold the reservation, so give the unit back
+            if (reservation != null) {
+                inventory.release(reservation);
+            }
+
+            throw e;
+        }
+
+        if (reserve) {
+            metrics.recordCheckout(tool.getType(), System.nanoTime() - startNanos);
+        }
+
+        return rentalAgreement;
+    }
+
+    /**
+     * Get the discount charged for a validated rental, the higher of the caller discount and the
+     * discount table percent
+     * @param catalogIndex the catalog index the tool type ID was read from
+     * @param typeId the catalog tool type ID of the tool
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent requested by the caller
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param loyaltyTier the loyalty tier of the customer, 0 for none
+     * @return the discount percent to charge
+     */
+    int effectiveDiscountPercent(
+            CatalogIndex catalogIndex,
+            int typeId,
+            int rentalDayCount,
+            int discountPercent,
+            long checkoutEpochDay,
+            int loyaltyTier
+    ) {
+        return Math.max(
+                discountPercent,
+                discountTable(catalogIndex).discountPercent(typeId, rentalDayCount, checkoutEpochDay, loyaltyTier)
+        );
+    }
+
+    /**
+     * Get the discount table matching the tool type IDs of a catalog index. When the catalog
+     * reassigned IDs since the installed table was compiled, the rules are compiled again for the
+     * index and kept: for the current index the new table replaces the installed one, and for an
+     * older index, e.g. the one of a PreparedCheckout made before a catalog update, it joins the
+     * recently compiled tables. The rules are thereby compiled once per index still in use
+     * @param catalogIndex the catalog index the tool type IDs are read from
+     * @return the discount table compiled for the index
+     */
+    DiscountTable discountTable(CatalogIndex catalogIndex) {
+        DiscountTables tables = discountTables.get();
+        DiscountTable compiled = tables.find(catalogIndex);
+
+        if (compiled != null) {
+            return compiled;
+        }
+
+        compiled = tables.getInstalled().recompile(catalogIndex);
+
+        // lost races keep the tables installed meanwhile, by setDiscountTable or another recompile
+        discountTables.compareAndSet(
+                tables,
+                catalog.snapshot().getIndex() == catalogIndex ? tables.install(compiled) : tables.remember(compiled)
+        );
+
+        return compiled;
+    }
+
+    /**
+     * Get the chargeability mask of an agreement, looking its tool type up in the catalog when
+     * the agreement carries no charge state, e.g. after a journal replay
+     */
+    private int chargeMaskOf(RentalAgreement rentalAgreement) {
+        if (rentalAgreement.getChargeMask() != RentalAgreement.NO_CHARGE_STATE) {
+            return rentalAgreement.getChargeMask();
+        }
+
+        CatalogIndex catalogIndex = catalog.snapshot().getIndex();
+        int typeId = catalogIndex.typeId(rentalAgreement.getToolType());
+
+        if (typeId == CatalogIndex.NOT_FOUND || catalogIndex.catalogItem(typeId) == null) {
+            throw new IllegalArgumentException(TOOL_NOT_IN_CATALOG_ERROR_MESSAGE);
+        }
+
+        return catalogIndex.chargeMask(typeId);
+    }
+
+    private static long checkoutEpochDayOf(RentalAgreement rentalAgreement) {
+        if (rentalAgreement.getChargeMask() != RentalAgreement.NO_CHARGE_STATE) {
+            return rentalAgreement.getCheckoutEpochDay();
+        }
+
+        long checkoutEpochDay = CheckoutDates.parse(rentalAgreement.getCheckoutDate());
+
+        if (checkoutEpochDay == CheckoutDates.INVALID_DATE) {
             throw new IllegalArgumentException(INVALID_CHECKOUT_DATE_ERROR_MESSAGE);
         }
+
+        return checkoutEpochDay;
+    }
+
+    /**
+     * Count the chargeable days of a rental, through the quote cache when the store has one
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param chargeMask the chargeability mask of the tool type
+     * @return the number of chargeable days
+     */
+    int countChargeDays(long checkoutEpochDay, int rentalDayCount, int chargeMask) {
+        return quoteCache == null
+                ? ChargeDayCalculator.countChargeDays(holidayCalendar, checkoutEpochDay, rentalDayCount, chargeMask)
+                : quoteCache.getChargeDays(holidayCalendar, checkoutEpochDay, rentalDayCount, chargeMask);
+    }
+
+    /**
+     * Validate that the the input tool ID has a corresponding entry in the store catalog,
+     * the rental day count is greater than zero, the discount percent is in the range [0, 100]
+     * (inclusive) and that the checkout date is valid
+     * @param catalogIndex the catalog index to look the tool up in
+     * @param toolId the catalog tool ID of the tool being rented
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutDate the checkout date (mm/dd/yy/)
+     * @return the checkout date as an epoch day
+     * @throws IllegalArgumentException with the message of the first invalid field
+     */
+    long validateCheckoutInput(
+            CatalogIndex catalogIndex,
+            int toolId,
+            int rentalDayCount,
+            int discountPercent,
+            String checkoutDate
+    ) {
+        long startNanos = System.nanoTime();
+        long checkoutEpochDay = CheckoutDates.parse(checkoutDate);
+        boolean toolFound = catalogIndex.tool(toolId) != null && catalogIndex.toolTypeId(toolId) != CatalogIndex.NOT_FOUND;
+        int errorMask = validationErrors(toolFound, rentalDayCount, discountPercent, checkoutEpochDay);
+
+        metrics.recordValidation(System.nanoTime() - startNanos);
+
+        if (errorMask != 0) {
+            CheckoutError error = CheckoutError.first(errorMask);
+
+            metrics.recordRejection(error);
+
+            throw new IllegalArgumentException(error.getMessage());
+        }
+
+        return checkoutEpochDay;
+    }
+
+    /**
+     * Check every checkout input field in one pass
+     * @param toolFound whether the tool and the pricing of its type are in the catalog
+     * @param rentalDayCount the number of days the tool will be rented
+     * @param discountPercent the discount percent to apply to the total charge
+     * @param checkoutEpochDay the parsed checkout date, CheckoutDates.INVALID_DATE if invalid
+     * @return the bits of every invalid field, see CheckoutError.bit, 0 if all are valid
+     */
+    private static int validationErrors(
+            boolean toolFound,
+            int rentalDayCount,
+            int discountPercent,
+            long checkoutEpochDay
+    ) {
+        int errorMask = 0;
+
+        if (!toolFound) {
+            errorMask |= CheckoutError.TOOL_NOT_IN_CATALOG.bit();
+        }
+
+        if (rentalDayCount < 1) {
+            errorMask |= CheckoutError.INVALID_RENTAL_DAY_COUNT.bit();
+        }
+
+        if (discountPercent < 0 || discountPercent > 100) {
+            errorMask |= CheckoutError.INVALID_DISCOUNT.bit();
+        }
+
+        if (checkoutEpochDay == CheckoutDates.INVALID_DATE) {
+            errorMask |= CheckoutError.INVALID_CHECKOUT_DATE.bit();
+        }
+
+        return errorMask;
     }
 }
@@ -0,0 +1,218 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.metrics.LatencyHistogram;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class representing the checkout metrics of a store: checkouts per tool type, rejections per
+ * error and latency histograms of checkout and validation. Every counter is a LongAdder, so
+ * concurrent checkouts update separate cells instead of contending on one value
+ */
+public final class StoreMetrics implements StoreMetricsMXBean {
+
+    static final String OBJECT_NAME_PREFIX = "com.mspigl.mp0421:type=StoreMetrics,name=";
+
+    private final ConcurrentMap<String, LongAdder> checkoutsByToolType = new ConcurrentHashMap<>();
+    private final LongAdder[] rejectionsByError = new LongAdder[CheckoutError.values().length];
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram();
+    private final LatencyHistogram validationLatency = new LatencyHistogram();
+
+    private ObjectName objectName;
+
+    /**
+     * Construct a StoreMetrics instance with every counter at zero
+     */
+    public StoreMetrics() {
+        for (int i = 0; i < rejectionsByError.length; i++) {
+            rejectionsByError[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Register the metrics on the platform MBean server
+     * @param name the name distinguishing this store from others in the same JVM
+     * @throws IllegalStateException if the metrics are already registered or the name is taken
+     */
+    public synchronized void register(String name) {
+        if (objectName != null) {
+            throw new IllegalStateException("The store metrics are already registered as " + objectName);
+        }
+
+        try {
+            ObjectName candidate = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Cannot register the store metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Remove the metrics from the platform MBean server, if registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            // already gone, nothing left to clean up
+        }
+
+        objectName = null;
+    }
+
+    void recordCheckout(String toolType, long latencyNanos) {
+        LongAdder counter = checkoutsByToolType.get(toolType);
+
+        if (counter == null) {
+            counter = checkoutsByToolType.computeIfAbsent(toolType, key -> new LongAdder());
+        }
+
+        counter.increment();
+        checkoutLatency.record(latencyNanos);
+    }
+
+    void recordRejection(CheckoutError error) {
+        rejectionsByError[error.ordinal()].increment();
+    }
+
+    void recordValidation(long latencyNanos) {
+        validationLatency.record(latencyNanos);
+    }
+
+    /**
+     * Get the number of rejections of one kind
+     * @param error the kind of rejection
+     * @return the number of rejections
+     */
+    public long getRejectionCount(CheckoutError error) {
+        return rejectionsByError[error.ordinal()].sum();
+    }
+
+    /**
+     * Get a snapshot of the checkout latencies of successful checkouts
+     * @return the latency snapshot in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getCheckoutLatency() {
+        return checkoutLatency.snapshot();
+    }
+
+    /**
+     * Get a snapshot of the checkout input validation latencies
+     * @return the latency snapshot in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getValidationLatency() {
+        return validationLatency.snapshot();
+    }
+
+    @Override
+    public long getCheckoutCount() {
+        long count = 0;
+
+        for (LongAdder counter : checkoutsByToolType.values()) {
+            count += counter.sum();
+        }
+
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getCheckoutCountsByToolType() {
+        Map<String, Long> counts = new TreeMap<>();
+
+        checkoutsByToolType.forEach((toolType, counter) -> counts.put(toolType, counter.sum()));
+
+        return counts;
+    }
+
+    @Override
+    public long getRejectionCount() {
+        long count = 0;
+
+        for (LongAdder counter : rejectionsByError) {
+            count += counter.sum();
+        }
+
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getRejectionCountsByError() {
+        Map<String, Long> counts = new TreeMap<>();
+
+        for (CheckoutError error : CheckoutError.values()) {
+            counts.put(error.name(), getRejectionCount(error));
+        }
+
+        return counts;
+    }
+
+    @Override
+    public double getCheckoutLatencyMeanNanos() {
+        return checkoutLatency.snapshot().getMean();
+    }
+
+    @Override
+    public long getCheckoutLatencyP50Nanos() {
+        return checkoutLatency.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getCheckoutLatencyP99Nanos() {
+        return checkoutLatency.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getCheckoutLatencyP999Nanos() {
+        return checkoutLatency.snapshot().getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getCheckoutLatencyMaxNanos() {
+        return checkoutLatency.snapshot().getMax();
+    }
+
+    @Override
+    public long getValidationLatencyP50Nanos() {
+        return validationLatency.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getValidationLatencyP99Nanos() {
+        return validationLatency.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getValidationLatencyMaxNanos() {
+        return validationLatency.snapshot().getMax();
+    }
+
+    @Override
+    public void reset() {
+        checkoutsByToolType.values().forEach(LongAdder::reset);
+
+        for (LongAdder counter : rejectionsByError) {
+            counter.reset();
+        }
+
+        checkoutLatency.reset();
+        validationLatency.reset();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mspigl.mp0421.store;
+
+import java.util.Map;
+
+/**
+ * Management interface of the checkout metrics of a store. Latencies are in nanoseconds
+ */
+public interface StoreMetricsMXBean {
+
+    long getCheckoutCount();
+
+    Map<String, Long> getCheckoutCountsByToolType();
+
+    long getRejectionCount();
+
+    Map<String, Long> getRejectionCountsByError();
+
+    double getCheckoutLatencyMeanNanos();
+
+    long getCheckoutLatencyP50Nanos();
+
+    long getCheckoutLatencyP99Nanos();
+
+    long getCheckoutLatencyP999Nanos();
+
+    long getCheckoutLatencyMaxNanos();
+
+    long getValidationLatencyP50Nanos();
+
+    long getValidationLatencyP99Nanos();
+
+    long getValidationLatencyMaxNanos();
+
+    /**
+     * Clear every counter and histogram
+     */
+    void reset();
+}
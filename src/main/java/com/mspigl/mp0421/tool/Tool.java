@@ -1,13 +1,14 @@
 package com.mspigl.mp0421.tool;
 
 /**
- * Class representing a tool
+ * Class representing a tool. Instances are immutable so they can be shared between
+ * concurrent checkouts
  */
-public class Tool {
+public final class Tool {
 
-    private String code;
-    private String brand;
-    private String type;
+    private final String code;
+    private final String brand;
+    private final String type;
 
     /**
      * Construct a Tool instance
@@ -25,23 +26,11 @@ public class Tool {
         return code;
     }
 
-    public void setCode(String code) {
-        this.code = code;
-    }
-
     public String getBrand() {
         return brand;
     }
 
-    public void setBrand(String brand) {
-        this.brand = brand;
-    }
-
     public String getType() {
         return type;
     }
-
-    public void setType(String type) {
-        this.type = type;
-    }
 }
@@ -0,0 +1,27 @@
+package com.mspigl.mp0421.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for EpochDays
+ */
+class EpochDaysTest {
+
+    @Test
+    void should_matchLocalDate_when_convertingDates() {
+        for (LocalDate day = LocalDate.of(1, 1, 1); day.getYear() < 2500; day = day.plusDays(13)) {
+            long epochDay = day.toEpochDay();
+
+            assertEquals(epochDay, EpochDays.of(day.getYear(), day.getMonthValue(), day.getDayOfMonth()));
+            assertEquals(day.getYear(), EpochDays.year(epochDay));
+            assertEquals(day.getMonthValue(), EpochDays.month(epochDay));
+            assertEquals(day.getDayOfMonth(), EpochDays.dayOfMonth(epochDay));
+            assertEquals(day.lengthOfMonth(), EpochDays.lengthOfMonth(day.getYear(), day.getMonthValue()));
+            assertEquals(day.getDayOfWeek().getValue() - 1, EpochDays.dayOfWeekIndex(epochDay));
+        }
+    }
+}
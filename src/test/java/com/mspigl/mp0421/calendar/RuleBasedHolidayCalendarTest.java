@@ -0,0 +1,139 @@
+package com.mspigl.mp0421.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RuleBasedHolidayCalendar
+ */
+class RuleBasedHolidayCalendarTest {
+
+    @Test
+    void should_matchRuleDefinitions_when_usingStandardCalendar() {
+        HolidayCalendar calendar = HolidayCalendar.standard();
+
+        for (int year = 2000; year <= 2040; year++) {
+            LocalDate laborDay = LocalDate.of(year, Month.SEPTEMBER, 1)
+                    .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+            LocalDate independenceDay = LocalDate.of(year, Month.JULY, 4);
+
+            if (independenceDay.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                independenceDay = independenceDay.minusDays(1);
+            } else if (independenceDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                independenceDay = independenceDay.plusDays(1);
+            }
+
+            assertTrue(calendar.isHoliday(laborDay));
+            assertTrue(calendar.isHoliday(independenceDay));
+            assertEquals(2, calendar.countHolidays(
+                    LocalDate.of(year, 1, 1).toEpochDay(),
+                    LocalDate.of(year, 12, 31).toEpochDay()
+            ));
+        }
+    }
+
+    @Test
+    void should_matchCachedYears_when_countingOutsideCachedWindow() {
+        HolidayCalendar calendar = new RuleBasedHolidayCalendar(Arrays.asList(
+                new FixedDateHolidayRule(Month.JANUARY, 1, true),
+                new FixedDateHolidayRule(Month.DECEMBER, 31, false),
+                new NthWeekdayHolidayRule(Month.SEPTEMBER, DayOfWeek.MONDAY, 1)
+        ));
+        long first = LocalDate.of(RuleBasedHolidayCalendar.LAST_CACHED_YEAR - 5, 1, 1).toEpochDay();
+        long last = LocalDate.of(RuleBasedHolidayCalendar.LAST_CACHED_YEAR + 5, 12, 31).toEpochDay();
+        int holidays = 0;
+        int weekendHolidays = 0;
+
+        for (long day = first; day <= last; day++) {
+            if (calendar.isHoliday(day)) {
+                holidays++;
+                weekendHolidays += EpochDays.isWeekend(day) ? 1 : 0;
+            }
+        }
+
+        // the calendar repeats every 400 years, so years past the window match years inside it
+        assertEquals(holidays, calendar.countHolidays(first, last));
+        assertEquals(weekendHolidays, calendar.countWeekendHolidays(first, last));
+        assertEquals(
+                calendar.countHolidays(first - 146097, last - 146097),
+                calendar.countHolidays(first, last)
+        );
+        assertEquals(
+                calendar.countWeekendHolidays(first - 146097, last - 146097),
+                calendar.countWeekendHolidays(first, last)
+        );
+    }
+
+    @Test
+    void should_countWithoutCaching_when_rangeSpansMillionsOfYears() {
+        HolidayCalendar calendar = HolidayCalendar.standard();
+        long first = LocalDate.of(2021, 1, 1).toEpochDay();
+
+        assertEquals(2 * 1000, calendar.countHolidays(first, LocalDate.of(3020, 12, 31).toEpochDay()));
+        assertTrue(calendar.countHolidays(first, first + Integer.MAX_VALUE) > 11_000_000);
+    }
+
+    @Test
+    void should_observeHolidayInPreviousYear_when_newYearsDayIsSaturday() {
+        HolidayCalendar calendar = new RuleBasedHolidayCalendar(Collections.singletonList(
+                new FixedDateHolidayRule(Month.JANUARY, 1, true)
+        ));
+
+        // January 1st 2022 is a Saturday
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, Month.DECEMBER, 31)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2022, Month.JANUARY, 1)));
+        assertEquals(0, calendar.countWeekendHolidays(
+                LocalDate.of(2021, Month.DECEMBER, 1).toEpochDay(),
+                LocalDate.of(2022, Month.JANUARY, 31).toEpochDay()
+        ));
+    }
+
+    @Test
+    void should_countWeekendHolidays_when_notObservedOnWeekday() {
+        HolidayCalendar calendar = new RuleBasedHolidayCalendar(Collections.singletonList(
+                new FixedDateHolidayRule(Month.DECEMBER, 25, false)
+        ));
+
+        // December 25th is a Saturday in 2021 and a Sunday in 2022
+        long from = LocalDate.of(2021, Month.JANUARY, 1).toEpochDay();
+        long to = LocalDate.of(2023, Month.DECEMBER, 31).toEpochDay();
+
+        assertEquals(3, calendar.countHolidays(from, to));
+        assertEquals(2, calendar.countWeekendHolidays(from, to));
+    }
+
+    @Test
+    void should_resolveLastWeekday_when_ordinalIsLast() {
+        HolidayCalendar calendar = new RuleBasedHolidayCalendar(Arrays.asList(
+                new NthWeekdayHolidayRule(Month.MAY, DayOfWeek.MONDAY, NthWeekdayHolidayRule.LAST),
+                new NthWeekdayHolidayRule(Month.NOVEMBER, DayOfWeek.THURSDAY, 4)
+        ));
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, Month.MAY, 31)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, Month.NOVEMBER, 25)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2021, Month.MAY, 24)));
+    }
+
+    @Test
+    void should_throwException_when_rulesAreNull() {
+        assertThrows(IllegalArgumentException.class, () -> new RuleBasedHolidayCalendar(null));
+    }
+
+    @Test
+    void should_throwException_when_fixedDateIsNotInEveryYear() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedDateHolidayRule(Month.FEBRUARY, 29, false));
+        assertThrows(IllegalArgumentException.class, () -> new FixedDateHolidayRule(Month.APRIL, 31, false));
+        assertEquals(
+                LocalDate.of(2021, Month.FEBRUARY, 28).toEpochDay(),
+                new FixedDateHolidayRule(Month.FEBRUARY, 28, false).observedEpochDay(2021)
+        );
+    }
+}
@@ -0,0 +1,119 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CatalogFile
+ */
+class CatalogFileTest {
+
+    @Test
+    void should_resolveToolsAndItems_when_openedFromFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.bin");
+        List<Tool> tools = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            tools.add(new Tool("Tool" + i, "Brand" + (i % 7), "Type" + (i % 3)));
+        }
+
+        tools.add(new Tool("Säge", "Stihl", "Type1"));
+        tools.add(new Tool("Orphan", "Brand", "Missing"));
+        tools.add(new Tool("Unbranded", null, "Type0"));
+
+        CatalogFile.write(file, tools, Arrays.asList(
+                new CatalogItem("Type0", 1.99, true, true, false),
+                new CatalogItem("Type1", 1.49, true, false, true),
+                new CatalogItem("Type2", 2.99, true, false, false)
+        ));
+
+        Catalog catalog = Catalog.open(file);
+
+        for (Tool tool : tools) {
+            Tool mapped = catalog.getTool(tool.getCode());
+
+            assertEquals(tool.getCode(), mapped.getCode());
+            assertEquals(tool.getBrand(), mapped.getBrand());
+        }
+
+        assertEquals("Type1", catalog.getTool("Säge").getType());
+        assertNull(catalog.getTool("Tool1000"));
+        assertNull(catalog.getTool(null));
+        assertEquals(1.49, catalog.getCatalogItem("Type1").getDailyCharge());
+        assertFalse(catalog.getCatalogItem("Type1").getWeekendChargeable());
+        assertNull(catalog.getCatalogItem("Missing"));
+
+        CatalogIndex index = catalog.snapshot().getIndex();
+        int typeId = index.toolTypeId(index.toolId("Tool2"));
+
+        assertEquals(299, index.dailyChargeCents(typeId));
+        assertEquals(CatalogItem.WEEKDAY_CHARGEABLE, index.chargeMask(typeId));
+        assertEquals(CatalogIndex.NOT_FOUND, index.toolTypeId(index.toolId("Orphan")));
+        assertEquals("Missing", catalog.getTool("Orphan").getType());
+        assertNull(catalog.getTool("Unbranded").getBrand());
+    }
+
+    @Test
+    void should_keepIds_when_mappedCatalogIsUpdated(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.bin");
+
+        CatalogFile.write(
+                file,
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1"), new Tool("Tool2", "Brand2", "Type1")),
+                Arrays.asList(new CatalogItem("Type1", 1.99, true, true, true))
+        );
+
+        Catalog catalog = Catalog.open(file);
+        int toolId = catalog.snapshot().getIndex().toolId("Tool2");
+
+        catalog.putCatalogItem(new CatalogItem("Type1", 2.49, true, true, true));
+
+        assertEquals(toolId, catalog.snapshot().getIndex().toolId("Tool2"));
+        assertEquals(2.49, catalog.getCatalogItem("Type1").getDailyCharge());
+        assertEquals("Brand1", catalog.getTool("Tool1").getBrand());
+    }
+
+    @Test
+    void should_throwException_when_fileIsNotACatalog(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("other.bin");
+
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> Catalog.open(file));
+    }
+
+    @Test
+    void should_throwException_when_fileIsTruncated(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.bin");
+        Path truncated = directory.resolve("truncated.bin");
+
+        CatalogFile.write(
+                file,
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1"), new Tool("Tool2", "Brand2", "Type2")),
+                Arrays.asList(
+                        new CatalogItem("Type1", 1.99, true, true, true),
+                        new CatalogItem("Type2", 2.99, true, false, true)
+                )
+        );
+
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+
+            assertThrows(IOException.class, () -> Catalog.open(truncated), "length " + length);
+        }
+
+        assertEquals("Brand2", Catalog.open(file).getTool("Tool2").getBrand());
+    }
+}
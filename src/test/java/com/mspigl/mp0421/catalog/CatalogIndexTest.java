@@ -0,0 +1,89 @@
+package com.mspigl.mp0421.catalog;
+
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CatalogIndex
+ */
+class CatalogIndexTest {
+
+    @Test
+    void should_storePricingByTypeId() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1"), new Tool("Tool2", "Brand2", "Type2")),
+                Arrays.asList(
+                        new CatalogItem("Type1", 1.99, true, false, true),
+                        new CatalogItem("Type2", 2.49, false, true, false)
+                )
+        );
+        CatalogIndex index = catalog.snapshot().getIndex();
+
+        int tool1 = index.toolId("Tool1");
+        int type1 = index.toolTypeId(tool1);
+
+        assertEquals("Tool1", index.tool(tool1).getCode());
+        assertEquals(index.typeId("Type1"), type1);
+        assertEquals(199, index.dailyChargeCents(type1));
+        assertEquals(CatalogItem.WEEKDAY_CHARGEABLE | CatalogItem.HOLIDAY_CHARGEABLE, index.chargeMask(type1));
+        assertEquals(CatalogItem.WEEKEND_CHARGEABLE, index.chargeMask(index.typeId("Type2")));
+    }
+
+    @Test
+    void should_returnNotFound_when_codeOrTypeIsMissing() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type3")),
+                Arrays.asList(new CatalogItem("Type1", 1.99, true, true, true))
+        );
+        CatalogIndex index = catalog.snapshot().getIndex();
+
+        assertEquals(CatalogIndex.NOT_FOUND, index.toolId("Missing"));
+        assertEquals(CatalogIndex.NOT_FOUND, index.toolId(null));
+        assertEquals(CatalogIndex.NOT_FOUND, index.typeId("Type3"));
+        assertEquals(CatalogIndex.NOT_FOUND, index.toolTypeId(index.toolId("Tool1")));
+        assertNull(index.tool(CatalogIndex.NOT_FOUND));
+    }
+
+    @Test
+    void should_keepIds_when_catalogIsUpdated() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1"), new Tool("Tool2", "Brand2", "Type1")),
+                Arrays.asList(new CatalogItem("Type1", 1.99, true, true, true))
+        );
+        int tool2 = catalog.snapshot().getIndex().toolId("Tool2");
+        int type1 = catalog.snapshot().getIndex().typeId("Type1");
+
+        catalog.removeTool("Tool1");
+        catalog.putTool(new Tool("Tool3", "Brand3", "Type1"));
+        catalog.putCatalogItem(new CatalogItem("Type1", 2.99, true, true, true));
+
+        CatalogIndex index = catalog.snapshot().getIndex();
+
+        assertEquals(tool2, index.toolId("Tool2"));
+        assertEquals(type1, index.typeId("Type1"));
+        assertEquals(299, index.dailyChargeCents(type1));
+        assertEquals(CatalogIndex.NOT_FOUND, index.toolId("Tool1"));
+        assertEquals(type1, index.toolTypeId(index.toolId("Tool3")));
+    }
+
+    @Test
+    void should_findEveryTool_when_catalogIsLarge() {
+        List<Tool> tools = new ArrayList<>();
+
+        for (int i = 0; i < 10000; i++) {
+            tools.add(new Tool("Tool" + i, "Brand", "Type" + (i % 10)));
+        }
+
+        CatalogIndex index = new Catalog(tools, new ArrayList<>()).snapshot().getIndex();
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals("Tool" + i, index.tool(index.toolId("Tool" + i)).getCode());
+        }
+    }
+}
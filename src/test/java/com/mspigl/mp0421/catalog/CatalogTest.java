@@ -42,4 +42,69 @@ class CatalogTest {
     void should_throwException_when_toolListIsNull() {
         assertThrows(IllegalArgumentException.class, () -> new Catalog(null, null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_keepSnapshotUnchanged_when_catalogIsUpdated() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1")),
+                Arrays.asList(new CatalogItem("Type1", 1.99, true, true, true))
+        );
+
+        CatalogSnapshot before = catalog.snapshot();
+
+        catalog.putCatalogItem(new CatalogItem("Type1", 2.49, true, true, true));
+        catalog.putTool(new Tool("Tool2", "Brand2", "Type1"));
+        catalog.removeTool("Tool1");
+
+        CatalogSnapshot after = catalog.snapshot();
+
+        assertEquals(1.99, before.getCatalogItem("Type1").getDailyCharge());
+        assertNotNull(before.getTool("Tool1"));
+        assertNull(before.getTool("Tool2"));
+        assertEquals(2.49, after.getCatalogItem("Type1").getDailyCharge());
+        assertNull(after.getTool("Tool1"));
+        assertNotNull(after.getTool("Tool2"));
+        assertEquals(before.getVersion() + 3, after.getVersion());
+    }
+
+    @Test
+    void should_keepEveryUpdate_when_updatedConcurrently() throws InterruptedException {
+        Catalog catalog = new Catalog();
+        Thread[] writers = new Thread[4];
+
+        for (int w = 0; w < writers.length; w++) {
+            int writer = w;
+
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    catalog.putTool(new Tool("Tool" + writer + "-" + i, "Brand", "Type"));
+                }
+            });
+            writers[w].start();
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(1000, catalog.snapshot().getTools().size());
+        assertEquals(1000, catalog.snapshot().getVersion());
+    }
+
+    @Test
+    void should_replaceContentAtomically_when_replaceAllIsCalled() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("Tool1", "Brand1", "Type1")),
+                Arrays.asList(new CatalogItem("Type1", 1.99, true, true, true))
+        );
+
+        catalog.replaceAll(
+                Arrays.asList(new Tool("Tool2", "Brand2", "Type2")),
+                Arrays.asList(new CatalogItem("Type2", 2.99, true, true, true))
+        );
+
+        assertNull(catalog.getTool("Tool1"));
+        assertNull(catalog.getCatalogItem("Type1"));
+        assertEquals("Type2", catalog.getTool("Tool2").getType());
+    }
+}
@@ -0,0 +1,180 @@
+package com.mspigl.mp0421.cluster;
+
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.store.CheckoutError;
+import com.mspigl.mp0421.store.CheckoutRequest;
+import com.mspigl.mp0421.store.CheckoutResult;
+import com.mspigl.mp0421.store.RentalAgreement;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for StoreCluster
+ */
+class StoreClusterTest {
+
+    private static final int TOOL_COUNT = 64;
+
+    private StoreCluster cluster;
+
+    @BeforeEach
+    void setUp() {
+        List<Tool> tools = new ArrayList<>();
+        Map<String, Integer> units = new HashMap<>();
+
+        for (int i = 0; i < TOOL_COUNT; i++) {
+            tools.add(new Tool("T" + i, "Brand", i % 2 == 0 ? "Chainsaw" : "Ladder"));
+            units.put("T" + i, 1);
+        }
+
+        cluster = new StoreCluster(
+                4,
+                tools,
+                Arrays.asList(
+                        new CatalogItem("Chainsaw", 1.49, true, false, true),
+                        new CatalogItem("Ladder", 1.99, true, true, false)
+                ),
+                HolidayCalendar.standard(),
+                units
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        cluster.close();
+    }
+
+    @Test
+    void should_partitionCatalog_when_constructed() {
+        int toolCount = 0;
+
+        for (int i = 0; i < cluster.getShardCount(); i++) {
+            for (int t = 0; t < TOOL_COUNT; t++) {
+                boolean owned = cluster.getShard(i).getCatalog().getTool("T" + t) != null;
+
+                assertEquals(cluster.shardIndex("T" + t) == i, owned);
+
+                if (owned) {
+                    toolCount++;
+                }
+            }
+        }
+
+        assertEquals(TOOL_COUNT, toolCount);
+    }
+
+    @Test
+    void should_routeCheckout_when_toolIsOwnedByShard() {
+        RentalAgreement agreement = cluster.checkout("T0", 7, 75, "7/2/21");
+
+        assertEquals(5, agreement.getChargeDays());
+        assertEquals(186, agreement.getFinalChargeCents());
+        assertEquals(1, cluster.getShard(cluster.shardIndex("T0")).getMetrics().getCheckoutCount());
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> cluster.checkout("T0", 7, 75, "7/2/21")
+        );
+
+        assertEquals(CheckoutError.TOOL_UNAVAILABLE.getMessage(), e.getMessage());
+        assertTrue(cluster.cancel(agreement));
+        assertNotNull(cluster.checkout("T0", 7, 75, "7/2/21"));
+    }
+
+    @Test
+    void should_returnResultsInInputOrder_when_batchSpansShards() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+
+        for (int i = 0; i < TOOL_COUNT; i++) {
+            requests.add(new CheckoutRequest("T" + i, 3, 10, "7/2/20"));
+        }
+
+        requests.add(new CheckoutRequest("T5", 3, 10, "7/2/20"));
+        requests.add(new CheckoutRequest("MISSING", 3, 10, "7/2/20"));
+
+        List<CheckoutResult> results = cluster.checkoutBatch(requests);
+
+        assertEquals(requests.size(), results.size());
+
+        for (int i = 0; i < TOOL_COUNT; i++) {
+            assertSame(requests.get(i), results.get(i).getRequest());
+            assertEquals("T" + i, results.get(i).getRentalAgreement().getToolCode());
+        }
+
+        assertEquals(CheckoutError.TOOL_UNAVAILABLE, results.get(TOOL_COUNT).getError());
+        assertEquals(CheckoutError.TOOL_NOT_IN_CATALOG, results.get(TOOL_COUNT + 1).getError());
+    }
+
+    @Test
+    void should_reserveEachUnitOnce_when_submissionsAreConcurrent() {
+        List<CompletableFuture<CheckoutResult>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> cluster.tryCheckout(new CheckoutRequest("T3", 3, 0, "7/2/20"))));
+        }
+
+        long successes = futures.stream().map(CompletableFuture::join).filter(CheckoutResult::isSuccess).count();
+
+        assertEquals(1, successes);
+    }
+
+    @Test
+    void should_quoteWithoutReserving() {
+        assertEquals(3, cluster.quote("T1", 3, 0, "7/2/20").getRentalDays());
+        assertTrue(cluster.tryCheckout(new CheckoutRequest("T1", 3, 0, "7/2/20")).isSuccess());
+        assertNotNull(cluster.quote("T1", 3, 0, "7/2/20"));
+    }
+
+    @Test
+    void should_completeEverySubmission_when_closedConcurrently() {
+        for (int round = 0; round < 200; round++) {
+            StoreCluster racing = new StoreCluster(
+                    1,
+                    Arrays.asList(new Tool("T0", "Brand", "Chainsaw")),
+                    Arrays.asList(new CatalogItem("Chainsaw", 1.49, true, false, true)),
+                    HolidayCalendar.standard(),
+                    new HashMap<>()
+            );
+            List<CompletableFuture<CheckoutResult>> futures = new ArrayList<>();
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    futures.add(racing.submit(new CheckoutRequest("T0", 3, 0, "7/2/20")));
+                }
+            });
+
+            submitter.start();
+            racing.close();
+            assertDoesNotThrow(() -> submitter.join());
+
+            for (CompletableFuture<CheckoutResult> future : futures) {
+                assertTrue(future.isDone(), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void should_failSubmission_when_clusterIsClosed() {
+        cluster.close();
+
+        CompletionException e = assertThrows(
+                CompletionException.class,
+                () -> cluster.submit(new CheckoutRequest("T0", 3, 0, "7/2/20")).join()
+        );
+
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertThrows(IllegalStateException.class, () -> cluster.checkout("T0", 3, 0, "7/2/20"));
+    }
+}
@@ -0,0 +1,145 @@
+package com.mspigl.mp0421.discount;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DiscountTable
+ */
+class DiscountTableTest {
+
+    private static final CatalogIndex INDEX = new Catalog(
+            Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+            Arrays.asList(
+                    new CatalogItem("Chainsaw", 1.49, true, false, true),
+                    new CatalogItem("Ladder", 1.99, true, true, false)
+            )
+    ).snapshot().getIndex();
+
+    private static final int CHAINSAW = INDEX.typeId("Chainsaw");
+    private static final int LADDER = INDEX.typeId("Ladder");
+    private static final long JULY_1 = LocalDate.of(2021, 7, 1).toEpochDay();
+
+    @Test
+    void should_grantNoDiscount_when_noRuleMatches() {
+        DiscountTable table = DiscountTable.compile(List.of(DiscountRule.forDuration(7, 10)), INDEX);
+
+        assertEquals(0, DiscountTable.NONE.discountPercent(CHAINSAW, 30, JULY_1, 3));
+        assertEquals(0, table.discountPercent(CHAINSAW, 6, JULY_1, 0));
+        assertEquals(1, table.getRuleCount());
+    }
+
+    @Test
+    void should_applyTieredDurationDiscounts() {
+        DiscountTable table = DiscountTable.compile(
+                List.of(DiscountRule.forDuration(7, 10), DiscountRule.forDuration(30, 20)),
+                INDEX
+        );
+
+        assertEquals(0, table.discountPercent(LADDER, 1, JULY_1, 0));
+        assertEquals(10, table.discountPercent(LADDER, 7, JULY_1, 0));
+        assertEquals(10, table.discountPercent(LADDER, 29, JULY_1, 0));
+        assertEquals(20, table.discountPercent(LADDER, 30, JULY_1, 0));
+        assertEquals(20, table.discountPercent(LADDER, 365, JULY_1, 0));
+    }
+
+    @Test
+    void should_applyPromotion_when_toolTypeMatches() {
+        DiscountTable table = DiscountTable.compile(
+                List.of(DiscountRule.forToolType("Chainsaw", 15), DiscountRule.forToolType("Unknown", 50)),
+                INDEX
+        );
+
+        assertEquals(15, table.discountPercent(CHAINSAW, 3, JULY_1, 0));
+        assertEquals(0, table.discountPercent(LADDER, 3, JULY_1, 0));
+        assertEquals(0, table.discountPercent(CatalogIndex.NOT_FOUND, 3, JULY_1, 0));
+    }
+
+    @Test
+    void should_applySale_when_checkoutDateIsInWindow() {
+        DiscountTable table = DiscountTable.compile(
+                List.of(DiscountRule.forDateWindow(LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 5), 25)),
+                INDEX
+        );
+
+        assertEquals(0, table.discountPercent(CHAINSAW, 3, JULY_1 - 1, 0));
+        assertEquals(25, table.discountPercent(CHAINSAW, 3, JULY_1, 0));
+        assertEquals(25, table.discountPercent(CHAINSAW, 3, JULY_1 + 4, 0));
+        assertEquals(0, table.discountPercent(CHAINSAW, 3, JULY_1 + 5, 0));
+    }
+
+    @Test
+    void should_applyBestDiscount_when_rulesOverlap() {
+        DiscountTable table = DiscountTable.compile(
+                List.of(
+                        DiscountRule.forLoyaltyTier(1, 5),
+                        DiscountRule.forLoyaltyTier(3, 12),
+                        DiscountRule.forToolType("Ladder", 8),
+                        new DiscountRule("Ladder", 10, LocalDate.of(2021, 7, 1), null, 2, 30)
+                ),
+                INDEX
+        );
+
+        assertEquals(5, table.discountPercent(CHAINSAW, 3, JULY_1, 2));
+        assertEquals(12, table.discountPercent(CHAINSAW, 3, JULY_1, 9));
+        assertEquals(8, table.discountPercent(LADDER, 3, JULY_1, 1));
+        assertEquals(30, table.discountPercent(LADDER, 10, JULY_1, 2));
+        assertEquals(12, table.discountPercent(LADDER, 10, JULY_1 - 1, 3));
+    }
+
+    @Test
+    void should_compileSmallTable_when_boundsAreExtreme() {
+        DiscountTable table = DiscountTable.compile(
+                List.of(DiscountRule.forDuration(Integer.MAX_VALUE, 10), DiscountRule.forLoyaltyTier(1_500_000_000, 20)),
+                INDEX
+        );
+
+        assertEquals(0, table.discountPercent(LADDER, Integer.MAX_VALUE - 1, JULY_1, 1_499_999_999));
+        assertEquals(10, table.discountPercent(LADDER, Integer.MAX_VALUE, JULY_1, 0));
+        assertEquals(20, table.discountPercent(LADDER, 1, JULY_1, Integer.MAX_VALUE));
+        assertEquals(0, table.discountPercent(LADDER, -5, JULY_1, -5));
+    }
+
+    @Test
+    void should_recompile_when_indexAssignsOtherIds() {
+        CatalogIndex reordered = new Catalog(
+                Arrays.asList(new Tool("LADW", "Werner", "Ladder"), new Tool("CHNS", "Stihl", "Chainsaw")),
+                Arrays.asList(
+                        new CatalogItem("Ladder", 1.99, true, true, false),
+                        new CatalogItem("Chainsaw", 1.49, true, false, true)
+                )
+        ).snapshot().getIndex();
+        DiscountTable typed = DiscountTable.compile(List.of(DiscountRule.forToolType("Chainsaw", 15)), INDEX);
+        DiscountTable untyped = DiscountTable.compile(List.of(DiscountRule.forDuration(3, 5)), INDEX);
+
+        assertTrue(typed.isCompiledFor(INDEX));
+        assertFalse(typed.isCompiledFor(reordered));
+        assertTrue(untyped.isCompiledFor(reordered));
+        assertSame(untyped, untyped.recompile(reordered));
+
+        DiscountTable recompiled = typed.recompile(reordered);
+
+        assertEquals(15, recompiled.discountPercent(reordered.typeId("Chainsaw"), 3, JULY_1, 0));
+        assertEquals(0, recompiled.discountPercent(reordered.typeId("Ladder"), 3, JULY_1, 0));
+        assertEquals(1, recompiled.getRuleCount());
+    }
+
+    @Test
+    void should_throwException_when_ruleIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.forDuration(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.forLoyaltyTier(1, 101));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> DiscountRule.forDateWindow(LocalDate.of(2021, 7, 5), LocalDate.of(2021, 7, 1), 10)
+        );
+    }
+}
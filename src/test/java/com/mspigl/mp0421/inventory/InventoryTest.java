@@ -0,0 +1,141 @@
+package com.mspigl.mp0421.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Inventory
+ */
+class InventoryTest {
+
+    @Test
+    void should_reserveFreeUnit_when_rangesOverlap() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("Tool1", 2);
+
+        Reservation first = inventory.reserve("Tool1", 10, 20);
+        Reservation second = inventory.reserve("Tool1", 15, 25);
+
+        assertEquals(0, first.getUnit());
+        assertEquals(1, second.getUnit());
+        assertNull(inventory.reserve("Tool1", 20, 21));
+        assertEquals(0, inventory.countAvailableUnits("Tool1", 18, 22));
+        assertEquals(1, inventory.countAvailableUnits("Tool1", 21, 22));
+        assertEquals(0, inventory.reserve("Tool1", 21, 30).getUnit());
+    }
+
+    @Test
+    void should_makeUnitAvailable_when_reservationIsReleased() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("Tool1", 1);
+
+        Reservation reservation = inventory.reserve("Tool1", 10, 20);
+
+        assertNull(inventory.reserve("Tool1", 5, 10));
+        assertTrue(inventory.release(reservation));
+        assertFalse(inventory.release(reservation));
+        assertNotNull(inventory.reserve("Tool1", 5, 10));
+    }
+
+    @Test
+    void should_keepUnit_when_reservationIsExtended() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("Tool1", 1);
+
+        Reservation reservation = inventory.reserve("Tool1", 10, 20);
+        inventory.reserve("Tool1", 25, 30);
+
+        Reservation extended = inventory.extend(reservation, 24);
+
+        assertEquals(0, extended.getUnit());
+        assertEquals(10, extended.getFirstEpochDay());
+        assertEquals(24, extended.getLastEpochDay());
+        assertNull(inventory.extend(extended, 25));
+        assertNull(inventory.extend(reservation, 22));
+        assertFalse(inventory.isHeld(reservation));
+        assertTrue(inventory.isHeld(extended));
+        assertEquals(0, inventory.countAvailableUnits("Tool1", 21, 24));
+        assertTrue(inventory.release(extended));
+        assertFalse(inventory.isHeld(extended));
+        assertThrows(IllegalArgumentException.class, () -> inventory.extend(extended, 24));
+    }
+
+    @Test
+    void should_keepRebooking_when_staleReservationIsReleasedAgain() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("Tool1", 1);
+
+        Reservation cancelled = inventory.reserve("Tool1", 10, 20);
+
+        assertTrue(inventory.release(cancelled));
+
+        Reservation rebooked = inventory.reserve("Tool1", 10, 20);
+
+        assertFalse(inventory.release(cancelled));
+        assertFalse(inventory.isHeld(cancelled));
+        assertTrue(inventory.isHeld(rebooked));
+        assertNull(inventory.extend(cancelled, 22));
+        assertEquals(0, inventory.countAvailableUnits("Tool1", 10, 20));
+        assertTrue(inventory.release(rebooked));
+        assertEquals(1, inventory.countAvailableUnits("Tool1", 10, 20));
+    }
+
+    @Test
+    void should_alwaysReserve_when_toolIsNotTracked() {
+        Inventory inventory = new Inventory();
+
+        assertEquals(-1, inventory.getUnits("Tool1"));
+        assertNotNull(inventory.reserve("Tool1", 1, 2));
+        assertNotNull(inventory.reserve("Tool1", 1, 2));
+    }
+
+    @Test
+    void should_throwException_when_removingReservedUnit() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("Tool1", 2);
+        inventory.reserve("Tool1", 1, 2);
+        inventory.reserve("Tool1", 1, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> inventory.setUnits("Tool1", 1));
+    }
+
+    @Test
+    void should_neverOverbook_when_reservedConcurrently() throws InterruptedException {
+        Inventory inventory = new Inventory(4);
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] counters = new Thread[8];
+
+        inventory.setUnits("Tool1", 5);
+        inventory.setUnits("Tool2", 3);
+
+        for (int t = 0; t < counters.length; t++) {
+            counters[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                for (int i = 0; i < 100; i++) {
+                    if (inventory.reserve(i % 2 == 0 ? "Tool1" : "Tool2", 100, 110) != null) {
+                        reserved.incrementAndGet();
+                    }
+                }
+            });
+            counters[t].start();
+        }
+
+        start.countDown();
+
+        for (Thread counter : counters) {
+            counter.join();
+        }
+
+        assertEquals(8, reserved.get());
+    }
+}
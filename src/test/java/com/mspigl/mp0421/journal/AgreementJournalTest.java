@@ -0,0 +1,169 @@
+package com.mspigl.mp0421.journal;
+
+import com.mspigl.mp0421.store.RentalAgreement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AgreementJournal
+ */
+class AgreementJournalTest {
+
+    private static RentalAgreement agreement(int rentalDays) {
+        RentalAgreement agreement = new RentalAgreement();
+        agreement.setToolCode("JAKR");
+        agreement.setToolType("Jackhammer");
+        agreement.setToolBrand("Ridgid");
+        agreement.setCheckoutDate("07/02/20");
+        agreement.setDueDate("07/07/20");
+        agreement.setRentalDays(rentalDays);
+        agreement.setChargeDays(3);
+        agreement.setDiscountPercent(10);
+        agreement.setDailyChargeCents(299);
+
+        return agreement;
+    }
+
+    @Test
+    void should_replayEveryAgreement_when_appendedConcurrently(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = new AgreementJournal(file, FsyncPolicy.INTERVAL, 5, TimeUnit.MILLISECONDS)) {
+            List<CompletableFuture<Void>> futures = IntStream.rangeClosed(1, 2000)
+                    .parallel()
+                    .mapToObj(i -> journal.append(agreement(i)))
+                    .collect(Collectors.toList());
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        List<RentalAgreement> replayed = new ArrayList<>();
+
+        assertEquals(2000, AgreementJournal.replay(file, replayed::add));
+        assertEquals(
+                IntStream.rangeClosed(1, 2000).sum(),
+                replayed.stream().mapToInt(RentalAgreement::getRentalDays).sum()
+        );
+
+        RentalAgreement first = replayed.get(0);
+
+        assertEquals("JAKR", first.getToolCode());
+        assertEquals("Ridgid", first.getToolBrand());
+        assertEquals("07/07/20", first.getDueDate());
+        assertEquals(10, first.getDiscountPercent());
+        assertEquals(299, first.getDailyChargeCents());
+        assertEquals(agreement(first.getRentalDays()).toString(), first.toString());
+    }
+
+    @Test
+    void should_truncateTornTail_when_replayed(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = new AgreementJournal(file)) {
+            journal.append(agreement(1)).join();
+            journal.append(agreement(2)).join();
+        }
+
+        long validSize = Files.size(file);
+
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertEquals(2, AgreementJournal.replay(file, agreement -> { }));
+        assertEquals(validSize, Files.size(file));
+    }
+
+    @Test
+    void should_appendAfterValidRecords_when_reopenedWithCorruptTail(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = new AgreementJournal(file)) {
+            journal.append(agreement(1)).join();
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        try (AgreementJournal journal = new AgreementJournal(file, FsyncPolicy.NEVER, 0, TimeUnit.MILLISECONDS)) {
+            journal.append(agreement(2)).join();
+        }
+
+        List<RentalAgreement> replayed = new ArrayList<>();
+
+        assertEquals(1, AgreementJournal.replay(file, replayed::add));
+        assertEquals(2, replayed.get(0).getRentalDays());
+    }
+
+    @Test
+    void should_failAppend_when_closed(@TempDir Path directory) throws IOException {
+        AgreementJournal journal = new AgreementJournal(directory.resolve("agreements.journal"));
+        journal.close();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> journal.append(agreement(1)).get());
+
+        assertEquals(AgreementJournal.JOURNAL_CLOSED_ERROR_MESSAGE, exception.getCause().getMessage());
+    }
+
+    @Test
+    void should_completeEveryAppend_when_closedConcurrently(@TempDir Path directory) throws IOException {
+        for (int round = 0; round < 100; round++) {
+            AgreementJournal journal = new AgreementJournal(directory.resolve("agreements-" + round + ".journal"));
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            Thread appender = new Thread(() -> {
+                for (int i = 1; i <= 50; i++) {
+                    futures.add(journal.append(agreement(i)));
+                }
+            });
+            Thread closer = new Thread(() -> assertDoesNotThrow(journal::close));
+
+            appender.start();
+            closer.start();
+            journal.close();
+            assertDoesNotThrow(() -> appender.join());
+            assertDoesNotThrow(() -> closer.join());
+
+            for (CompletableFuture<Void> future : futures) {
+                assertTrue(future.isDone(), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void should_throwException_when_fileIsHeldByAnotherJournal(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = new AgreementJournal(file)) {
+            journal.append(agreement(1)).join();
+
+            IOException e = assertThrows(IOException.class, () -> new AgreementJournal(file));
+
+            assertTrue(e.getMessage().startsWith(AgreementJournal.JOURNAL_LOCKED_ERROR_MESSAGE));
+            assertThrows(IOException.class, () -> AgreementJournal.replay(file, agreement -> { }));
+        }
+
+        try (AgreementJournal journal = new AgreementJournal(file)) {
+            journal.append(agreement(2)).join();
+        }
+
+        assertEquals(2, AgreementJournal.replay(file, agreement -> { }));
+    }
+
+    @Test
+    void should_replayNothing_when_fileMissing(@TempDir Path directory) throws IOException {
+        assertEquals(0, AgreementJournal.replay(directory.resolve("missing.journal"), agreement -> { }));
+    }
+}
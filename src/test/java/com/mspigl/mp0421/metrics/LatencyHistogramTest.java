@@ -0,0 +1,57 @@
+package com.mspigl.mp0421.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LatencyHistogram
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void should_boundBucketError_when_valueIsLarge() {
+        for (long value = 0; value < 1_000_000_000L; value = value * 3 / 2 + 1) {
+            long reported = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+
+            assertTrue(reported >= value);
+            assertTrue(reported - value <= value / 32, "value " + value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void should_reportPercentiles_when_valuesRecordedConcurrently() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        IntStream.rangeClosed(1, 10_000).parallel().forEach(histogram::record);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5000.5, snapshot.getMean());
+        assertEquals(5000, snapshot.getValueAtPercentile(50), 5000 / 32);
+        assertEquals(9900, snapshot.getValueAtPercentile(99), 9900 / 32);
+        assertEquals(10_000, snapshot.getMax(), 10_000 / 32);
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+    }
+
+    @Test
+    void should_reportZero_when_emptyOrReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(2, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(50));
+
+        histogram.reset();
+
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+}
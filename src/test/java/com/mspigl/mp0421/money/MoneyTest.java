@@ -0,0 +1,54 @@
+package com.mspigl.mp0421.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Money
+ */
+class MoneyTest {
+
+    @Test
+    void should_roundToNearestCent_when_convertingToCents() {
+        assertEquals(199, Money.toCents(1.99));
+        assertEquals(13, Money.toCents(0.125));
+        assertEquals(-199, Money.toCents(-1.99));
+        assertEquals(0, Money.toCents(0));
+    }
+
+    @Test
+    void should_roundHalfUp_when_takingPercentage() {
+        assertEquals(150, Money.percentOf(299, 50));
+        assertEquals(40, Money.percentOf(398, 10));
+        assertEquals(112, Money.percentOf(447, 25));
+        assertEquals(111, Money.percentOf(445, 25));
+        assertEquals(-150, Money.percentOf(-299, 50));
+    }
+
+    @Test
+    void should_throwException_when_productOverflows() {
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void should_formatTwoFractionDigits_when_formattingDecimal() {
+        assertEquals("1.99", Money.toDecimalString(199));
+        assertEquals("0.05", Money.toDecimalString(5));
+        assertEquals("-1.05", Money.toDecimalString(-105));
+        assertEquals("1000.00", Money.toDecimalString(100000));
+    }
+
+    @Test
+    void should_matchCurrencyNumberFormat_when_formattingCurrency() {
+        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(new Locale("en", "US"));
+        long[] amounts = {0, 5, 99, 149, 100000, 123456789, 100000000000L, -50, -123456};
+
+        for (long cents : amounts) {
+            assertEquals(numberFormat.format(Money.toAmount(cents)), Money.toCurrencyString(cents));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mspigl.mp0421.pipeline;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.store.Store;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BulkCheckoutPipeline
+ */
+class BulkCheckoutPipelineTest {
+
+    private static final Store STORE = new Store(new Catalog(
+            Arrays.asList(
+                    new Tool("LADW", "Werner", "Ladder"),
+                    new Tool("CHNS", "Stihl", "Chainsaw")
+            ),
+            Arrays.asList(
+                    new CatalogItem("Ladder", 1.99, true, true, false),
+                    new CatalogItem("Chainsaw", 1.49, true, false, true)
+            )
+    ));
+
+    @Test
+    void should_writeAgreementsAndRejects_when_readingCsvFile(@TempDir Path directory) throws IOException {
+        Path input = directory.resolve("requests.csv");
+        Path agreements = directory.resolve("agreements.csv");
+        Path rejects = directory.resolve("rejects.csv");
+
+        Files.write(input, Arrays.asList(
+                "toolCode,days,discount,date",
+                "LADW,3,10,7/2/20",
+                "JAKR,5,0,9/3/15",
+                "",
+                "CHNS,7,75,7/2/21",
+                "CHNS,seven,75,7/2/21"
+        ), StandardCharsets.UTF_8);
+
+        PipelineSummary summary = new BulkCheckoutPipeline(STORE).run(input, agreements, rejects);
+
+        assertEquals(4, summary.getRecordsRead());
+        assertEquals(2, summary.getAgreementsWritten());
+        assertEquals(2, summary.getRejectsWritten());
+        assertEquals(Arrays.asList(
+                "LADW,Ladder,Werner,3,07/02/20,07/05/20,1.99,2,3.98,10,0.40,3.58",
+                "CHNS,Chainsaw,Stihl,7,07/02/21,07/09/21,1.49,5,7.45,75,5.59,1.86"
+        ), Files.readAllLines(agreements, StandardCharsets.UTF_8));
+
+        List<String> rejectLines = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+
+        assertTrue(rejectLines.get(0).startsWith("3,"));
+        assertTrue(rejectLines.get(0).endsWith("JAKR,5,0,9/3/15\""));
+        assertTrue(rejectLines.get(1).startsWith("6,"));
+    }
+
+    @Test
+    void should_readDataRows_when_lineLooksLikeHeader() throws IOException {
+        String input = "toolCodes,3,10,7/2/20\n"
+                + "LADW,3,10,7/2/20\n"
+                + "toolCode,days,discount,date\n";
+        StringWriter agreements = new StringWriter();
+        StringWriter rejects = new StringWriter();
+
+        PipelineSummary summary = new BulkCheckoutPipeline(STORE).run(
+                new BufferedReader(new StringReader(input)),
+                RecordFormat.CSV,
+                agreements,
+                rejects
+        );
+
+        assertEquals(3, summary.getRecordsRead());
+        assertEquals(1, summary.getAgreementsWritten());
+        assertEquals(2, summary.getRejectsWritten());
+
+        String[] rejectLines = rejects.toString().split("\n");
+
+        assertTrue(rejectLines[0].startsWith("1,"), rejectLines[0]);
+        assertTrue(rejectLines[1].startsWith("3,"), rejectLines[1]);
+    }
+
+    @Test
+    void should_keepInputOrder_when_manyRecordsAreInFlight() throws IOException {
+        StringBuilder input = new StringBuilder();
+
+        for (int i = 1; i <= 2000; i++) {
+            input.append("{\"toolCode\": \"CHNS\", \"days\": ").append(i % 40 + 1)
+                    .append(", \"discount\": ").append(i % 101).append(", \"date\": \"7/2/21\"}\n");
+        }
+
+        input.append("{\"toolCode\": \"CHNS\", \"days\": 3}\n");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        StringWriter agreements = new StringWriter();
+        StringWriter rejects = new StringWriter();
+
+        try {
+            PipelineSummary summary = new BulkCheckoutPipeline(STORE, executor, 16).run(
+                    new BufferedReader(new StringReader(input.toString())),
+                    RecordFormat.JSONL,
+                    agreements,
+                    rejects
+            );
+
+            assertEquals(2001, summary.getRecordsRead());
+            assertEquals(2000, summary.getAgreementsWritten());
+        } finally {
+            executor.shutdown();
+        }
+
+        String[] lines = agreements.toString().split("\n");
+
+        for (int i = 1; i <= 2000; i++) {
+            assertTrue(lines[i - 1].contains("\"rentalDays\":" + (i % 40 + 1) + ","), lines[i - 1]);
+            assertTrue(lines[i - 1].contains("\"discountPercent\":" + (i % 101) + ","), lines[i - 1]);
+        }
+
+        assertEquals(
+                "{\"line\":2001,\"error\":\"" + RecordFormat.MALFORMED_RECORD_ERROR_MESSAGE
+                        + "\",\"record\":\"{\\\"toolCode\\\": \\\"CHNS\\\", \\\"days\\\": 3}\"}\n",
+                rejects.toString()
+        );
+    }
+}
@@ -0,0 +1,142 @@
+package com.mspigl.mp0421.reload;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogSnapshot;
+import com.mspigl.mp0421.discount.DiscountRule;
+import com.mspigl.mp0421.discount.DiscountTable;
+import com.mspigl.mp0421.store.Store;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CatalogReloader
+ */
+class CatalogReloaderTest {
+
+    private static final String CHAINSAW_PRICING =
+            "{\"toolType\":\"Chainsaw\",\"dailyCharge\":1.49,\"weekday\":true,\"weekend\":false,\"holiday\":true}";
+    private static final String CHAINSAW = "{\"toolCode\":\"CHNS\",\"brand\":\"Stihl\",\"toolType\":\"Chainsaw\"}";
+
+    private static void write(Path file, String... lines) throws IOException {
+        Path staging = file.resolveSibling(file.getFileName() + ".tmp");
+
+        Files.write(staging, String.join("\n", lines).getBytes());
+        Files.move(staging, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void should_loadCatalog_when_started(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.jsonl");
+        write(file, "# tools", CHAINSAW_PRICING, "", CHAINSAW);
+
+        Catalog catalog = new Catalog();
+        AtomicReference<CatalogSnapshot> published = new AtomicReference<>();
+
+        try (CatalogReloader reloader = new CatalogReloader(file, catalog, published::set)) {
+            reloader.start();
+
+            assertEquals("Stihl", catalog.getTool("CHNS").getBrand());
+            assertEquals(1, reloader.getReloadCount());
+            assertEquals(reloader.getVersion(), published.get().getVersion());
+            assertTrue(reloader.getLastReloadNanos() > 0);
+            assertEquals(1, reloader.getReloadLatency().getCount());
+        }
+    }
+
+    @Test
+    void should_keepCatalog_when_definitionIsInvalid(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.jsonl");
+        write(file, CHAINSAW_PRICING, CHAINSAW);
+
+        Catalog catalog = new Catalog();
+        CatalogReloader reloader = new CatalogReloader(file, catalog);
+        reloader.reload();
+        long version = reloader.getVersion();
+
+        write(file, CHAINSAW_PRICING, CHAINSAW, "{\"toolCode\":\"LADW\",\"brand\":\"Werner\",\"toolType\":\"Ladder\"}");
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, reloader::reload);
+
+        write(file, CHAINSAW_PRICING, CHAINSAW, "{\"toolType\":\"Ladder\",\"dailyCharge\":\"cheap\"}");
+        IllegalArgumentException malformed = assertThrows(IllegalArgumentException.class, reloader::reload);
+
+        write(file, CHAINSAW_PRICING, CHAINSAW, CHAINSAW);
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class, reloader::reload);
+
+        assertEquals(CatalogReloader.MISSING_PRICING_ERROR_MESSAGE + "Ladder", missing.getMessage());
+        assertEquals(CatalogReloader.INVALID_ENTRY_ERROR_MESSAGE + 3, malformed.getMessage());
+        assertTrue(duplicate.getMessage().startsWith(CatalogReloader.DUPLICATE_ENTRY_ERROR_MESSAGE));
+        assertEquals(version, reloader.getVersion());
+        assertEquals(3, reloader.getFailedReloadCount());
+        assertEquals(duplicate.getMessage(), reloader.getLastError());
+        assertNotNull(catalog.getTool("CHNS"));
+    }
+
+    @Test
+    void should_keepDiscountsOnToolType_when_fileIsReordered(@TempDir Path directory) throws IOException {
+        String ladderPricing = "{\"toolType\":\"Ladder\",\"dailyCharge\":1.99,\"weekday\":true,\"weekend\":true,\"holiday\":false}";
+        String ladder = "{\"toolCode\":\"LADW\",\"brand\":\"Werner\",\"toolType\":\"Ladder\"}";
+        Path file = directory.resolve("catalog.jsonl");
+        write(file, CHAINSAW_PRICING, ladderPricing, CHAINSAW, ladder);
+
+        Catalog catalog = new Catalog();
+        Store store = new Store(catalog);
+        CatalogReloader reloader = new CatalogReloader(file, catalog);
+        reloader.reload();
+
+        store.setDiscountTable(DiscountTable.compile(
+                Arrays.asList(DiscountRule.forToolType("Chainsaw", 40), DiscountRule.forToolType("Ladder", 10)),
+                catalog.snapshot().getIndex()
+        ));
+
+        int chainsawTypeId = catalog.snapshot().getIndex().typeId("Chainsaw");
+
+        // the reloader has no listener, the store alone must notice the reassigned IDs
+        write(file, ladderPricing, CHAINSAW_PRICING, ladder, CHAINSAW);
+        reloader.reload();
+
+        assertNotEquals(chainsawTypeId, catalog.snapshot().getIndex().typeId("Chainsaw"));
+        assertEquals(40, store.checkout("CHNS", 7, 0, "7/2/21").getDiscountPercent());
+        assertEquals(10, store.checkout("LADW", 7, 0, "7/2/21").getDiscountPercent());
+        assertEquals(40, store.prepare("CHNS").quote(7, 0, "7/2/21").getDiscountPercent());
+    }
+
+    @Test
+    void should_swapCatalog_when_fileChanges(@TempDir Path directory) throws IOException, InterruptedException {
+        Path file = directory.resolve("catalog.jsonl");
+        write(file, CHAINSAW_PRICING, CHAINSAW);
+
+        Catalog catalog = new Catalog();
+        Store store = new Store(catalog);
+
+        try (CatalogReloader reloader = new CatalogReloader(file, catalog)) {
+            reloader.start();
+
+            assertEquals(5, store.checkout("CHNS", 7, 0, "7/2/21").getChargeDays());
+
+            write(
+                    file,
+                    "{\"toolType\":\"Chainsaw\",\"dailyCharge\":2.49,\"weekday\":true,\"weekend\":true,\"holiday\":true}",
+                    CHAINSAW
+            );
+
+            long deadline = System.currentTimeMillis() + 30_000;
+
+            while (reloader.getReloadCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(2, reloader.getReloadCount());
+            assertEquals(249, store.checkout("CHNS", 7, 0, "7/2/21").getDailyChargeCents());
+            assertEquals(7, store.checkout("CHNS", 7, 0, "7/2/21").getChargeDays());
+        }
+    }
+}
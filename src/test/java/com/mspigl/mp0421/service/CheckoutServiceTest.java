@@ -0,0 +1,178 @@
+package com.mspigl.mp0421.service;
+
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.inventory.Inventory;
+import com.mspigl.mp0421.json.FlatJson;
+import com.mspigl.mp0421.store.Store;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CheckoutService
+ */
+class CheckoutServiceTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private CheckoutService service;
+    private String baseUri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(
+                                new CatalogItem("Chainsaw", 1.49, true, false, true),
+                                new CatalogItem("Ladder", 1.99, true, true, false)
+                        )
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        service = new CheckoutService(store, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        service.start();
+        baseUri = "http://localhost:" + service.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUri + path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String rawGet(String path) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), service.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private HttpRequest checkoutRequest(String body) {
+        return HttpRequest.newBuilder(URI.create(baseUri + "/checkout"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @Test
+    void should_returnAgreement_when_checkoutIsValid() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                checkoutRequest("{\"toolCode\":\"CHNS\",\"days\":7,\"discount\":75,\"date\":\"7/2/21\"}"),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        Map<String, String> agreement = FlatJson.parse(response.body());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("CHNS", agreement.get("toolCode"));
+        assertEquals("5", agreement.get("chargeDays"));
+        assertEquals("1.86", agreement.get("finalCharge"));
+    }
+
+    @Test
+    void should_returnConflict_when_noUnitIsLeft() throws IOException, InterruptedException {
+        String body = "{\"toolCode\":\"LADW\",\"days\":3,\"discount\":10,\"date\":\"7/2/20\"}";
+
+        assertEquals(200, client.send(checkoutRequest(body), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpResponse<String> rejected = client.send(checkoutRequest(body), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(409, rejected.statusCode());
+
+        // quotes reserve nothing, so the same rental can still be priced
+        assertEquals(200, get("/quote?toolCode=LADW&days=3&discount=10&date=7%2F2%2F20").statusCode());
+    }
+
+    @Test
+    void should_returnBadRequest_when_requestIsInvalid() throws IOException, InterruptedException {
+        HttpResponse<String> malformed = client.send(checkoutRequest("{\"toolCode\":"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> invalid = get("/quote?toolCode=CHNS&days=7&discount=101&date=7/2/21");
+
+        assertEquals(400, malformed.statusCode());
+        assertEquals(CheckoutService.MALFORMED_REQUEST_ERROR_MESSAGE, FlatJson.parse(malformed.body()).get("error"));
+        assertEquals(400, invalid.statusCode());
+        assertEquals(405, get("/checkout").statusCode());
+    }
+
+    @Test
+    void should_returnBadRequest_when_urlIsNotEncoded() throws IOException, InterruptedException {
+        // the HTTP client refuses to send a malformed URL, so the requests are written by hand
+        assertTrue(rawGet("/quote?toolCode=CHNS&days=7&discount=10&date=7%2").startsWith("HTTP/1.1 400"));
+        assertTrue(rawGet("/catalog/tools/CH%ZZ").startsWith("HTTP/1.1 400"));
+        assertThrows(IllegalArgumentException.class, () -> CheckoutService.parseQuery("date=7%2"));
+    }
+
+    @Test
+    void should_returnPayloadTooLarge_when_bodyExceedsLimit() throws IOException, InterruptedException {
+        String padding = "x".repeat(CheckoutService.MAX_REQUEST_BODY_BYTES);
+        HttpResponse<String> response = client.send(
+                checkoutRequest("{\"toolCode\":\"CHNS\",\"days\":7,\"discount\":75,\"date\":\"7/2/21\",\"note\":\"" + padding + "\"}"),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertEquals(413, response.statusCode());
+        assertEquals(CheckoutService.REQUEST_TOO_LARGE_ERROR_MESSAGE, FlatJson.parse(response.body()).get("error"));
+    }
+
+    @Test
+    void should_returnTool_when_lookedUp() throws IOException, InterruptedException {
+        Map<String, String> tool = FlatJson.parse(get("/catalog/tools/CHNS").body());
+
+        assertEquals("Stihl", tool.get("toolBrand"));
+        assertEquals("1.49", tool.get("dailyCharge"));
+        assertEquals("false", tool.get("weekendChargeable"));
+        assertEquals(404, get("/catalog/tools/NONE").statusCode());
+    }
+
+    @Test
+    void should_serveAll_when_requestsAreConcurrent() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+
+        for (int i = 1; i <= 200; i++) {
+            responses.add(client.sendAsync(
+                    HttpRequest.newBuilder(URI.create(baseUri + "/quote?toolCode=CHNS&discount=0&date=7/2/21&days=" + i)).build(),
+                    HttpResponse.BodyHandlers.ofString()
+            ));
+        }
+
+        for (int i = 0; i < responses.size(); i++) {
+            HttpResponse<String> response = responses.get(i).join();
+
+            assertEquals(200, response.statusCode());
+            assertEquals(String.valueOf(i + 1), FlatJson.parse(response.body()).get("rentalDays"));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.inventory.Inventory;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AsyncStore
+ */
+class AsyncStoreTest {
+
+    private static Store newStore(Inventory inventory) {
+        return new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(
+                                new CatalogItem("Chainsaw", 1.49, true, false, true),
+                                new CatalogItem("Ladder", 1.99, true, true, false)
+                        )
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+    }
+
+    @Test
+    void should_completeWithAgreement_when_checkoutIsValid() {
+        AsyncStore asyncStore = new AsyncStore(newStore(null));
+
+        RentalAgreement agreement = asyncStore.checkoutAsync("CHNS", 7, 75, "7/2/21").join();
+
+        assertEquals(1.86, agreement.getFinalCharge());
+        assertEquals(0, asyncStore.getInFlightCount());
+    }
+
+    @Test
+    void should_completeExceptionally_when_checkoutIsInvalid() {
+        AsyncStore asyncStore = new AsyncStore(newStore(null));
+
+        CompletionException e = assertThrows(
+                CompletionException.class,
+                () -> asyncStore.checkoutAsync("CHNS", 7, 101, "7/2/21").join()
+        );
+
+        assertEquals(Store.INVALID_DISCOUNT_ERROR_MESSAGE, e.getCause().getMessage());
+        assertEquals(0, asyncStore.getInFlightCount());
+    }
+
+    @Test
+    void should_rejectCheckout_when_admissionLimitIsReached() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            AsyncStore asyncStore = new AsyncStore(newStore(null), executor, 2);
+
+            CompletableFuture<RentalAgreement> first = asyncStore.checkoutAsync("CHNS", 7, 75, "7/2/21");
+            CompletableFuture<RentalAgreement> second = asyncStore.checkoutAsync("CHNS", 7, 75, "7/2/21");
+            CompletableFuture<RentalAgreement> third = asyncStore.checkoutAsync("CHNS", 7, 75, "7/2/21");
+
+            assertEquals(2, asyncStore.getInFlightCount());
+            assertTrue(third.isCompletedExceptionally());
+
+            CompletionException e = assertThrows(CompletionException.class, third::join);
+
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+            blocked.countDown();
+            first.join();
+            second.join();
+
+            assertNotNull(asyncStore.checkoutAsync("CHNS", 7, 75, "7/2/21").join());
+        } finally {
+            blocked.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_releaseReservation_when_followUpStageFails() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        AsyncStore asyncStore = new AsyncStore(newStore(inventory));
+
+        CompletableFuture<String> declined = asyncStore.checkoutAsync(
+                "LADW", 3, 10, "7/2/20",
+                agreement -> CompletableFuture.failedFuture(new IllegalStateException("Payment declined"))
+        );
+
+        CompletionException e = assertThrows(CompletionException.class, declined::join);
+
+        assertEquals("Payment declined", e.getCause().getMessage());
+
+        String receipt = asyncStore.checkoutAsync(
+                "LADW", 3, 10, "7/2/20",
+                agreement -> CompletableFuture.completedFuture(agreement.getToolCode())
+        ).join();
+
+        assertEquals("LADW", receipt);
+        long july4 = EpochDays.of(2020, 7, 4);
+
+        assertEquals(0, inventory.countAvailableUnits("LADW", july4, july4));
+    }
+}
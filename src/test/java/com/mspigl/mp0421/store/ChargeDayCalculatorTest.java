@@ -0,0 +1,76 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ChargeDayCalculator
+ */
+class ChargeDayCalculatorTest {
+
+    @Test
+    void should_countWeekendDays_when_runSpansPartialWeeks() {
+        // 2021-04-16 is a Friday
+        long april16 = LocalDate.of(2021, Month.APRIL, 16).toEpochDay();
+
+        assertEquals(0, ChargeDayCalculator.countWeekendDays(april16, 1));
+        assertEquals(2, ChargeDayCalculator.countWeekendDays(april16, 3));
+        assertEquals(2, ChargeDayCalculator.countWeekendDays(april16, 7));
+        assertEquals(4, ChargeDayCalculator.countWeekendDays(april16, 10));
+    }
+
+    @Test
+    void should_matchDayByDayWalk_when_countingChargeDays() {
+        LocalDate start = LocalDate.of(2014, Month.DECEMBER, 20);
+
+        for (int mask = 0; mask < 8; mask++) {
+            CatalogItem item = new CatalogItem("type", 1, (mask & 1) != 0, (mask & 2) != 0, (mask & 4) != 0);
+
+            for (int offset = 0; offset < 400; offset += 3) {
+                LocalDate checkout = start.plusDays(offset);
+
+                for (int rentalDays = 1; rentalDays <= 800; rentalDays += 37) {
+                    assertEquals(
+                            walkChargeDays(checkout, rentalDays, item),
+                            ChargeDayCalculator.countChargeDays(
+                                    HolidayCalendar.standard(),
+                                    checkout.toEpochDay(),
+                                    rentalDays,
+                                    item.getChargeMask()
+                            ),
+                            checkout + " + " + rentalDays + " days, mask " + mask
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    void should_countHolidays_when_rentalSpansSeveralYears() {
+        LocalDate checkout = LocalDate.of(2015, Month.JANUARY, 1);
+
+        // Two holidays per year over 2015 - 2019
+        assertEquals(10, ChargeDayCalculator.countChargeDays(HolidayCalendar.standard(), checkout.toEpochDay(), 365 * 5, CatalogItem.HOLIDAY_CHARGEABLE));
+    }
+
+    private static int walkChargeDays(LocalDate checkout, int rentalDays, CatalogItem item) {
+        int chargeDays = 0;
+        LocalDate day = checkout;
+
+        for (int i = 0; i < rentalDays; i++) {
+            day = day.plusDays(1);
+
+            if (Store.isChargeableDay(day, item)) {
+                chargeDays++;
+            }
+        }
+
+        return chargeDays;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mspigl.mp0421.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CheckoutDates
+ */
+class CheckoutDatesTest {
+
+    @Test
+    void should_parseDate_when_leadingZerosAreOptional() {
+        long expected = LocalDate.of(2021, Month.JULY, 2).toEpochDay();
+
+        assertEquals(expected, CheckoutDates.parse("7/2/21"));
+        assertEquals(expected, CheckoutDates.parse("07/02/21"));
+        assertEquals(expected, CheckoutDates.parse("07/2/21"));
+    }
+
+    @Test
+    void should_adjustToEndOfMonth_when_dayIsPastEndOfMonth() {
+        assertEquals(LocalDate.of(2021, Month.FEBRUARY, 28).toEpochDay(), CheckoutDates.parse("2/30/21"));
+        assertEquals(LocalDate.of(2020, Month.FEBRUARY, 29).toEpochDay(), CheckoutDates.parse("2/31/20"));
+        assertEquals(LocalDate.of(2021, Month.APRIL, 30).toEpochDay(), CheckoutDates.parse("4/31/21"));
+    }
+
+    @Test
+    void should_rejectDate_when_malformedOrInvalid() {
+        String[] invalidDates = {
+                null, "", "7/2", "7/2/2021", "7/2/1", "123/2/21", "7/123/21", "/2/21", "7//21",
+                "7-2-21", "a/2/21", "7/2/2a", "13/1/21", "0/1/21", "1/0/21", "1/32/21", "23/45/21", "7/2/21 "
+        };
+
+        for (String date : invalidDates) {
+            assertEquals(CheckoutDates.INVALID_DATE, CheckoutDates.parse(date), String.valueOf(date));
+        }
+    }
+
+    @Test
+    void should_formatWithLeadingZeros() {
+        assertEquals("07/05/20", CheckoutDates.format(LocalDate.of(2020, Month.JULY, 5).toEpochDay()));
+        assertEquals("12/31/09", CheckoutDates.format(LocalDate.of(2009, Month.DECEMBER, 31).toEpochDay()));
+        assertEquals("01/01/00", CheckoutDates.format(LocalDate.of(2100, Month.JANUARY, 1).toEpochDay()));
+    }
+}
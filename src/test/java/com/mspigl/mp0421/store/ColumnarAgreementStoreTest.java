@@ -0,0 +1,124 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ColumnarAgreementStore
+ */
+class ColumnarAgreementStoreTest {
+
+    private static final Store STORE = new Store(new Catalog(
+            Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+            Arrays.asList(
+                    new CatalogItem("Chainsaw", 1.49, true, false, true),
+                    new CatalogItem("Ladder", 1.99, true, true, false)
+            )
+    ));
+
+    private static List<RentalAgreement> agreements(int count) {
+        List<RentalAgreement> agreements = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            agreements.add(STORE.quote(
+                    i % 3 == 0 ? "LADW" : "CHNS",
+                    1 + i % 20,
+                    (i * 7) % 101,
+                    "7/" + (1 + i % 28) + "/21"
+            ));
+        }
+
+        return agreements;
+    }
+
+    @Test
+    void should_matchAgreementSums_when_aggregated() {
+        List<RentalAgreement> agreements = agreements(5000);
+        ColumnarAgreementStore columns = new ColumnarAgreementStore();
+        columns.appendAll(agreements);
+
+        long total = 0;
+        long chargeDays = 0;
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Long> discountByType = new HashMap<>();
+        long[] byDay = new long[31];
+        long[] byDiscount = new long[11];
+
+        for (RentalAgreement agreement : agreements) {
+            long cents = agreement.getFinalChargeCents();
+
+            total += cents;
+            chargeDays += agreement.getChargeDays();
+            byType.merge(agreement.getToolType(), cents, Long::sum);
+            discountByType.merge(agreement.getToolType(), agreement.getDiscountAmountCents(), Long::sum);
+            byDay[(int) (agreement.getCheckoutEpochDay() - LocalDate.of(2021, 7, 1).toEpochDay())] += cents;
+            byDiscount[agreement.getDiscountPercent() / 10] += cents;
+        }
+
+        assertEquals(5000, columns.size());
+        assertEquals(total, columns.totalRevenueCents(false));
+        assertEquals(chargeDays, columns.totalChargeDays(false));
+        assertEquals(byType, columns.revenueByToolType(false));
+        assertEquals(discountByType, columns.discountByToolType(false));
+        assertArrayEquals(byDay, columns.revenueByDay(LocalDate.of(2021, 7, 1), 31, false));
+        assertArrayEquals(byDiscount, columns.revenueByDiscountBucket(10, false));
+    }
+
+    @Test
+    void should_matchSerialScan_when_aggregatedInParallel() {
+        ColumnarAgreementStore columns = new ColumnarAgreementStore();
+        List<RentalAgreement> agreements = agreements(1000);
+
+        for (int i = 0; i < 200; i++) {
+            columns.appendAll(agreements);
+        }
+
+        assertEquals(columns.totalRevenueCents(false), columns.totalRevenueCents(true));
+        assertEquals(columns.totalChargeDays(false), columns.totalChargeDays(true));
+        assertEquals(columns.revenueByToolType(false), columns.revenueByToolType(true));
+        assertArrayEquals(
+                columns.revenueByDay(LocalDate.of(2021, 7, 10), 5, false),
+                columns.revenueByDay(LocalDate.of(2021, 7, 10), 5, true)
+        );
+        assertArrayEquals(columns.revenueByDiscountBucket(25, false), columns.revenueByDiscountBucket(25, true));
+    }
+
+    @Test
+    void should_readDateColumn_when_agreementCarriesNoChargeState() {
+        RentalAgreement agreement = new RentalAgreement();
+        agreement.setToolType("Ladder");
+        agreement.setCheckoutDate("07/02/21");
+        agreement.setChargeDays(2);
+        agreement.setDailyChargeCents(199);
+
+        ColumnarAgreementStore columns = new ColumnarAgreementStore();
+        columns.append(agreement);
+
+        assertArrayEquals(new long[] {0, 398}, columns.revenueByDay(LocalDate.of(2021, 7, 1), 2, false));
+        assertThrows(IllegalArgumentException.class, () -> columns.revenueByDiscountBucket(0, false));
+    }
+
+    @Test
+    void should_throwException_when_agreementHasNoToolType() {
+        RentalAgreement agreement = new RentalAgreement();
+        agreement.setCheckoutDate("07/02/21");
+
+        ColumnarAgreementStore columns = new ColumnarAgreementStore();
+
+        assertThrows(IllegalArgumentException.class, () -> columns.append(agreement));
+        assertThrows(IllegalArgumentException.class, () -> columns.appendAll(List.of(agreement)));
+        assertTrue(columns.revenueByToolType(false).isEmpty());
+        assertTrue(columns.discountByToolType(false).isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LateFeePolicy
+ */
+class LateFeePolicyTest {
+
+    @Test
+    void should_addFlatFeeAndRate_when_feeIsBelowCap() {
+        LateFeePolicy policy = new LateFeePolicy(2, 150, 500, 10_000);
+
+        assertEquals(500 + 3 * 300, policy.feeCents(200, 3));
+        assertEquals(10_000, policy.feeCents(200, 100));
+        assertEquals(0, LateFeePolicy.NONE.feeCents(200, 100));
+    }
+
+    @Test
+    void should_skipGraceDays_when_returnIsLate() {
+        Store store = new Store(new Catalog(
+                Arrays.asList(new Tool("JAKR", "Ridgid", "Jackhammer")),
+                Arrays.asList(new CatalogItem("Jackhammer", 2.99, true, false, false))
+        ));
+        RentalAgreement agreement = store.checkout("JAKR", 3, 0, "7/1/21");
+
+        store.setLateFeePolicy(new LateFeePolicy(3, 100, 100, Long.MAX_VALUE));
+
+        // due 7/4, the grace period covers 7/5 - 7/7 and 7/8 - 7/9 are charged
+        RentalReturn withinGrace = store.returnRental(agreement, "7/7/21");
+        RentalReturn pastGrace = store.returnRental(agreement, "7/9/21");
+
+        assertEquals(0, withinGrace.getLateFeeCents());
+        assertEquals(2, pastGrace.getLateChargeDays());
+        assertEquals(100 + 2 * 299, pastGrace.getLateFeeCents());
+        assertThrows(IllegalArgumentException.class, () -> new LateFeePolicy(-1, 100, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> store.setLateFeePolicy(null));
+    }
+}
@@ -0,0 +1,101 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogIndex;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.discount.DiscountRule;
+import com.mspigl.mp0421.discount.DiscountTable;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PreparedCheckout
+ */
+class PreparedCheckoutTest {
+
+    private static Catalog newCatalog() {
+        return new Catalog(
+                Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                Arrays.asList(
+                        new CatalogItem("Chainsaw", 1.49, true, false, true),
+                        new CatalogItem("Ladder", 1.99, true, true, false)
+                )
+        );
+    }
+
+    @Test
+    void should_matchStore_when_quotingManyScenarios() {
+        Store store = new Store(newCatalog());
+        PreparedCheckout prepared = store.prepare("CHNS");
+
+        for (int days = 1; days <= 60; days++) {
+            for (int discount = 0; discount <= 100; discount += 25) {
+                RentalAgreement expected = store.checkout("CHNS", days, discount, "6/28/21");
+
+                assertEquals(expected.toString(), prepared.checkout(days, discount, "6/28/21").toString());
+                assertEquals(expected.toString(), prepared.quote(days, discount, "6/28/21").toString());
+                assertEquals(expected.getFinalChargeCents(), prepared.quoteFinalChargeCents(days, discount, "6/28/21"));
+            }
+        }
+    }
+
+    @Test
+    void should_keepPreparedPricing_when_catalogChanges() {
+        Catalog catalog = newCatalog();
+        Store store = new Store(catalog);
+        PreparedCheckout prepared = store.prepare("LADW");
+
+        catalog.putCatalogItem(new CatalogItem("Ladder", 9.99, true, true, false));
+
+        assertEquals(199, prepared.getDailyChargeCents());
+        assertEquals(999, store.prepare("LADW").getDailyChargeCents());
+        assertEquals("Werner", prepared.getTool().getBrand());
+    }
+
+    @Test
+    void should_compileDiscountsOnce_when_preparedBeforeCatalogUpdate() {
+        Catalog catalog = newCatalog();
+        Store store = new Store(catalog);
+
+        store.setDiscountTable(DiscountTable.compile(
+                List.of(DiscountRule.forToolType("Ladder", 20)),
+                catalog.snapshot().getIndex()
+        ));
+
+        PreparedCheckout prepared = store.prepare("LADW");
+        CatalogIndex preparedIndex = catalog.snapshot().getIndex();
+
+        catalog.putTool(new Tool("LADR", "Ridgid", "Ladder"));
+        store.checkout("LADR", 3, 0, "7/2/21");
+
+        DiscountTable compiled = store.discountTable(preparedIndex);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(20, prepared.quote(3, 0, "7/2/21").getDiscountPercent());
+            assertSame(compiled, store.discountTable(preparedIndex));
+        }
+
+        assertSame(store.getDiscountTable(), store.discountTable(catalog.snapshot().getIndex()));
+    }
+
+    @Test
+    void should_rejectInput_when_preparedCheckoutIsInvalid() {
+        Store store = new Store(newCatalog());
+        PreparedCheckout prepared = store.prepare("CHNS");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> prepared.checkout(0, 10, "7/2/21"));
+
+        assertEquals(Store.INVALID_RENTAL_DAY_COUNT_ERROR_MESSAGE, e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> prepared.quoteFinalChargeCents(3, 101, "7/2/21"));
+        assertEquals(CheckoutError.INVALID_CHECKOUT_DATE, prepared.tryCheckout(3, 10, "13/1/21").getError());
+        assertEquals(
+                Store.TOOL_NOT_IN_CATALOG_ERROR_MESSAGE,
+                assertThrows(IllegalArgumentException.class, () -> store.prepare("XXXX")).getMessage()
+        );
+    }
+}
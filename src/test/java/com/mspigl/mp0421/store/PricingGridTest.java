@@ -0,0 +1,77 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PricingGrid
+ */
+class PricingGridTest {
+
+    private static final Store STORE = new Store(new Catalog(
+            Arrays.asList(
+                    new Tool("LADW", "Werner", "Ladder"),
+                    new Tool("CHNS", "Stihl", "Chainsaw"),
+                    new Tool("JAKR", "Ridgid", "Jackhammer")
+            ),
+            Arrays.asList(
+                    new CatalogItem("Ladder", 1.99, true, true, false),
+                    new CatalogItem("Chainsaw", 1.49, true, false, true),
+                    new CatalogItem("Jackhammer", 2.99, true, false, false)
+            )
+    ));
+
+    @Test
+    void should_matchCheckout_when_everyCellIsQuoted() {
+        for (String toolCode : Arrays.asList("LADW", "CHNS", "JAKR")) {
+            PricingGrid grid = STORE.priceGrid(toolCode, "6/20/20", 90, 30, 25);
+
+            assertEquals(toolCode, grid.getToolCode());
+
+            for (int start = 0; start < grid.getCheckoutDayCount(); start++) {
+                for (int days = 1; days <= grid.getMaxRentalDays(); days++) {
+                    RentalAgreement expected = STORE.checkout(toolCode, days, 25, grid.getCheckoutDate(start));
+
+                    assertEquals(expected.getChargeDays(), grid.getChargeDays(start, days));
+                    assertEquals(expected.getFinalChargeCents(), grid.getFinalChargeCents(start, days));
+                }
+            }
+        }
+    }
+
+    @Test
+    void should_quoteSpecRental_when_gridStartsAtCheckoutDate() {
+        PricingGrid grid = STORE.priceGrid("CHNS", "7/2/21", 1, 7, 75);
+
+        assertEquals("07/02/21", grid.getCheckoutDate(0));
+        assertEquals(5, grid.getChargeDays(0, 7));
+        assertEquals(1.86, grid.getFinalCharge(0, 7));
+    }
+
+    @Test
+    void should_throwException_when_cellIsOutsideGrid() {
+        PricingGrid grid = STORE.priceGrid("CHNS", "7/2/21", 3, 7, 0);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getChargeDays(3, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getChargeDays(0, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getFinalChargeCents(0, 0));
+    }
+
+    @Test
+    void should_throwException_when_gridSizeIsInvalid() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> STORE.priceGrid("CHNS", "7/2/21", 0, 7, 0)
+        );
+
+        assertEquals(Store.INVALID_GRID_SIZE_ERROR_MESSAGE, e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> STORE.priceGrid("CHNS", "7/2/21", 100_000, 1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> STORE.priceGrid("XXXX", "7/2/21", 1, 7, 0));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.calendar.EpochDays;
+import com.mspigl.mp0421.calendar.HolidayCalendar;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for QuoteCache
+ */
+class QuoteCacheTest {
+
+    private static final HolidayCalendar CALENDAR = HolidayCalendar.standard();
+    private static final long JULY_2_2021 = EpochDays.of(2021, 7, 2);
+    private static final int CHAINSAW_MASK = CatalogItem.WEEKDAY_CHARGEABLE | CatalogItem.HOLIDAY_CHARGEABLE;
+
+    @Test
+    void should_countHit_when_sameQuoteRequestedTwice() {
+        QuoteCache quoteCache = new QuoteCache(100);
+
+        assertEquals(5, quoteCache.getChargeDays(CALENDAR, JULY_2_2021, 7, CHAINSAW_MASK));
+        assertEquals(5, quoteCache.getChargeDays(CALENDAR, JULY_2_2021, 7, CHAINSAW_MASK));
+        assertEquals(1, quoteCache.getHitCount());
+        assertEquals(1, quoteCache.getMissCount());
+        assertEquals(1, quoteCache.size());
+    }
+
+    @Test
+    void should_matchCalculator_when_quotesAreCached() {
+        QuoteCache quoteCache = new QuoteCache(64);
+
+        for (int round = 0; round < 2; round++) {
+            for (int days = 1; days <= 100; days++) {
+                for (int mask = 0; mask <= 7; mask++) {
+                    assertEquals(
+                            ChargeDayCalculator.countChargeDays(CALENDAR, JULY_2_2021, days, mask),
+                            quoteCache.getChargeDays(CALENDAR, JULY_2_2021, days, mask)
+                    );
+                }
+            }
+        }
+
+        assertTrue(quoteCache.size() <= 64);
+        assertTrue(quoteCache.getEvictionCount() > 0);
+    }
+
+    @Test
+    void should_removeEveryEntry_when_invalidated() {
+        QuoteCache quoteCache = new QuoteCache(100);
+
+        quoteCache.getChargeDays(CALENDAR, JULY_2_2021, 7, CHAINSAW_MASK);
+        quoteCache.getChargeDays(CALENDAR, JULY_2_2021, 8, CHAINSAW_MASK);
+        quoteCache.getChargeDays(CALENDAR, JULY_2_2021, 7, CatalogItem.WEEKDAY_CHARGEABLE);
+
+        assertEquals(3, quoteCache.size());
+
+        quoteCache.invalidateAll();
+
+        assertEquals(0, quoteCache.size());
+    }
+
+    @Test
+    void should_bypassCache_when_rentalIsOutOfKeyRange() {
+        QuoteCache quoteCache = new QuoteCache(100);
+
+        assertEquals(
+                ChargeDayCalculator.countChargeDays(CALENDAR, -10, 30, CHAINSAW_MASK),
+                quoteCache.getChargeDays(CALENDAR, -10, 30, CHAINSAW_MASK)
+        );
+        assertEquals(0, quoteCache.size());
+    }
+
+    @Test
+    void should_throwException_when_sizeIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(0));
+    }
+}
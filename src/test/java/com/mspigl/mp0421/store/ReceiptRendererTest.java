@@ -0,0 +1,82 @@
+package com.mspigl.mp0421.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ReceiptRenderer
+ */
+class ReceiptRendererTest {
+
+    private static final String CHAINSAW_RECEIPT = "Tool code: CHNS\n" +
+            "Tool type: Chainsaw\n" +
+            "Tool brand: Stihl\n" +
+            "Rental days: 7\n" +
+            "Checkout date: 07/02/21\n" +
+            "Due date: 07/09/21\n" +
+            "Daily rental charge: $1.49\n" +
+            "Charge days: 5\n" +
+            "Pre-discount charge: $7.45\n" +
+            "Discount percent: 75%\n" +
+            "Discount amount: $5.59\n" +
+            "Final charge: $1.86";
+
+    private static RentalAgreement chainsawAgreement() {
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setToolCode("CHNS");
+        rentalAgreement.setToolType("Chainsaw");
+        rentalAgreement.setToolBrand("Stihl");
+        rentalAgreement.setRentalDays(7);
+        rentalAgreement.setCheckoutDate("07/02/21");
+        rentalAgreement.setDueDate("07/09/21");
+        rentalAgreement.setDailyCharge(1.49);
+        rentalAgreement.setChargeDays(5);
+        rentalAgreement.setDiscountPercent(75);
+
+        return rentalAgreement;
+    }
+
+    @Test
+    void should_renderReceipt_when_agreementRendered() {
+        assertEquals(CHAINSAW_RECEIPT, ReceiptRenderer.render(chainsawAgreement()));
+        assertEquals(CHAINSAW_RECEIPT, chainsawAgreement().toString());
+    }
+
+    @Test
+    void should_groupThousands_when_chargeIsLarge() {
+        RentalAgreement rentalAgreement = chainsawAgreement();
+        rentalAgreement.setChargeDays(1000);
+        rentalAgreement.setDiscountPercent(0);
+
+        assertTrue(rentalAgreement.toString().endsWith("Final charge: $1,490.00"));
+    }
+
+    @Test
+    void should_separateReceipts_when_renderedInBulk() throws IOException {
+        List<RentalAgreement> agreements = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            agreements.add(chainsawAgreement());
+        }
+
+        StringWriter writer = new StringWriter();
+
+        assertEquals(500, ReceiptRenderer.renderAll(agreements, writer));
+
+        String[] receipts = writer.toString().split(ReceiptRenderer.RECEIPT_SEPARATOR);
+
+        assertEquals(500, receipts.length);
+
+        for (String receipt : receipts) {
+            assertEquals(CHAINSAW_RECEIPT, receipt);
+        }
+
+        assertEquals(writer.toString(), ReceiptRenderer.renderAll(agreements));
+    }
+}
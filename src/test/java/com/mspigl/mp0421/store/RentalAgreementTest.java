@@ -40,4 +40,21 @@ class RentalAgreementTest {
 
         assertEquals(15.97, finalCharge);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getChargesInCents() {
+        assertEquals(1996, rentalAgreement.getPreDiscountChargeCents());
+        assertEquals(399, rentalAgreement.getDiscountAmountCents());
+        assertEquals(1597, rentalAgreement.getFinalChargeCents());
+    }
+
+    @Test
+    void getFinalCharge_when_totalIsNotExactInBinary() {
+        rentalAgreement.setChargeDays(3);
+        rentalAgreement.setDailyCharge(0.1);
+        rentalAgreement.setDiscountPercent(0);
+
+        assertEquals(30, rentalAgreement.getFinalChargeCents());
+        assertEquals(0.3, rentalAgreement.getFinalCharge());
+    }
+}
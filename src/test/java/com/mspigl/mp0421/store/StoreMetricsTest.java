@@ -0,0 +1,81 @@
+package com.mspigl.mp0421.store;
+
+import com.mspigl.mp0421.catalog.Catalog;
+import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.tool.Tool;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for StoreMetrics
+ */
+class StoreMetricsTest {
+
+    private static Store newStore() {
+        return new Store(new Catalog(
+                Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                Arrays.asList(
+                        new CatalogItem("Chainsaw", 1.49, true, false, true),
+                        new CatalogItem("Ladder", 1.99, true, true, false)
+                )
+        ));
+    }
+
+    @Test
+    void should_countCheckoutsAndRejections_when_storeChecksOut() {
+        Store store = newStore();
+
+        store.checkout("CHNS", 7, 75, "7/2/21");
+        store.checkout("CHNS", 3, 0, "7/2/21");
+        store.checkout("LADW", 3, 10, "7/2/20");
+        assertThrows(IllegalArgumentException.class, () -> store.checkout("XXXX", 3, 10, "7/2/20"));
+        assertThrows(IllegalArgumentException.class, () -> store.checkout("LADW", 3, 101, "7/2/20"));
+        assertThrows(IllegalArgumentException.class, () -> store.checkout("LADW", 3, 10, "13/2/20"));
+
+        StoreMetrics metrics = store.getMetrics();
+
+        assertEquals(3, metrics.getCheckoutCount());
+        assertEquals(2, metrics.getCheckoutCountsByToolType().get("Chainsaw"));
+        assertEquals(1, metrics.getCheckoutCountsByToolType().get("Ladder"));
+        assertEquals(3, metrics.getRejectionCount());
+        assertEquals(1, metrics.getRejectionCount(CheckoutError.TOOL_NOT_IN_CATALOG));
+        assertEquals(1, metrics.getRejectionCount(CheckoutError.INVALID_DISCOUNT));
+        assertEquals(1, metrics.getRejectionCountsByError().get("INVALID_CHECKOUT_DATE"));
+        assertEquals(0, metrics.getRejectionCountsByError().get("INVALID_RENTAL_DAY_COUNT"));
+        assertEquals(3, metrics.getCheckoutLatency().getCount());
+        assertEquals(6, metrics.getValidationLatency().getCount());
+        assertTrue(metrics.getCheckoutLatencyMaxNanos() >= metrics.getCheckoutLatencyP50Nanos());
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getCheckoutCount());
+        assertEquals(0, metrics.getRejectionCount());
+    }
+
+    @Test
+    void should_exposeAttributes_when_registeredOnPlatformServer() throws Exception {
+        Store store = newStore();
+        StoreMetrics metrics = store.getMetrics();
+
+        store.checkout("CHNS", 7, 75, "7/2/21");
+        metrics.register("test-store");
+
+        try {
+            ObjectName name = new ObjectName(StoreMetrics.OBJECT_NAME_PREFIX + ObjectName.quote("test-store"));
+
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CheckoutCount"));
+            assertThrows(IllegalStateException.class, () -> metrics.register("test-store"));
+        } finally {
+            metrics.unregister();
+        }
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().queryNames(
+                new ObjectName(StoreMetrics.OBJECT_NAME_PREFIX + "*"), null
+        ).stream().anyMatch(name -> name.toString().contains("test-store")));
+    }
+}
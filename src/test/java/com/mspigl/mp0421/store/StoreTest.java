@@ -1,14 +1,21 @@
 package com.mspigl.mp0421.store;
 
+import com.mspigl.mp0421.calendar.HolidayCalendar;
 import com.mspigl.mp0421.catalog.Catalog;
 import com.mspigl.mp0421.catalog.CatalogItem;
+import com.mspigl.mp0421.discount.DiscountRule;
+import com.mspigl.mp0421.discount.DiscountTable;
+import com.mspigl.mp0421.inventory.Inventory;
 import com.mspigl.mp0421.tool.Tool;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -205,6 +212,347 @@ class StoreTest {
         assertFalse(Store.isChargeableDay(july4, catalogItem));
     }
 
+    @Test
+    void should_matchCheckoutByCode_when_checkoutById() {
+        int toolId = SPEC_STORE.toolId("CHNS");
+
+        RentalAgreement byId = SPEC_STORE.checkout(toolId, 7, 75, "7/2/21");
+        RentalAgreement byCode = SPEC_STORE.checkout("CHNS", 7, 75, "7/2/21");
+
+        assertEquals(byCode.toString(), byId.toString());
+    }
+
+    @Test
+    void should_throwException_when_checkoutWithUnknownToolId() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> SPEC_STORE.checkout(1000, 7, 75, "7/2/21")
+        );
+
+        assertEquals(Store.TOOL_NOT_IN_CATALOG_ERROR_MESSAGE, e.getMessage());
+    }
+
+    @Test
+    void should_throwException_when_noUnitIsAvailable() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(new CatalogItem("Ladder", 1.99, true, true, false))
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        RentalAgreement rentalAgreement = store.checkout("LADW", 3, 10, "7/2/20");
+
+        assertNotNull(rentalAgreement.getReservation());
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> store.checkout("LADW", 3, 10, "7/4/20")
+        );
+
+        assertEquals(Store.TOOL_UNAVAILABLE_ERROR_MESSAGE, e.getMessage());
+        assertNotNull(store.checkout("LADW", 3, 10, "7/5/20"));
+    }
+
+    @Test
+    void should_matchUncachedCheckout_when_quoteCacheIsUsed() {
+        QuoteCache quoteCache = new QuoteCache(1000);
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                Arrays.asList(
+                        new CatalogItem("Chainsaw", 1.49, true, false, true),
+                        new CatalogItem("Ladder", 1.99, true, true, false)
+                )
+        );
+        Store store = new Store(catalog, HolidayCalendar.standard(), null, quoteCache);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(
+                    SPEC_STORE.checkout("CHNS", 7, 75, "7/2/21").toString(),
+                    store.checkout("CHNS", 7, 75, "7/2/21").toString()
+            );
+        }
+
+        store.checkout("LADW", 3, 10, "7/2/20");
+
+        assertEquals(1, quoteCache.getHitCount());
+        assertEquals(2, quoteCache.size());
+    }
+
+    @Test
+    void should_reportEveryError_when_tryCheckoutHasSeveralInvalidFields() {
+        CheckoutResult result = SPEC_STORE.tryCheckout("XXXX", 0, 101, "13/1/21");
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getRentalAgreement());
+        assertEquals(EnumSet.complementOf(EnumSet.of(CheckoutError.TOOL_UNAVAILABLE)), result.getErrors());
+        assertEquals(CheckoutError.TOOL_NOT_IN_CATALOG, result.getError());
+        assertFalse(result.hasError(CheckoutError.TOOL_UNAVAILABLE));
+        assertTrue(result.getErrorMessage().startsWith(Store.TOOL_NOT_IN_CATALOG_ERROR_MESSAGE + "; "));
+    }
+
+    @Test
+    void should_matchCheckout_when_tryCheckoutIsValid() {
+        CheckoutResult result = SPEC_STORE.tryCheckout(new CheckoutRequest("CHNS", 7, 75, "7/2/21"));
+
+        assertTrue(result.isSuccess());
+        assertTrue(result.getErrors().isEmpty());
+        assertNull(result.getError());
+        assertNull(result.getErrorMessage());
+        assertEquals(SPEC_STORE.checkout("CHNS", 7, 75, "7/2/21").toString(), result.getRentalAgreement().toString());
+    }
+
+    @Test
+    void should_reportUnavailable_when_tryCheckoutFindsNoUnit() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(new CatalogItem("Ladder", 1.99, true, true, false))
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        assertTrue(store.tryCheckout("LADW", 3, 10, "7/2/20").isSuccess());
+
+        CheckoutResult result = store.tryCheckout("LADW", 3, 10, "7/2/20");
+
+        assertEquals(CheckoutError.TOOL_UNAVAILABLE, result.getError());
+        assertEquals(1, store.getMetrics().getRejectionCount(CheckoutError.TOOL_UNAVAILABLE));
+    }
+
+    @Test
+    void should_chargeBestDiscount_when_discountTableIsSet() {
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw")),
+                        Arrays.asList(new CatalogItem("Chainsaw", 1.49, true, false, true))
+                )
+        );
+
+        store.setDiscountTable(DiscountTable.compile(
+                Arrays.asList(DiscountRule.forDuration(5, 20), DiscountRule.forLoyaltyTier(2, 50)),
+                store.getCatalog().snapshot().getIndex()
+        ));
+
+        assertEquals(10, store.checkout("CHNS", 3, 10, "7/2/21").getDiscountPercent());
+        assertEquals(20, store.checkout("CHNS", 7, 10, "7/2/21").getDiscountPercent());
+        assertEquals(75, store.checkout("CHNS", 7, 75, "7/2/21").getDiscountPercent());
+        assertEquals(50, store.checkout("CHNS", 7, 10, "7/2/21", 2).getDiscountPercent());
+        assertEquals(20, store.quote("CHNS", 7, 10, "7/2/21").getDiscountPercent());
+        assertEquals(
+                store.checkout("CHNS", 7, 0, "7/2/21").getFinalChargeCents(),
+                store.prepare("CHNS").quoteFinalChargeCents(7, 0, "7/2/21")
+        );
+
+        store.setDiscountTable(null);
+
+        assertEquals(0, store.checkout("CHNS", 7, 0, "7/2/21").getDiscountPercent());
+    }
+
+    @Test
+    void should_discountSameToolType_when_catalogReassignsIds() {
+        Catalog catalog = new Catalog(
+                Arrays.asList(new Tool("CHNS", "Stihl", "Chainsaw"), new Tool("LADW", "Werner", "Ladder")),
+                Arrays.asList(
+                        new CatalogItem("Chainsaw", 1.49, true, false, true),
+                        new CatalogItem("Ladder", 1.99, true, true, false)
+                )
+        );
+        Store store = new Store(catalog);
+
+        store.setDiscountTable(DiscountTable.compile(
+                Arrays.asList(DiscountRule.forToolType("Chainsaw", 40)),
+                catalog.snapshot().getIndex()
+        ));
+
+        catalog.replaceAll(
+                Arrays.asList(new Tool("LADW", "Werner", "Ladder"), new Tool("CHNS", "Stihl", "Chainsaw")),
+                Arrays.asList(
+                        new CatalogItem("Ladder", 1.99, true, true, false),
+                        new CatalogItem("Chainsaw", 1.49, true, false, true)
+                )
+        );
+
+        assertEquals(40, store.checkout("CHNS", 3, 0, "7/2/20").getDiscountPercent());
+        assertEquals(0, store.checkout("LADW", 3, 0, "7/2/20").getDiscountPercent());
+        assertTrue(store.getDiscountTable().isCompiledFor(catalog.snapshot().getIndex()));
+    }
+
+    @Test
+    void should_matchLongerCheckout_when_rentalIsExtended() {
+        RentalAgreement agreement = SPEC_STORE.checkout("LADW", 3, 10, "7/2/20");
+
+        for (int week = 0; week < 10; week++) {
+            agreement = SPEC_STORE.extend(agreement, 7);
+        }
+
+        RentalAgreement expected = SPEC_STORE.checkout("LADW", 73, 10, "7/2/20");
+
+        assertEquals(expected.toString(), agreement.toString());
+        assertEquals(expected.getDueEpochDay(), agreement.getDueEpochDay());
+        assertThrows(IllegalArgumentException.class, () -> SPEC_STORE.extend(expected, 0));
+    }
+
+    @Test
+    void should_rebuildChargeState_when_agreementCarriesNone() {
+        RentalAgreement checkedOut = SPEC_STORE.checkout("JAKR", 4, 0, "7/2/15");
+        RentalAgreement replayed = new RentalAgreement();
+        replayed.setToolCode(checkedOut.getToolCode());
+        replayed.setToolType(checkedOut.getToolType());
+        replayed.setCheckoutDate(checkedOut.getCheckoutDate());
+        replayed.setRentalDays(checkedOut.getRentalDays());
+        replayed.setChargeDays(checkedOut.getChargeDays());
+        replayed.setDailyChargeCents(checkedOut.getDailyChargeCents());
+
+        assertEquals(RentalAgreement.NO_CHARGE_STATE, replayed.getChargeMask());
+        assertEquals(
+                SPEC_STORE.extend(checkedOut, 5).getChargeDays(),
+                SPEC_STORE.extend(replayed, 5).getChargeDays()
+        );
+    }
+
+    @Test
+    void should_handOverUnit_when_nextRentalStartsOnDueDate() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(new CatalogItem("Ladder", 1.99, true, true, false))
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        RentalAgreement first = store.checkout("LADW", 3, 10, "7/2/20");
+
+        assertEquals("07/05/20", first.getDueDate());
+        assertNotNull(store.checkout("LADW", 3, 10, "7/5/20"));
+        assertFalse(store.tryCheckout("LADW", 1, 10, "7/4/20").isSuccess());
+    }
+
+    @Test
+    void should_extendReservation_when_unitIsFree() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(new CatalogItem("Ladder", 1.99, true, true, false))
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        RentalAgreement agreement = store.checkout("LADW", 3, 10, "7/2/20");
+        store.checkout("LADW", 3, 10, "7/9/20");
+
+        RentalAgreement extended = store.extend(agreement, 3);
+
+        assertEquals("07/08/20", extended.getDueDate());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> store.extend(extended, 2));
+
+        assertEquals(Store.TOOL_UNAVAILABLE_ERROR_MESSAGE, e.getMessage());
+    }
+
+    @Test
+    void should_throwException_when_extendedReservationIsNotHeld() {
+        Inventory inventory = new Inventory();
+        inventory.setUnits("LADW", 1);
+
+        Store store = new Store(
+                new Catalog(
+                        Arrays.asList(new Tool("LADW", "Werner", "Ladder")),
+                        Arrays.asList(new CatalogItem("Ladder", 1.99, true, true, false))
+                ),
+                HolidayCalendar.standard(),
+                inventory
+        );
+
+        RentalAgreement cancelled = store.checkout("LADW", 3, 10, "7/2/20");
+        RentalAgreement replaced = store.checkout("LADW", 3, 10, "7/9/20");
+
+        assertTrue(store.cancel(cancelled));
+        store.extend(replaced, 2);
+
+        IllegalArgumentException afterCancel = assertThrows(IllegalArgumentException.class, () -> store.extend(cancelled, 2));
+        IllegalArgumentException afterExtend = assertThrows(IllegalArgumentException.class, () -> store.extend(replaced, 2));
+
+        assertEquals(Store.RESERVATION_NOT_HELD_ERROR_MESSAGE, afterCancel.getMessage());
+        assertEquals(Store.RESERVATION_NOT_HELD_ERROR_MESSAGE, afterExtend.getMessage());
+    }
+
+    @Test
+    void should_chargeLateFee_when_returnIsPastDueDate() {
+        RentalAgreement agreement = SPEC_STORE.checkout("JAKR", 3, 0, "7/1/21");
+
+        RentalReturn onTime = SPEC_STORE.returnRental(agreement, "7/3/21");
+        RentalReturn late = SPEC_STORE.returnRental(agreement, "7/12/21");
+
+        assertEquals(0, onTime.getLateFeeCents());
+        assertEquals(agreement.getFinalChargeCents(), onTime.getTotalChargeCents());
+        assertEquals(8, late.getLateDays());
+        assertEquals(5, late.getLateChargeDays());
+        assertEquals(5 * 299, late.getLateFeeCents());
+        assertEquals("07/12/21", late.getReturnDate());
+        assertThrows(IllegalArgumentException.class, () -> SPEC_STORE.returnRental(agreement, "6/30/21"));
+    }
+
+    @Test
+    void should_returnResultsInInputOrder_when_checkoutBatchContainsInvalidRequest() {
+        List<CheckoutRequest> requests = Arrays.asList(
+                new CheckoutRequest("LADW", 3, 10, "7/2/20"),
+                new CheckoutRequest("JAKR", 5, 101, "9/3/15"),
+                new CheckoutRequest("CHNS", 5, 25, "7/2/15")
+        );
+
+        List<CheckoutResult> results = SPEC_STORE.checkoutBatch(requests);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("LADW", results.get(0).getRentalAgreement().getToolCode());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(Store.INVALID_DISCOUNT_ERROR_MESSAGE, results.get(1).getErrorMessage());
+        assertSame(requests.get(1), results.get(1).getRequest());
+        assertEquals(3.35, results.get(2).getRentalAgreement().getFinalCharge());
+    }
+
+    @Test
+    void should_matchSerialCheckout_when_checkoutStreamIsParallel() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+
+        for (int i = 1; i <= 500; i++) {
+            requests.add(new CheckoutRequest(i % 2 == 0 ? "JAKD" : "CHNS", i, i % 100, "1/" + (i % 28 + 1) + "/21"));
+        }
+
+        List<CheckoutResult> results = SPEC_STORE.checkoutStream(requests.parallelStream())
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutRequest request = requests.get(i);
+            RentalAgreement expected = SPEC_STORE.checkout(
+                    request.getToolCode(),
+                    request.getRentalDayCount(),
+                    request.getDiscountPercent(),
+                    request.getCheckoutDate()
+            );
+
+            assertEquals(expected.toString(), results.get(i).getRentalAgreement().toString());
+        }
+    }
+
     /* SPEC TESTS */
 
     /**